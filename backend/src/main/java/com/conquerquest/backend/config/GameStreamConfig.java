@@ -0,0 +1,28 @@
+package com.conquerquest.backend.config;
+
+import com.conquerquest.backend.infra.socket.stream.GameStreamHandler;
+import com.conquerquest.backend.infra.socket.stream.GameStreamHandshake;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+@Configuration
+@EnableWebSocket
+@RequiredArgsConstructor
+public class GameStreamConfig implements WebSocketConfigurer {
+
+    private final GameStreamHandler gameStreamHandler;
+    private final GameStreamHandshake gameStreamHandshake;
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        // raw websocket for the game state stream (no STOMP framing, per-session backpressure)
+        // the endpoint is open to anyone, the handshake only lets in holders of a join token
+        registry.addHandler(gameStreamHandler, "/ws-game")
+                .addInterceptors(gameStreamHandshake)
+                .setAllowedOriginPatterns("*");
+    }
+}
@@ -25,7 +25,7 @@ public class SecurityConfig {
                 .csrf(AbstractHttpConfigurer::disable)
 
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/api/map", "/ws/**", "/error").permitAll()
+                        .requestMatchers("/api/map/**", "/ws/**", "/ws-stomp", "/ws-game", "/actuator/**", "/error").permitAll()
                         // For development purposes, allow all other requests. CHANGE THIS LATER!
                         .anyRequest().permitAll());
 
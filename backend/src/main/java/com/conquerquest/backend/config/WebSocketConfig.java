@@ -25,5 +25,9 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registry.addEndpoint("/ws")
                 .setAllowedOriginPatterns("*") // allow CORS for all origins
                 .withSockJS(); // Fallback cases for browsers that don’t support WebSocket
+
+        // plain websocket endpoint: SockJS only carries text, binary snapshots need this one
+        registry.addEndpoint("/ws-stomp")
+                .setAllowedOriginPatterns("*");
     }
 }
\ No newline at end of file
@@ -1,8 +1,6 @@
 package com.conquerquest.backend.core.components;
 
 import com.conquerquest.backend.core.ecs.GameComponent;
-import java.util.HashSet;
-import java.util.Set;
 
 public class InputComponent implements GameComponent {
     // Constantly changing data
@@ -12,22 +10,23 @@ public class InputComponent implements GameComponent {
     private float facingY;
     private boolean isSprinting;
 
-    // Triggers that need to be consumed
-    private final Set<InputType> triggers = new HashSet<>();
+    // Triggers that need to be consumed (bit per InputType ordinal)
+    private int triggers;
 
     private float aimX;
     private float aimY;
 
+    public InputComponent() {
+        this(0f, 0f, 0f, 1f, false, 0f, 0f);
+    }
+
     public InputComponent(float x, float y, float facingX, float facingY, boolean isSprinting,
-            Set<InputType> initialActions, float aimX, float aimY) {
+            float aimX, float aimY) {
         this.x = x;
         this.y = y;
         this.facingX = facingX;
         this.facingY = facingY;
         this.isSprinting = isSprinting;
-        if (initialActions != null) {
-            this.triggers.addAll(initialActions);
-        }
         this.aimX = aimX;
         this.aimY = aimY;
     }
@@ -52,14 +51,25 @@ public class InputComponent implements GameComponent {
         return isSprinting;
     }
 
+    public float getAimX() {
+        return aimX;
+    }
+
+    public float getAimY() {
+        return aimY;
+    }
+
     // --- Consuming events logic
 
     public boolean tryConsumeAction(InputType type) {
-        return triggers.remove(type);
+        int bit = 1 << type.ordinal();
+        boolean pending = (triggers & bit) != 0;
+        triggers &= ~bit;
+        return pending;
     }
 
     public boolean hasPendingAction(InputType type) {
-        return triggers.contains(type);
+        return (triggers & (1 << type.ordinal())) != 0;
     }
 
     public void updateMovementState(float x, float y, float facingX, float facingY, boolean isSprinting) {
@@ -70,7 +80,12 @@ public class InputComponent implements GameComponent {
         this.isSprinting = isSprinting;
     }
 
+    public void updateAim(float aimX, float aimY) {
+        this.aimX = aimX;
+        this.aimY = aimY;
+    }
+
     public void addTrigger(InputType type) {
-        this.triggers.add(type);
+        this.triggers |= 1 << type.ordinal();
     }
-}
\ No newline at end of file
+}
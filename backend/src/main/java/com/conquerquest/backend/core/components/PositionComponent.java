@@ -1,20 +1,53 @@
 package com.conquerquest.backend.core.components;
 
-import com.conquerquest.backend.core.ecs.GameComponent;
-import lombok.AllArgsConstructor;
-import lombok.Data;
-import lombok.NoArgsConstructor;
-
-@Data
-@AllArgsConstructor
-@NoArgsConstructor
-public class PositionComponent implements GameComponent {
-    private float x;
-    private float y;
-    private float rotation;
+import com.conquerquest.backend.core.ecs.PackedComponent;
+
+public class PositionComponent extends PackedComponent {
+
+    // Column indexes inside the archetype storage
+    public static final int X = 0;
+    public static final int Y = 1;
+    public static final int ROTATION = 2;
+
+    private static final int FIELDS = 3;
+
+    public PositionComponent() {
+        super(FIELDS);
+    }
+
+    public PositionComponent(float x, float y, float rotation) {
+        this();
+        set(X, x);
+        set(Y, y);
+        set(ROTATION, rotation);
+    }
+
+    public float getX() {
+        return get(X);
+    }
+
+    public void setX(float x) {
+        set(X, x);
+    }
+
+    public float getY() {
+        return get(Y);
+    }
+
+    public void setY(float y) {
+        set(Y, y);
+    }
+
+    public float getRotation() {
+        return get(ROTATION);
+    }
+
+    public void setRotation(float rotation) {
+        set(ROTATION, rotation);
+    }
 
     public void update(float x, float y) {
-        this.x = x;
-        this.y = y;
+        set(X, x);
+        set(Y, y);
     }
-}
\ No newline at end of file
+}
@@ -1,20 +1,86 @@
 package com.conquerquest.backend.core.components;
 
-import com.conquerquest.backend.core.ecs.GameComponent;
+import com.conquerquest.backend.core.ecs.PackedComponent;
 
-import lombok.AllArgsConstructor;
-import lombok.Data;
+public class SurvivalComponent extends PackedComponent {
 
-@Data
-@AllArgsConstructor
-public class SurvivalComponent implements GameComponent {
-    private float hunger;
-    private float maxHunger;
+    // Column indexes inside the archetype storage
+    public static final int HUNGER = 0;
+    public static final int MAX_HUNGER = 1;
+    public static final int THIRST = 2;
+    public static final int MAX_THIRST = 3;
+    public static final int TEMPERATURE = 4;
+    public static final int MAX_TEMPERATURE = 5;
+    public static final int COLD_RESISTANCE = 6;
 
-    private float thirst;
-    private float maxThirst;
+    private static final int FIELDS = 7;
 
-    private float temperature;
-    private float MaxTemperature;
-    private float coldResistance;
+    public SurvivalComponent(float hunger, float maxHunger,
+            float thirst, float maxThirst,
+            float temperature, float maxTemperature, float coldResistance) {
+        super(FIELDS);
+        set(HUNGER, hunger);
+        set(MAX_HUNGER, maxHunger);
+        set(THIRST, thirst);
+        set(MAX_THIRST, maxThirst);
+        set(TEMPERATURE, temperature);
+        set(MAX_TEMPERATURE, maxTemperature);
+        set(COLD_RESISTANCE, coldResistance);
+    }
+
+    public float getHunger() {
+        return get(HUNGER);
+    }
+
+    public void setHunger(float hunger) {
+        set(HUNGER, hunger);
+    }
+
+    public float getMaxHunger() {
+        return get(MAX_HUNGER);
+    }
+
+    public void setMaxHunger(float maxHunger) {
+        set(MAX_HUNGER, maxHunger);
+    }
+
+    public float getThirst() {
+        return get(THIRST);
+    }
+
+    public void setThirst(float thirst) {
+        set(THIRST, thirst);
+    }
+
+    public float getMaxThirst() {
+        return get(MAX_THIRST);
+    }
+
+    public void setMaxThirst(float maxThirst) {
+        set(MAX_THIRST, maxThirst);
+    }
+
+    public float getTemperature() {
+        return get(TEMPERATURE);
+    }
+
+    public void setTemperature(float temperature) {
+        set(TEMPERATURE, temperature);
+    }
+
+    public float getMaxTemperature() {
+        return get(MAX_TEMPERATURE);
+    }
+
+    public void setMaxTemperature(float maxTemperature) {
+        set(MAX_TEMPERATURE, maxTemperature);
+    }
+
+    public float getColdResistance() {
+        return get(COLD_RESISTANCE);
+    }
+
+    public void setColdResistance(float coldResistance) {
+        set(COLD_RESISTANCE, coldResistance);
+    }
 }
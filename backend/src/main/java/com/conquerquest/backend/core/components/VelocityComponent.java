@@ -1,21 +1,43 @@
 package com.conquerquest.backend.core.components;
 
-import com.conquerquest.backend.core.ecs.GameComponent;
+import com.conquerquest.backend.core.ecs.PackedComponent;
 
-import lombok.AllArgsConstructor;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+public class VelocityComponent extends PackedComponent {
 
-@Data
-@AllArgsConstructor
-@NoArgsConstructor
-public class VelocityComponent implements GameComponent {
+    // Column indexes inside the archetype storage
+    public static final int X = 0;
+    public static final int Y = 1;
 
-    private float x;
-    private float y;
+    private static final int FIELDS = 2;
+
+    public VelocityComponent() {
+        super(FIELDS);
+    }
+
+    public VelocityComponent(float x, float y) {
+        this();
+        set(X, x);
+        set(Y, y);
+    }
+
+    public float getX() {
+        return get(X);
+    }
+
+    public void setX(float x) {
+        set(X, x);
+    }
+
+    public float getY() {
+        return get(Y);
+    }
+
+    public void setY(float y) {
+        set(Y, y);
+    }
 
     public void update(float vx, float vy) {
-        this.x = vx;
-        this.y = vy;
+        set(X, vx);
+        set(Y, vy);
     }
-}
\ No newline at end of file
+}
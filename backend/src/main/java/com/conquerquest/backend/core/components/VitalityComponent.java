@@ -1,15 +1,54 @@
 package com.conquerquest.backend.core.components;
 
-import com.conquerquest.backend.core.ecs.GameComponent;
-
-import lombok.AllArgsConstructor;
-import lombok.Data;
-
-@Data
-@AllArgsConstructor
-public class VitalityComponent implements GameComponent {
-    private float health;
-    private float maxHealth;
-    private float stamina;
-    private float maxStamina;
+import com.conquerquest.backend.core.ecs.PackedComponent;
+
+public class VitalityComponent extends PackedComponent {
+
+    // Column indexes inside the archetype storage
+    public static final int HEALTH = 0;
+    public static final int MAX_HEALTH = 1;
+    public static final int STAMINA = 2;
+    public static final int MAX_STAMINA = 3;
+
+    private static final int FIELDS = 4;
+
+    public VitalityComponent(float health, float maxHealth, float stamina, float maxStamina) {
+        super(FIELDS);
+        set(HEALTH, health);
+        set(MAX_HEALTH, maxHealth);
+        set(STAMINA, stamina);
+        set(MAX_STAMINA, maxStamina);
+    }
+
+    public float getHealth() {
+        return get(HEALTH);
+    }
+
+    public void setHealth(float health) {
+        set(HEALTH, health);
+    }
+
+    public float getMaxHealth() {
+        return get(MAX_HEALTH);
+    }
+
+    public void setMaxHealth(float maxHealth) {
+        set(MAX_HEALTH, maxHealth);
+    }
+
+    public float getStamina() {
+        return get(STAMINA);
+    }
+
+    public void setStamina(float stamina) {
+        set(STAMINA, stamina);
+    }
+
+    public float getMaxStamina() {
+        return get(MAX_STAMINA);
+    }
+
+    public void setMaxStamina(float maxStamina) {
+        set(MAX_STAMINA, maxStamina);
+    }
 }
@@ -15,4 +15,12 @@ public interface GameSystem {
      * @param delta the time elapsed since the last update in seconds.
      */
     void update(WorldState state, float delta);
+
+    /**
+     * component types touched by update, used to decide which systems may run
+     * concurrently. Systems that don't override this run alone.
+     */
+    default SystemAccess access() {
+        return SystemAccess.EXCLUSIVE;
+    }
 }
\ No newline at end of file
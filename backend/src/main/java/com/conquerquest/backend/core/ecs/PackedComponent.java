@@ -0,0 +1,66 @@
+package com.conquerquest.backend.core.ecs;
+
+/**
+ * Base class for hot components whose state is a fixed set of floats.
+ * While the owning entity lives in the WorldState, the values are stored in
+ * dense float[] columns of its archetype (one column per field) and this
+ * object only acts as a read/write view over its row.
+ * Detached instances (not yet added, or removed) keep their own values.
+ */
+public abstract class PackedComponent implements GameComponent {
+
+    // columns[field][row]
+    private float[][] columns;
+    private int row;
+
+    protected PackedComponent(int fieldCount) {
+        this.columns = new float[fieldCount][1];
+        this.row = 0;
+    }
+
+    public final int fieldCount() {
+        return columns.length;
+    }
+
+    protected final float get(int field) {
+        return columns[field][row];
+    }
+
+    protected final void set(int field, float value) {
+        columns[field][row] = value;
+    }
+
+    // --- Storage hooks (called by WorldState only) ---
+
+    /**
+     * copies the current values into the target columns and reads/writes
+     * through them from now on.
+     */
+    public final void attach(float[][] target, int targetRow) {
+        for (int f = 0; f < columns.length; f++) {
+            target[f][targetRow] = columns[f][row];
+        }
+        this.columns = target;
+        this.row = targetRow;
+    }
+
+    /**
+     * the values were moved to another row of the same columns.
+     */
+    public final void rebind(int newRow) {
+        this.row = newRow;
+    }
+
+    /**
+     * copies the values out of the shared columns so the instance stays valid
+     * after it leaves the world.
+     */
+    public final void detach() {
+        float[][] own = new float[columns.length][1];
+        for (int f = 0; f < columns.length; f++) {
+            own[f][0] = columns[f][row];
+        }
+        this.columns = own;
+        this.row = 0;
+    }
+}
@@ -0,0 +1,60 @@
+package com.conquerquest.backend.core.ecs;
+
+import java.util.Set;
+
+/**
+ * Component types a system reads and writes during update. Two systems
+ * conflict when one writes a type the other reads or writes; conflicting
+ * systems keep their registration order, others may run at the same time.
+ *
+ * Structural changes (creating/removing entities, adding/removing components)
+ * are never allowed from a system that doesn't run exclusively.
+ */
+public record SystemAccess(
+        Set<Class<? extends GameComponent>> reads,
+        Set<Class<? extends GameComponent>> writes,
+        boolean exclusive) {
+
+    /**
+     * conflicts with every other system. The default for systems that
+     * don't declare their access.
+     */
+    public static final SystemAccess EXCLUSIVE = new SystemAccess(Set.of(), Set.of(), true);
+
+    /**
+     * touches no components; start of {@code NONE.reading(...).writing(...)}.
+     */
+    public static final SystemAccess NONE = new SystemAccess(Set.of(), Set.of(), false);
+
+    public SystemAccess {
+        reads = Set.copyOf(reads);
+        writes = Set.copyOf(writes);
+    }
+
+    @SafeVarargs
+    public final SystemAccess reading(Class<? extends GameComponent>... types) {
+        return new SystemAccess(Set.of(types), writes, exclusive);
+    }
+
+    @SafeVarargs
+    public final SystemAccess writing(Class<? extends GameComponent>... types) {
+        return new SystemAccess(reads, Set.of(types), exclusive);
+    }
+
+    public boolean conflictsWith(SystemAccess other) {
+        if (exclusive || other.exclusive)
+            return true;
+
+        return intersects(writes, other.writes)
+                || intersects(writes, other.reads)
+                || intersects(reads, other.writes);
+    }
+
+    private static boolean intersects(Set<?> a, Set<?> b) {
+        for (Object type : a) {
+            if (b.contains(type))
+                return true;
+        }
+        return false;
+    }
+}
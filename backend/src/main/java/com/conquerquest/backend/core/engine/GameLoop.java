@@ -1,24 +1,40 @@
 package com.conquerquest.backend.core.engine;
 
-import com.conquerquest.backend.core.services.SnapshotService;
 import com.conquerquest.backend.core.state.WorldState;
 import com.conquerquest.backend.core.systems.PhysicsSystem;
 import com.conquerquest.backend.core.systems.PlayerControlSystem;
 import com.conquerquest.backend.core.systems.SurvivalSystem;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
 import org.springframework.stereotype.Component;
 
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
+/**
+ * Fixed-timestep simulation loop running on its own high priority thread.
+ * Real time is accumulated with System.nanoTime and consumed in fixed steps,
+ * so the simulation rate doesn't drift. When the loop falls behind it runs
+ * up to maxCatchUpSteps steps back to back and drops the rest of the backlog.
+ * Between ticks the thread parks and spins for the last few microseconds.
+ *
+ * A failing step or publish is logged and the loop carries on with the next
+ * tick, whatever was thrown. Only a VirtualMachineError (out of memory, stack
+ * overflow...) ends the loop, and then isRunning() reports it.
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
-public class GameLoop {
+public class GameLoop implements SmartLifecycle {
 
     @Getter
     private final WorldState worldState;
@@ -29,43 +45,258 @@ public class GameLoop {
 
     private final SurvivalSystem survivalSystem;
 
-    private final SnapshotService snapshotService;
+    // encodes and sends snapshots on its own thread
+    private final SnapshotPublisher snapshotPublisher;
 
-    // inputs queue that come from websocket handlers, thread-safe.
+    private final TickProfiler profiler;
+
+    private final MeterRegistry meterRegistry;
+
+    // inputs that come from websocket handlers, thread-safe.
     // GameLoop consumes this, no one writes to State directly.
-    private final Queue<Runnable> inputQueue = new ConcurrentLinkedQueue<>();
+    private final InputBuffer inputBuffer;
+
+    // Target: 60 Ticks Per Second
+    @Value("${game.loop.tick-rate:60}")
+    private int tickRate;
+
+    // Max simulation steps run back to back when the loop falls behind
+    @Value("${game.loop.max-catch-up-steps:5}")
+    private int maxCatchUpSteps;
+
+    // Below this remaining time the thread spins instead of parking
+    @Value("${game.loop.spin-threshold-micros:500}")
+    private long spinThresholdMicros;
 
-    // Target: 60 Ticks Per Second (1000ms / 60 ≈ 16.6ms)
-    private static final int TICK_RATE_MS = 16;
+    // Threads running non-conflicting systems side by side, 1 runs them in order on the loop
+    @Value("${game.loop.system-threads:2}")
+    private int systemThreads;
+
+    // --- Timing counters (written by the loop thread, read by anyone) ---
+    private final AtomicLong tickCount = new AtomicLong();
+    // steps that took longer than the step budget
+    private final AtomicLong overrunCount = new AtomicLong();
+    // steps that ran late, as catch-up after a slow step or a late wake up
+    private final AtomicLong lateTickCount = new AtomicLong();
+    // steps skipped because the backlog exceeded maxCatchUpSteps
+    private final AtomicLong droppedTickCount = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread loopThread;
+    private SystemScheduler scheduler;
 
     // Fixed delta time in seconds for physics consistency
-    private static final float FIXED_DELTA = 0.016f;
+    @Getter
+    private float fixedDelta;
+
+    private long stepNanos;
 
-    @Scheduled(fixedRate = TICK_RATE_MS)
-    public void tick() {
+    @Override
+    public void start() {
+        stepNanos = TimeUnit.SECONDS.toNanos(1) / tickRate;
+        fixedDelta = 1f / tickRate;
+
+        bindMetrics();
+
+        // registration order is the order conflicting systems run in;
+        // extra threads on fewer cores only add hand-offs
+        scheduler = new SystemScheduler(List.of(
+                new SystemScheduler.Entry(playerControlSystem, TickProfiler.Phase.PLAYER_CONTROL),
+                new SystemScheduler.Entry(physicsSystem, TickProfiler.Phase.PHYSICS),
+                new SystemScheduler.Entry(survivalSystem, TickProfiler.Phase.SURVIVAL)),
+                profiler, Math.min(systemThreads, Runtime.getRuntime().availableProcessors()));
+
+        running = true;
+        loopThread = new Thread(this::run, "game-loop");
+        loopThread.setPriority(Thread.MAX_PRIORITY);
+        loopThread.start();
+
+        log.info("Game loop started at {} Hz (max catch-up steps: {})", tickRate, maxCatchUpSteps);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (loopThread != null) {
+            LockSupport.unpark(loopThread);
+            try {
+                loopThread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+        log.info("Game loop stopped after {} ticks ({} overruns, {} late, {} dropped)",
+                tickCount.get(), overrunCount.get(), lateTickCount.get(), droppedTickCount.get());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
         try {
-            // procces inputs before updating the world
-            while (!inputQueue.isEmpty()) {
-                inputQueue.poll().run();
+            loop();
+        } catch (Throwable e) {
+            running = false;
+            log.error("CRITICAL: Game loop died, the world is frozen", e);
+            throw e;
+        }
+    }
+
+    private void loop() {
+        long maxBacklog = stepNanos * maxCatchUpSteps;
+        long previous = System.nanoTime();
+        long accumulator = 0;
+
+        while (running) {
+            long now = System.nanoTime();
+            accumulator += now - previous;
+            previous = now;
+
+            // Too far behind (GC pause, debugger...): don't try to replay everything
+            if (accumulator > maxBacklog) {
+                droppedTickCount.addAndGet((accumulator - maxBacklog) / stepNanos);
+                accumulator = maxBacklog;
+            }
+
+            int steps = 0;
+            while (accumulator >= stepNanos) {
+                long stepStart = System.nanoTime();
+                step();
+                long stepTime = System.nanoTime() - stepStart;
+                profiler.record(TickProfiler.Phase.TICK, stepTime);
+                if (stepTime > stepNanos) {
+                    overrunCount.incrementAndGet();
+                }
+                accumulator -= stepNanos;
+                steps++;
+            }
+
+            if (steps > 0) {
+                if (steps > 1) {
+                    lateTickCount.addAndGet(steps - 1);
+                }
+                // One broadcast per wake up, even after catching up several steps
+                publish();
             }
 
-            playerControlSystem.update(worldState, FIXED_DELTA);
-            physicsSystem.update(worldState, FIXED_DELTA);
-            survivalSystem.update(worldState, FIXED_DELTA);
+            waitUntil(previous + stepNanos - accumulator);
+        }
+    }
+
+    /**
+     * one fixed simulation step.
+     */
+    private void step() {
+        try {
+            long start = System.nanoTime();
+
+            // procces inputs before updating the world
+            inputBuffer.drain(worldState);
+            profile(TickProfiler.Phase.INPUT, start);
 
-            // Broadcast
-            snapshotService.broadcastState();
-            snapshotService.broadcastPlayerStats();
+            // each system records its own phase, they may overlap
+            scheduler.run(worldState, fixedDelta);
+            profiler.recordEntityCounts();
 
-        } catch (Exception e) {
+            tickCount.incrementAndGet();
+
+        } catch (VirtualMachineError e) {
+            throw e;
+        } catch (Throwable e) {
+            // an Error from a system (AssertionError...) only costs this tick
             log.error("CRITICAL: Error in Game Loop", e);
         }
     }
 
+    private void publish() {
+        try {
+            long start = System.nanoTime();
+
+            // Broadcast: only the copy happens here, encoding and sends run on the publisher
+            snapshotPublisher.submit();
+            profile(TickProfiler.Phase.SNAPSHOT_CAPTURE, start);
+
+        } catch (VirtualMachineError e) {
+            throw e;
+        } catch (Throwable e) {
+            log.error("CRITICAL: Error capturing game state", e);
+        }
+    }
+
+    // records the phase that started at 'since'
+    private void profile(TickProfiler.Phase phase, long since) {
+        profiler.record(phase, System.nanoTime() - since);
+    }
+
+    private void bindMetrics() {
+        FunctionCounter.builder("game.tick.count", tickCount, AtomicLong::get)
+                .description("Simulation steps executed")
+                .register(meterRegistry);
+        FunctionCounter.builder("game.tick.overruns", overrunCount, AtomicLong::get)
+                .description("Steps that took longer than the step budget")
+                .register(meterRegistry);
+        FunctionCounter.builder("game.tick.late", lateTickCount, AtomicLong::get)
+                .description("Steps run late as catch-up")
+                .register(meterRegistry);
+        FunctionCounter.builder("game.tick.dropped", droppedTickCount, AtomicLong::get)
+                .description("Steps skipped because the backlog exceeded the catch-up limit")
+                .register(meterRegistry);
+        Gauge.builder("game.input.queue.depth", inputBuffer, InputBuffer::size)
+                .description("Input records waiting for the next tick")
+                .register(meterRegistry);
+    }
+
     /**
-     * public method for controller adding input tasks to be processed safely
+     * parks until shortly before the deadline, then spins for precision.
      */
-    public void addInputTask(Runnable task) {
-        inputQueue.add(task);
+    private void waitUntil(long deadline) {
+        long spinThreshold = TimeUnit.MICROSECONDS.toNanos(spinThresholdMicros);
+        long remaining = deadline - System.nanoTime();
+
+        while (remaining > spinThreshold && running) {
+            LockSupport.parkNanos(remaining - spinThreshold);
+            remaining = deadline - System.nanoTime();
+        }
+        while (remaining > 0 && running) {
+            Thread.onSpinWait();
+            remaining = deadline - System.nanoTime();
+        }
+    }
+
+    /**
+     * public method for controller adding input tasks to be processed safely.
+     * Returns false if the input buffer was full and the task was dropped.
+     */
+    public boolean addInputTask(Runnable task) {
+        return inputBuffer.offerTask(task);
+    }
+
+    public int getTickRate() {
+        return tickRate;
+    }
+
+    public long getTickCount() {
+        return tickCount.get();
+    }
+
+    public long getOverrunCount() {
+        return overrunCount.get();
+    }
+
+    public long getLateTickCount() {
+        return lateTickCount.get();
+    }
+
+    public long getDroppedTickCount() {
+        return droppedTickCount.get();
+    }
+
+    public int getInputQueueDepth() {
+        return inputBuffer.size();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,237 @@
+package com.conquerquest.backend.core.engine;
+
+import com.conquerquest.backend.core.components.InputComponent;
+import com.conquerquest.backend.core.components.InputType;
+import com.conquerquest.backend.core.state.EntityAllocator;
+import com.conquerquest.backend.core.state.WorldState;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Input mailbox between websocket handlers (many producers) and the game loop
+ * (single consumer), backed by a bounded InputRingBuffer.
+ *
+ * On drain, MOVE records of the same entity collapse into the latest one, so
+ * each entity gets at most one movement update per tick. One-shot triggers
+ * (DASH, ATTACK...) are never collapsed away. Tasks (join, leave...) run in
+ * arrival order.
+ */
+@Component
+@Slf4j
+public class InputBuffer {
+
+    /**
+     * what to do when producers outrun the loop.
+     */
+    public enum OverflowPolicy {
+        // reject whatever arrives once the ring is full
+        DROP_NEWEST,
+        // reject MOVE/trigger records while the last 'task-reserve' slots are the only
+        // ones left, so joins and disconnects still get through a movement flood
+        RESERVE_FOR_TASKS
+    }
+
+    private static final InputType[] INPUT_TYPES = InputType.values();
+
+    private final InputRingBuffer ring;
+    private final OverflowPolicy policy;
+    private final int taskReserve;
+
+    private final AtomicLong droppedMoves = new AtomicLong();
+    private final AtomicLong droppedTriggers = new AtomicLong();
+    private final AtomicLong droppedTasks = new AtomicLong();
+    private final AtomicLong coalescedMoves = new AtomicLong();
+
+    // --- Consumer-side staging (game loop thread only) ---
+    // entity slot index -> position in the staged lists + 1 (0 = not staged)
+    private int[] stagedByIndex = new int[256];
+    private int[] stagedEntities = new int[64];
+    private float[] stagedMoves = new float[64 * 4]; // x, y, facingX, facingY
+    private int[] stagedFlags = new int[64];
+    private int stagedCount;
+
+    private WorldState drainTarget;
+    private final InputRingBuffer.Consumer stage = this::stage;
+
+    public InputBuffer(@Value("${game.input.capacity:8192}") int capacity,
+            @Value("${game.input.overflow-policy:RESERVE_FOR_TASKS}") OverflowPolicy policy,
+            @Value("${game.input.task-reserve:256}") int taskReserve,
+            MeterRegistry meterRegistry) {
+        this.ring = new InputRingBuffer(capacity);
+        this.policy = policy;
+        this.taskReserve = Math.min(taskReserve, ring.capacity() / 2);
+
+        bindCounter(meterRegistry, "move", droppedMoves);
+        bindCounter(meterRegistry, "trigger", droppedTriggers);
+        bindCounter(meterRegistry, "task", droppedTasks);
+        FunctionCounter.builder("game.input.coalesced", coalescedMoves, AtomicLong::get)
+                .description("MOVE records collapsed into a newer one of the same entity")
+                .register(meterRegistry);
+    }
+
+    // --- Producers (any thread) ---
+
+    public boolean offerMove(int entity, float x, float y, float facingX, float facingY,
+            boolean sprinting, boolean dashing) {
+        long position = ring.claim(inputReserve());
+        if (position < 0) {
+            droppedMoves.incrementAndGet();
+            return false;
+        }
+
+        InputRingBuffer.Slot slot = ring.slot(position);
+        slot.kind = InputRingBuffer.Kind.MOVE;
+        slot.entity = entity;
+        slot.x = x;
+        slot.y = y;
+        slot.facingX = facingX;
+        slot.facingY = facingY;
+        slot.flags = (sprinting ? InputRingBuffer.FLAG_SPRINTING : 0)
+                | (dashing ? InputRingBuffer.FLAG_DASHING : 0);
+        ring.publish(position);
+        return true;
+    }
+
+    public boolean offerTrigger(int entity, InputType trigger) {
+        long position = ring.claim(inputReserve());
+        if (position < 0) {
+            droppedTriggers.incrementAndGet();
+            return false;
+        }
+
+        InputRingBuffer.Slot slot = ring.slot(position);
+        slot.kind = InputRingBuffer.Kind.TRIGGER;
+        slot.entity = entity;
+        slot.trigger = trigger.ordinal();
+        ring.publish(position);
+        return true;
+    }
+
+    /**
+     * schedules arbitrary work on the loop thread (join, leave...).
+     */
+    public boolean offerTask(Runnable task) {
+        long position = ring.claim(0);
+        if (position < 0) {
+            droppedTasks.incrementAndGet();
+            log.warn("Input buffer full, dropping task");
+            return false;
+        }
+
+        InputRingBuffer.Slot slot = ring.slot(position);
+        slot.kind = InputRingBuffer.Kind.TASK;
+        slot.task = task;
+        ring.publish(position);
+        return true;
+    }
+
+    private int inputReserve() {
+        return policy == OverflowPolicy.RESERVE_FOR_TASKS ? taskReserve : 0;
+    }
+
+    // --- Consumer (game loop thread) ---
+
+    /**
+     * applies everything published so far to the world.
+     */
+    public void drain(WorldState state) {
+        drainTarget = state;
+        try {
+            ring.drain(stage);
+        } finally {
+            applyStagedMoves(state);
+            drainTarget = null;
+        }
+    }
+
+    public int size() {
+        return ring.size();
+    }
+
+    public int capacity() {
+        return ring.capacity();
+    }
+
+    private void stage(InputRingBuffer.Slot slot) {
+        switch (slot.kind) {
+            case MOVE -> stageMove(slot);
+            case TRIGGER -> {
+                InputComponent input = drainTarget.getComponent(slot.entity, InputComponent.class);
+                if (input != null) {
+                    input.addTrigger(INPUT_TYPES[slot.trigger]);
+                }
+            }
+            case TASK -> {
+                // tasks may despawn entities, so pending moves are applied first
+                applyStagedMoves(drainTarget);
+                slot.task.run();
+            }
+        }
+    }
+
+    private void stageMove(InputRingBuffer.Slot slot) {
+        int index = EntityAllocator.indexOf(slot.entity);
+        if (index >= stagedByIndex.length) {
+            stagedByIndex = Arrays.copyOf(stagedByIndex, Math.max(stagedByIndex.length * 2, index + 1));
+        }
+
+        int staged = stagedByIndex[index] - 1;
+        if (staged >= 0 && stagedEntities[staged] == slot.entity) {
+            // Newer state of the same entity: keep the latest, never lose a dash
+            coalescedMoves.incrementAndGet();
+            stagedFlags[staged] = slot.flags | (stagedFlags[staged] & InputRingBuffer.FLAG_DASHING);
+        } else {
+            staged = stagedCount++;
+            if (staged == stagedEntities.length) {
+                stagedEntities = Arrays.copyOf(stagedEntities, staged * 2);
+                stagedFlags = Arrays.copyOf(stagedFlags, staged * 2);
+                stagedMoves = Arrays.copyOf(stagedMoves, staged * 2 * 4);
+            }
+            stagedByIndex[index] = staged + 1;
+            stagedEntities[staged] = slot.entity;
+            stagedFlags[staged] = slot.flags;
+        }
+
+        int base = staged * 4;
+        stagedMoves[base] = slot.x;
+        stagedMoves[base + 1] = slot.y;
+        stagedMoves[base + 2] = slot.facingX;
+        stagedMoves[base + 3] = slot.facingY;
+    }
+
+    private void applyStagedMoves(WorldState state) {
+        for (int i = 0; i < stagedCount; i++) {
+            int entity = stagedEntities[i];
+            stagedByIndex[EntityAllocator.indexOf(entity)] = 0;
+
+            // Note: 'isSprinting' is a state, 'DASH' is an action trigger
+            InputComponent input = state.getOrCreate(entity, InputComponent.class, InputComponent::new);
+            if (input == null)
+                continue; // entity left in the meantime
+
+            int base = i * 4;
+            int flags = stagedFlags[i];
+            input.updateMovementState(stagedMoves[base], stagedMoves[base + 1],
+                    stagedMoves[base + 2], stagedMoves[base + 3],
+                    (flags & InputRingBuffer.FLAG_SPRINTING) != 0);
+            if ((flags & InputRingBuffer.FLAG_DASHING) != 0) {
+                input.addTrigger(InputType.DASH);
+            }
+        }
+        stagedCount = 0;
+    }
+
+    private void bindCounter(MeterRegistry registry, String kind, AtomicLong counter) {
+        FunctionCounter.builder("game.input.dropped", counter, AtomicLong::get)
+                .description("Input records rejected because the buffer was full")
+                .tag("kind", kind)
+                .register(registry);
+    }
+}
@@ -0,0 +1,142 @@
+package com.conquerquest.backend.core.engine;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free multi-producer / single-consumer ring of typed input
+ * records. Slots are preallocated and reused, so publishing an input
+ * allocates nothing.
+ *
+ * Each slot carries a sequence number (Vyukov's bounded queue): producers
+ * claim a position with a CAS on the tail, fill the slot and publish it by
+ * advancing its sequence; the consumer (game loop) reads published slots in
+ * order and hands them back by moving the sequence one lap ahead.
+ */
+final class InputRingBuffer {
+
+    enum Kind {
+        MOVE,
+        TRIGGER,
+        TASK
+    }
+
+    // MOVE flags
+    static final int FLAG_SPRINTING = 1;
+    static final int FLAG_DASHING = 1 << 1;
+
+    /**
+     * mutable record reused by the ring. Only valid inside the drain callback.
+     */
+    static final class Slot {
+        Kind kind;
+        int entity;
+        float x;
+        float y;
+        float facingX;
+        float facingY;
+        int flags;
+        int trigger; // InputType ordinal
+        Runnable task;
+    }
+
+    interface Consumer {
+        void accept(Slot slot);
+    }
+
+    private final int capacity;
+    private final int mask;
+    private final Slot[] slots;
+    private final AtomicLongArray sequences;
+
+    private final AtomicLong tail = new AtomicLong();
+    // written by the consumer only, read by producers to estimate occupancy
+    private final AtomicLong head = new AtomicLong();
+
+    InputRingBuffer(int requestedCapacity) {
+        this.capacity = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+        this.mask = capacity - 1;
+        this.slots = new Slot[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Slot();
+            sequences.set(i, i);
+        }
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    /**
+     * approximate number of records waiting (claimed but not yet drained).
+     */
+    int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, capacity));
+    }
+
+    /**
+     * claims a free slot, or returns -1 when fewer than 'reserve' slots would
+     * remain free. The claimed slot must be filled and then published.
+     */
+    long claim(int reserve) {
+        long limit = capacity - reserve;
+        while (true) {
+            long position = tail.get();
+            if (position - head.get() >= limit)
+                return -1;
+
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1))
+                    return position;
+            } else if (difference < 0) {
+                return -1; // full (consumer hasn't released this slot yet)
+            }
+            // another producer moved the tail, retry
+        }
+    }
+
+    Slot slot(long position) {
+        return slots[(int) (position & mask)];
+    }
+
+    void publish(long position) {
+        sequences.set((int) (position & mask), position + 1);
+    }
+
+    /**
+     * consumer side: hands the records published so far to the callback in
+     * order. Records claimed after the call started wait for the next drain,
+     * so producers refilling released slots can't keep one drain going forever.
+     * Returns the number of records drained.
+     */
+    int drain(Consumer consumer) {
+        long position = head.get();
+        long end = tail.get();
+        int drained = 0;
+
+        while (position < end) {
+            int index = (int) (position & mask);
+            if (sequences.get(index) != position + 1)
+                break; // empty, or the next producer hasn't published yet
+
+            Slot slot = slots[index];
+            try {
+                consumer.accept(slot);
+            } finally {
+                slot.task = null;
+                sequences.set(index, position + capacity);
+                position++;
+                head.lazySet(position);
+                drained++;
+            }
+        }
+
+        return drained;
+    }
+}
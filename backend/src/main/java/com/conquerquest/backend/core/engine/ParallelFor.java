@@ -0,0 +1,232 @@
+package com.conquerquest.backend.core.engine;
+
+import com.conquerquest.backend.core.state.Archetype;
+import com.conquerquest.backend.core.state.EntityQuery;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Parallel iteration over the rows of a query, for systems whose per-entity
+ * work is independent. Rows are cut into chunks of chunk-size consecutive rows
+ * of one archetype, so every worker walks dense column slices; workers
+ * (the calling thread being worker 0) claim chunks from a shared counter
+ * until none are left.
+ *
+ * Below the threshold everything runs on the calling thread, chunk by chunk.
+ * The task may only touch its own rows: anything shared (events, structural
+ * changes, other indexes) goes to a buffer of its worker and is merged by the
+ * caller after forEach returns. Merge order across workers is unspecified.
+ *
+ * Chunk plans and helper tasks are pooled, so steady-state calls allocate
+ * nothing as long as the task itself is a reused object.
+ */
+@Component
+@Slf4j
+public class ParallelFor {
+
+    @FunctionalInterface
+    public interface ChunkTask {
+        /**
+         * processes rows [from, to) of the archetype on the given worker
+         * (0 .. workers()-1).
+         */
+        void run(Archetype archetype, int from, int to, int worker);
+    }
+
+    // forEach calls that may run at once (systems scheduled side by side)
+    private static final int POOLED_BATCHES = 4;
+
+    private final int workers;
+    private final int threshold;
+    private final int chunkSize;
+    private final ForkJoinPool pool;
+    private final Batch[] batches = new Batch[POOLED_BATCHES];
+
+    public ParallelFor(
+            @Value("${game.loop.parallel.threads:0}") int threads,
+            @Value("${game.loop.parallel.threshold:4096}") int threshold,
+            @Value("${game.loop.parallel.chunk-size:1024}") int chunkSize) {
+        this.workers = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.threshold = threshold;
+        this.chunkSize = chunkSize;
+        this.pool = workers > 1
+                ? new ForkJoinPool(workers - 1, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, false)
+                : null;
+        for (int i = 0; i < batches.length; i++) {
+            batches[i] = new Batch();
+        }
+        log.info("Parallel system iteration: {} workers, threshold {} entities, chunks of {}",
+                workers, threshold, chunkSize);
+    }
+
+    /**
+     * number of workers, to size per-worker buffers.
+     */
+    public int workers() {
+        return workers;
+    }
+
+    /**
+     * runs the task over every row of the query and returns once all chunks
+     * are done. Systems running side by side may call it at the same time.
+     */
+    public void forEach(EntityQuery query, ChunkTask task) {
+        int size = query.size();
+        int chunks = 0;
+        for (int a = 0; a < query.archetypeCount(); a++) {
+            chunks += (query.archetype(a).size() + chunkSize - 1) / chunkSize;
+        }
+
+        if (pool == null || size < threshold || chunks < 2) {
+            for (int a = 0; a < query.archetypeCount(); a++) {
+                Archetype archetype = query.archetype(a);
+                for (int from = 0; from < archetype.size(); from += chunkSize) {
+                    task.run(archetype, from, Math.min(from + chunkSize, archetype.size()), 0);
+                }
+            }
+            return;
+        }
+
+        Batch batch = acquire();
+        try {
+            batch.run(query, chunks, task);
+        } finally {
+            batch.inUse.set(false);
+        }
+    }
+
+    private Batch acquire() {
+        for (Batch batch : batches) {
+            if (batch.inUse.compareAndSet(false, true))
+                return batch;
+        }
+        // more concurrent callers than pooled batches
+        Batch batch = new Batch();
+        batch.inUse.set(true);
+        return batch;
+    }
+
+    /**
+     * chunk plan and helper tasks of one forEach call, reused across calls.
+     */
+    private final class Batch {
+
+        final AtomicBoolean inUse = new AtomicBoolean();
+        final Helper[] helpers = new Helper[workers - 1];
+        final AtomicInteger next = new AtomicInteger();
+        // helpers still draining
+        final AtomicInteger active = new AtomicInteger();
+
+        Archetype[] archetypes = new Archetype[64];
+        int[] starts = new int[64];
+        int chunkCount;
+        ChunkTask task;
+        Thread caller;
+
+        Batch() {
+            for (int w = 0; w < helpers.length; w++) {
+                helpers[w] = new Helper(this, w + 1);
+            }
+        }
+
+        void run(EntityQuery query, int chunks, ChunkTask task) {
+            plan(query, chunks);
+            this.task = task;
+            this.caller = Thread.currentThread();
+            next.set(0);
+
+            int helperCount = Math.min(helpers.length, chunks - 1);
+            active.set(helperCount);
+            for (int w = 0; w < helperCount; w++) {
+                helpers[w].reinitialize();
+                pool.execute(helpers[w]);
+            }
+
+            try {
+                drain(0);
+            } finally {
+                while (active.get() > 0) {
+                    LockSupport.park(this);
+                }
+                // returning from compute happens after the count down
+                for (int w = 0; w < helperCount; w++) {
+                    helpers[w].quietlyJoin();
+                }
+                this.task = null;
+            }
+
+            for (int w = 0; w < helperCount; w++) {
+                Throwable error = helpers[w].getException();
+                if (error instanceof RuntimeException e)
+                    throw e;
+                if (error instanceof Error e)
+                    throw e;
+            }
+        }
+
+        void drain(int worker) {
+            int c;
+            while ((c = next.getAndIncrement()) < chunkCount) {
+                Archetype archetype = archetypes[c];
+                int from = starts[c];
+                task.run(archetype, from, Math.min(from + chunkSize, archetype.size()), worker);
+            }
+        }
+
+        private void plan(EntityQuery query, int chunks) {
+            if (archetypes.length < chunks) {
+                int capacity = Math.max(chunks, archetypes.length * 2);
+                archetypes = Arrays.copyOf(archetypes, capacity);
+                starts = Arrays.copyOf(starts, capacity);
+            }
+            int c = 0;
+            for (int a = 0; a < query.archetypeCount(); a++) {
+                Archetype archetype = query.archetype(a);
+                for (int from = 0; from < archetype.size(); from += chunkSize) {
+                    archetypes[c] = archetype;
+                    starts[c++] = from;
+                }
+            }
+            chunkCount = c;
+        }
+    }
+
+    private static final class Helper extends RecursiveAction {
+
+        private final Batch batch;
+        private final int worker;
+
+        Helper(Batch batch, int worker) {
+            this.batch = batch;
+            this.worker = worker;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                batch.drain(worker);
+            } finally {
+                if (batch.active.decrementAndGet() == 0) {
+                    LockSupport.unpark(batch.caller);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.conquerquest.backend.core.engine;
+
+import com.conquerquest.backend.core.services.PlayerPersistenceService;
+import com.conquerquest.backend.core.services.PlayerSave;
+import com.conquerquest.backend.domain.user.UserProfile;
+import com.conquerquest.backend.domain.user.UserProfileCache;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Asynchronous join pipeline: user lookup on a small pool, then the spawn as a
+ * task on the game loop, then the caller's reply on the pool again. No thread
+ * waits for another, and the loop never touches the database.
+ *
+ * At most max-pending joins are in flight; beyond that new joins fail fast
+ * instead of queueing up behind a slow database.
+ */
+@Service
+@Slf4j
+public class PlayerJoinService {
+
+    private final UserProfileCache userProfiles;
+    private final PlayerPersistenceService persistenceService;
+    private final GameLoop gameLoop;
+
+    private final ExecutorService executor;
+    private final int maxPending;
+    private final long timeoutMillis;
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private final Timer joinSuccess;
+    private final Timer joinFailure;
+
+    // a registered user and their last saved state (null if never saved)
+    private record LoadedUser(UserProfile user, PlayerSave saved) {
+    }
+
+    public PlayerJoinService(UserProfileCache userProfiles, PlayerPersistenceService persistenceService,
+            GameLoop gameLoop, MeterRegistry meterRegistry,
+            @Value("${game.join.threads:4}") int threads,
+            @Value("${game.join.max-pending:512}") int maxPending,
+            @Value("${game.join.timeout-millis:5000}") long timeoutMillis) {
+        this.userProfiles = userProfiles;
+        this.persistenceService = persistenceService;
+        this.gameLoop = gameLoop;
+        this.maxPending = maxPending;
+        this.timeoutMillis = timeoutMillis;
+
+        AtomicInteger threadIds = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "player-join-" + threadIds.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.joinSuccess = joinTimer(meterRegistry, "success");
+        this.joinFailure = joinTimer(meterRegistry, "failure");
+        Gauge.builder("game.join.pending", pending, AtomicInteger::get)
+                .description("Joins waiting for the database or the game loop")
+                .register(meterRegistry);
+    }
+
+    /**
+     * runs 'spawn' on the loop thread once the user and their saved state
+     * (both null for guests) are loaded. The returned future completes on the join pool, never on the loop.
+     * If the join already timed out when the spawn ran, 'discard' undoes it.
+     */
+    public <T> CompletableFuture<T> join(UUID userId, boolean isGuest, LoopSpawn<T> spawn, Consumer<T> discard) {
+        if (pending.incrementAndGet() > maxPending) {
+            pending.decrementAndGet();
+            return CompletableFuture.failedFuture(new IllegalStateException("Server busy, try again"));
+        }
+        long start = System.nanoTime();
+
+        CompletableFuture<LoadedUser> user = isGuest
+                ? CompletableFuture.completedFuture(new LoadedUser(null, null))
+                : CompletableFuture.supplyAsync(() -> loadUser(userId), executor);
+
+        CompletableFuture<T> spawned = new CompletableFuture<>();
+        user.whenComplete((loaded, error) -> {
+            if (error != null) {
+                spawned.completeExceptionally(error);
+                return;
+            }
+
+            boolean queued = gameLoop.addInputTask(() -> {
+                if (spawned.isDone())
+                    return; // timed out while queued
+                try {
+                    T result = spawn.spawn(loaded.user(), loaded.saved());
+                    if (!spawned.complete(result)) {
+                        discard.accept(result);
+                    }
+                } catch (Exception e) {
+                    spawned.completeExceptionally(e);
+                }
+            });
+            if (!queued) {
+                spawned.completeExceptionally(new IllegalStateException("Server busy, try again"));
+            }
+        });
+
+        return spawned
+                .orTimeout(timeoutMillis, TimeUnit.MILLISECONDS)
+                .whenCompleteAsync((result, error) -> {
+                    pending.decrementAndGet();
+                    (error == null ? joinSuccess : joinFailure).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }, executor);
+    }
+
+    private LoadedUser loadUser(UUID userId) {
+        UserProfile user = userProfiles.find(userId)
+                .orElseThrow(() -> new IllegalArgumentException("User not found: " + userId));
+        return new LoadedUser(user, persistenceService.load(userId));
+    }
+
+    private static Timer joinTimer(MeterRegistry registry, String result) {
+        return Timer.builder("game.join.latency")
+                .description("Time from join request to spawned player")
+                .tag("result", result)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * spawn step of a join, run on the loop thread.
+     */
+    @FunctionalInterface
+    public interface LoopSpawn<T> {
+        T spawn(UserProfile user, PlayerSave saved);
+    }
+}
@@ -1,16 +1,18 @@
 package com.conquerquest.backend.core.engine;
 
 import com.conquerquest.backend.core.components.*;
+import com.conquerquest.backend.core.services.PlayerPersistenceService;
+import com.conquerquest.backend.core.services.PlayerSave;
+import com.conquerquest.backend.core.services.SnapshotService;
 import com.conquerquest.backend.core.services.WorldMapService;
+import com.conquerquest.backend.core.state.EntityAllocator;
 import com.conquerquest.backend.core.state.WorldState;
-import com.conquerquest.backend.domain.user.User;
-import com.conquerquest.backend.domain.user.UserRepository;
+import com.conquerquest.backend.domain.user.UserProfile;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.util.Map;
-import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -23,25 +25,39 @@ public class PlayerLifeCycleService {
     private static final float PLAYER_SPRINT_MULT = 1.5f;
     private static final float PLAYER_HITBOX_SIZE = 32f;
 
-    private final UserRepository userRepository;
     private final WorldState worldState;
     private final WorldMapService worldMapService;
-
-    // Mapping: UserID (Persisted or Temp) -> EntityID (ECS)
-    private final Map<UUID, UUID> activeSessions = new ConcurrentHashMap<>();
-
-    public UUID spawnPlayer(UUID userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new IllegalArgumentException("User not found: " + userId));
-
-        if (activeSessions.containsKey(userId)) {
-            removePlayer(activeSessions.get(userId));
+    private final SnapshotService snapshotService;
+    private final PlayerPersistenceService persistenceService;
+
+    // Bidirectional mapping: UserID (Persisted or Temp) <-> Entity handle (ECS)
+    private final Map<UUID, Integer> activeSessions = new ConcurrentHashMap<>();
+    private final Map<Integer, UUID> usersByEntity = new ConcurrentHashMap<>();
+
+    /**
+     * loop thread. The user and their saved state (null for a first join) are
+     * loaded beforehand (see PlayerJoinService), so spawning never waits on the database.
+     * A user who is still online keeps the state of their live entity instead:
+     * 'saved' was loaded before that entity was removed and may be older.
+     */
+    public int spawnPlayer(UserProfile user, PlayerSave saved) {
+        UUID userId = user.id();
+        Integer online = activeSessions.get(userId);
+        if (online != null) {
+            PlayerSave live = despawn(online);
+            if (live != null) {
+                saved = live;
+            }
         }
 
-        return createEntityInternal(user.getId(), user.getUsername(), false);
+        int entityId = createEntityInternal(user.id(), user.username(), false);
+        if (saved != null) {
+            saved.applyTo(worldState, entityId);
+        }
+        return entityId;
     }
 
-    public UUID spawnGuest(String temporaryName) {
+    public int spawnGuest(String temporaryName) {
         UUID tempUserId = UUID.randomUUID();
         String finalName = (temporaryName == null || temporaryName.isBlank())
                 ? "Guest"
@@ -50,8 +66,8 @@ public class PlayerLifeCycleService {
         return createEntityInternal(tempUserId, finalName, true);
     }
 
-    private UUID createEntityInternal(UUID userId, String username, boolean isGuest) {
-        UUID entityId = worldState.createEntity();
+    private int createEntityInternal(UUID userId, String username, boolean isGuest) {
+        int entityId = worldState.createEntity();
 
         worldState.addComponent(entityId, new PlayerTagComponent(userId, username, isGuest));
         // Speed in the backend works diferently from the frontend, there baseSpeed is
@@ -70,7 +86,8 @@ public class PlayerLifeCycleService {
         var spawnPoint = worldMapService.getValidSpawnPoint();
 
         worldState.addComponent(entityId, new PositionComponent(spawnPoint.x(), spawnPoint.y(), 0f));
-        worldState.addComponent(entityId, new InputComponent(0f, 0f, 0f, 1f, false, Set.of(), 0f, 0f));
+        worldState.addComponent(entityId, new VelocityComponent(0f, 0f));
+        worldState.addComponent(entityId, new InputComponent());
 
         // Survival/Vitality Components:
         worldState.addComponent(entityId, new SurvivalComponent(100f, 100f, 100f, 100f, 100f, 100f, 1));
@@ -80,28 +97,50 @@ public class PlayerLifeCycleService {
         worldState.addComponent(entityId, new InventoryComponent(10));
 
         activeSessions.put(userId, entityId);
+        usersByEntity.put(entityId, userId);
         log.info("Player spawned: {} [Guest: {}]", username, isGuest);
 
         return entityId;
     }
 
-    public void removePlayer(UUID entityId) {
+    public void removePlayer(int entityId) {
+        despawn(entityId);
+    }
+
+    /**
+     * removes the entity and returns the save queued for it (null for guests).
+     */
+    private PlayerSave despawn(int entityId) {
         PlayerTagComponent identity = worldState.getComponent(entityId, PlayerTagComponent.class);
+        PlayerSave save = null;
 
         if (identity != null) {
             if (!identity.isGuest()) {
-                // TODO: save player data to database
-                log.info("Saving data for user: {}", identity.username());
+                // written later by the persistence thread
+                save = PlayerSave.capture(worldState, entityId, identity.userId());
+                if (save != null) {
+                    persistenceService.save(save);
+                }
             }
 
             activeSessions.remove(identity.userId());
+            usersByEntity.remove(entityId);
+            snapshotService.unregisterClient(entityId, identity.userId());
             log.info("Player removed: {}", identity.username());
         }
 
         worldState.removeEntity(entityId);
+        return save;
+    }
+
+    /**
+     * returns the entity handle of an online user, or NULL_ENTITY.
+     */
+    public int getEntityIdByUserId(UUID userId) {
+        return activeSessions.getOrDefault(userId, EntityAllocator.NULL_ENTITY);
     }
 
-    public UUID getEntityIdByUserId(UUID userId) {
-        return activeSessions.get(userId);
+    public UUID getUserIdByEntityId(int entityId) {
+        return usersByEntity.get(entityId);
     }
 }
\ No newline at end of file
@@ -0,0 +1,155 @@
+package com.conquerquest.backend.core.engine;
+
+import com.conquerquest.backend.core.services.SnapshotFrame;
+import com.conquerquest.backend.core.services.SnapshotService;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Moves snapshot encoding and fan-out off the game loop.
+ * The loop only copies the tick into a pooled SnapshotFrame and hands it over;
+ * a dedicated thread runs area of interest, delta/JSON/binary encoding and the
+ * sends. Only the latest frame waits: if the publisher is still busy when the
+ * next one arrives, the waiting frame is dropped instead of slowing the loop.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SnapshotPublisher implements SmartLifecycle {
+
+    // one being captured, one waiting, one being published
+    private static final int FRAMES = 3;
+
+    private final SnapshotService snapshotService;
+    private final TickProfiler profiler;
+    private final MeterRegistry meterRegistry;
+
+    private final BlockingQueue<SnapshotFrame> freeFrames = new ArrayBlockingQueue<>(FRAMES);
+    private final AtomicReference<SnapshotFrame> pending = new AtomicReference<>();
+
+    private final AtomicLong publishedFrames = new AtomicLong();
+    // frames replaced by a newer one before the publisher got to them
+    private final AtomicLong droppedFrames = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread publisherThread;
+
+    @Override
+    public void start() {
+        for (int i = 0; i < FRAMES; i++) {
+            freeFrames.offer(new SnapshotFrame());
+        }
+        bindMetrics();
+
+        running = true;
+        publisherThread = new Thread(this::run, "snapshot-publisher");
+        publisherThread.setDaemon(true);
+        publisherThread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (publisherThread != null) {
+            LockSupport.unpark(publisherThread);
+            try {
+                publisherThread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // started before and stopped after the game loop
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 1;
+    }
+
+    /**
+     * loop thread: captures the current tick and hands it to the publisher.
+     * Never blocks.
+     */
+    public void submit() {
+        SnapshotFrame frame = freeFrames.poll();
+        if (frame == null) {
+            droppedFrames.incrementAndGet();
+            return;
+        }
+
+        snapshotService.capture(frame);
+
+        SnapshotFrame stale = pending.getAndSet(frame);
+        if (stale != null) {
+            droppedFrames.incrementAndGet();
+            freeFrames.offer(stale);
+        }
+        LockSupport.unpark(publisherThread);
+    }
+
+    private void run() {
+        while (running) {
+            SnapshotFrame frame = pending.getAndSet(null);
+            if (frame == null) {
+                LockSupport.park(this);
+                continue;
+            }
+
+            try {
+                publish(frame);
+            } catch (Exception e) {
+                log.error("CRITICAL: Error broadcasting game state", e);
+            } finally {
+                freeFrames.offer(frame);
+            }
+        }
+    }
+
+    private void publish(SnapshotFrame frame) {
+        long start = System.nanoTime();
+
+        snapshotService.broadcastState(frame);
+        long t = System.nanoTime();
+        profiler.record(TickProfiler.Phase.BROADCAST_STATE, t - start);
+
+        snapshotService.broadcastPlayerStats(frame);
+        profiler.record(TickProfiler.Phase.BROADCAST_STATS, System.nanoTime() - t);
+
+        publishedFrames.incrementAndGet();
+    }
+
+    private void bindMetrics() {
+        FunctionCounter.builder("game.snapshot.frames", publishedFrames, AtomicLong::get)
+                .description("Snapshot frames handed to the publisher")
+                .tag("result", "published")
+                .register(meterRegistry);
+        FunctionCounter.builder("game.snapshot.frames", droppedFrames, AtomicLong::get)
+                .description("Snapshot frames handed to the publisher")
+                .tag("result", "dropped")
+                .register(meterRegistry);
+    }
+
+    public long getPublishedFrames() {
+        return publishedFrames.get();
+    }
+
+    public long getDroppedFrames() {
+        return droppedFrames.get();
+    }
+}
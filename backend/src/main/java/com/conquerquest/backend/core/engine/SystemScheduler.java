@@ -0,0 +1,194 @@
+package com.conquerquest.backend.core.engine;
+
+import com.conquerquest.backend.core.ecs.GameSystem;
+import com.conquerquest.backend.core.state.WorldState;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs the systems of one tick, in parallel where their declared access allows.
+ * Every system depends on each earlier system it conflicts with, so conflicting
+ * systems keep their registration order (the sequential order) and the result
+ * of a tick doesn't depend on thread timing.
+ *
+ * A system is submitted to the pool as soon as its last dependency finishes;
+ * the loop thread parks until the whole graph is done. Nodes are reused
+ * tick after tick, so a parallel tick allocates nothing. If a system throws
+ * (an Error included), the systems depending on it are skipped for the tick
+ * and the error is rethrown on the loop thread. With parallelism 1 the systems
+ * simply run in order on the calling thread, and so does the first tick: systems register their queries
+ * lazily on first update, and WorldState isn't thread-safe.
+ */
+@Slf4j
+final class SystemScheduler {
+
+    /**
+     * a system and the profiler phase its time is recorded under.
+     */
+    record Entry(GameSystem system, TickProfiler.Phase phase) {
+    }
+
+    private final Node[] nodes;
+    private final TickProfiler profiler;
+    private final ForkJoinPool pool;
+
+    private boolean warmedUp;
+
+    // per tick
+    private WorldState state;
+    private float delta;
+    private Thread waiter;
+    private final AtomicInteger remaining = new AtomicInteger();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    SystemScheduler(List<Entry> entries, TickProfiler profiler, int parallelism) {
+        this.profiler = profiler;
+        this.nodes = new Node[entries.size()];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = new Node(entries.get(i));
+        }
+
+        for (int j = 0; j < nodes.length; j++) {
+            for (int i = 0; i < j; i++) {
+                if (nodes[i].system.access().conflictsWith(nodes[j].system.access())) {
+                    nodes[i].successors.add(nodes[j]);
+                    nodes[j].dependencies++;
+                }
+            }
+        }
+
+        this.pool = parallelism > 1 && nodes.length > 1
+                ? new ForkJoinPool(parallelism, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, false)
+                : null;
+
+        for (Node node : nodes) {
+            log.info("System {}: after {}", node.system.getClass().getSimpleName(), predecessorsOf(node));
+        }
+    }
+
+    void run(WorldState state, float delta) {
+        if (pool == null || !warmedUp) {
+            warmedUp = true;
+            for (Node node : nodes) {
+                long start = System.nanoTime();
+                node.system.update(state, delta);
+                profiler.record(node.phase, System.nanoTime() - start);
+            }
+            return;
+        }
+
+        this.state = state;
+        this.delta = delta;
+        this.waiter = Thread.currentThread();
+        failure.set(null);
+        for (Node node : nodes) {
+            node.reinitialize();
+            node.pending.set(node.dependencies);
+        }
+        remaining.set(nodes.length);
+
+        // the atomic counters publish everything written so far
+        for (Node node : nodes) {
+            if (node.dependencies == 0) {
+                pool.execute(node);
+            }
+        }
+
+        // systems can't be abandoned halfway, so interrupts don't end the wait
+        while (remaining.get() > 0) {
+            LockSupport.park(this);
+        }
+        // a node may still be returning from compute; it must be done before
+        // the next tick reinitializes it
+        for (Node node : nodes) {
+            node.quietlyJoin();
+        }
+
+        Throwable error = failure.get();
+        if (error instanceof RuntimeException e)
+            throw e;
+        if (error instanceof Error e)
+            throw e;
+        if (error != null)
+            throw new IllegalStateException("System failed", error);
+    }
+
+    void shutdown() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    private List<String> predecessorsOf(Node node) {
+        List<String> names = new ArrayList<>();
+        for (Node other : nodes) {
+            if (other.successors.contains(node)) {
+                names.add(other.system.getClass().getSimpleName());
+            }
+        }
+        return names;
+    }
+
+    private final class Node extends RecursiveAction {
+
+        final GameSystem system;
+        final TickProfiler.Phase phase;
+        final List<Node> successors = new ArrayList<>();
+        int dependencies;
+
+        final AtomicInteger pending = new AtomicInteger();
+        // a dependency failed this tick
+        volatile boolean skipped;
+
+        Node(Entry entry) {
+            this.system = entry.system();
+            this.phase = entry.phase();
+        }
+
+        @Override
+        protected void compute() {
+            // whatever the system throws, even an Error, its successors are released
+            // and the count goes down, or the loop thread would park forever
+            boolean failed = skipped;
+            long start = System.nanoTime();
+            try {
+                if (!failed) {
+                    system.update(state, delta);
+                    profiler.record(phase, System.nanoTime() - start);
+                }
+            } catch (Throwable e) {
+                failure.compareAndSet(null, e);
+                failed = true;
+            } finally {
+                skipped = false;
+                try {
+                    release(failed);
+                } finally {
+                    if (remaining.decrementAndGet() == 0) {
+                        LockSupport.unpark(waiter);
+                    }
+                }
+            }
+        }
+
+        private void release(boolean failed) {
+            for (int i = 0; i < successors.size(); i++) {
+                Node next = successors.get(i);
+                if (failed) {
+                    next.skipped = true;
+                }
+                if (next.pending.decrementAndGet() == 0) {
+                    next.fork();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.conquerquest.backend.core.engine;
+
+import com.conquerquest.backend.core.components.CollisionComponent;
+import com.conquerquest.backend.core.components.DashComponent;
+import com.conquerquest.backend.core.components.InputComponent;
+import com.conquerquest.backend.core.components.MovementStatsComponent;
+import com.conquerquest.backend.core.components.PlayerTagComponent;
+import com.conquerquest.backend.core.components.PositionComponent;
+import com.conquerquest.backend.core.components.SurvivalComponent;
+import com.conquerquest.backend.core.components.VelocityComponent;
+import com.conquerquest.backend.core.components.VitalityComponent;
+import com.conquerquest.backend.core.state.EntityQuery;
+import com.conquerquest.backend.core.state.WorldState;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Per-phase timers for the game loop, published through Micrometer.
+ * Timers keep client-side percentiles (p50/p95/p99) over a sliding window,
+ * so recording is a lock-free histogram update on the loop (or publisher) thread.
+ * Also exposes entity counts of the systems' queries as gauges. The counts
+ * are copied by the loop thread at the end of each tick, and readers only
+ * ever see that copy: query storage is not safe to read from other threads.
+ */
+@Component
+public class TickProfiler {
+
+    public enum Phase {
+        INPUT,
+        PLAYER_CONTROL,
+        PHYSICS,
+        SURVIVAL,
+        SNAPSHOT_CAPTURE,
+        // recorded by the snapshot publisher thread
+        BROADCAST_STATE,
+        BROADCAST_STATS,
+        TICK
+    }
+
+    private static final double[] PERCENTILES = { 0.5, 0.95, 0.99 };
+
+    private final Timer[] timers = new Timer[Phase.values().length];
+
+    // query name -> query, same cached instances the systems iterate
+    private final Map<String, EntityQuery> queries = new LinkedHashMap<>();
+    private final EntityQuery[] countedQueries;
+    // entity count per query as of the last tick, in queries order
+    private final AtomicIntegerArray entityCounts;
+
+    public TickProfiler(MeterRegistry registry, WorldState worldState) {
+        for (Phase phase : Phase.values()) {
+            timers[phase.ordinal()] = Timer.builder("game.tick.phase")
+                    .description("Time spent in each game loop phase")
+                    .tag("phase", phase.name().toLowerCase())
+                    .publishPercentiles(PERCENTILES)
+                    .distributionStatisticExpiry(Duration.ofMinutes(1))
+                    .register(registry);
+        }
+
+        // Registered before the loop thread starts (WorldState isn't thread-safe)
+        queries.put("players", worldState.query(PlayerTagComponent.class));
+        queries.put("controllable", worldState.query(
+                InputComponent.class, MovementStatsComponent.class, DashComponent.class, VelocityComponent.class));
+        queries.put("moving", worldState.query(
+                PositionComponent.class, VelocityComponent.class, CollisionComponent.class));
+        queries.put("survival", worldState.query(SurvivalComponent.class, VitalityComponent.class));
+        queries.put("visible", worldState.query(PositionComponent.class));
+
+        countedQueries = queries.values().toArray(new EntityQuery[0]);
+        entityCounts = new AtomicIntegerArray(countedQueries.length);
+
+        int index = 0;
+        for (String name : queries.keySet()) {
+            int i = index++;
+            Gauge.builder("game.query.entities", entityCounts, counts -> counts.get(i))
+                    .description("Entities matched by a system query")
+                    .tag("query", name)
+                    .register(registry);
+        }
+    }
+
+    /**
+     * loop thread: publishes the current query sizes to other threads.
+     */
+    public void recordEntityCounts() {
+        for (int i = 0; i < countedQueries.length; i++) {
+            entityCounts.set(i, countedQueries[i].size());
+        }
+    }
+
+    public void record(Phase phase, long nanos) {
+        timers[phase.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public Timer timer(Phase phase) {
+        return timers[phase.ordinal()];
+    }
+
+    /**
+     * entity count per query name as of the last tick. Any thread.
+     */
+    public Map<String, Integer> entityCounts() {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        int i = 0;
+        for (String name : queries.keySet()) {
+            counts.put(name, entityCounts.get(i++));
+        }
+        return counts;
+    }
+}
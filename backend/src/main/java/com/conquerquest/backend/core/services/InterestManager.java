@@ -0,0 +1,150 @@
+package com.conquerquest.backend.core.services;
+
+import com.conquerquest.backend.core.spatial.SpatialGrid;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Area of interest: decides which entities each player receives.
+ * Entity positions of a frame are bucketed in a SpatialGrid with cells as
+ * big as the view radius, so a viewer only checks the cells around it.
+ * An entity becomes visible inside viewRadius and stays visible until it
+ * leaves viewRadius + hysteresis, so entities near the border don't flicker.
+ */
+@Service
+@RequiredArgsConstructor
+public class InterestManager {
+
+    private final WorldMapService worldMap;
+
+    @Value("${game.aoi.view-radius:1200}")
+    private float viewRadius;
+
+    @Value("${game.aoi.hysteresis:200}")
+    private float hysteresis;
+
+    private SpatialGrid grid;
+
+    // current frame (indexes returned by collectVisible point into these)
+    private int[] frameIds;
+    private float[] frameX;
+    private float[] frameY;
+
+    // viewer entity -> what it saw last frame
+    private final Map<Integer, Viewer> viewers = new HashMap<>();
+    private long frame;
+
+    // scratch result of the last collectVisible call
+    private int[] visible = new int[256];
+    private int visibleCount;
+
+    private static final class Viewer {
+        // entity ids visible last frame, sorted for binary search
+        private int[] seen = new int[64];
+        private int seenCount;
+        private long lastFrame;
+    }
+
+    @PostConstruct
+    public void init() {
+        grid = new SpatialGrid(worldMap.getWorldWidth(), worldMap.getWorldHeight(), viewRadius + hysteresis);
+    }
+
+    /**
+     * starts a frame: indexes the positions of every candidate entity.
+     * The arrays are borrowed until the next call.
+     */
+    public void beginFrame(int[] ids, float[] xs, float[] ys, int count) {
+        frame++;
+        frameIds = ids;
+        frameX = xs;
+        frameY = ys;
+        grid.rebuild(xs, ys, count);
+    }
+
+    /**
+     * computes the entities visible to a viewer at (x, y) and returns how many
+     * there are; read them with {@link #visibleIndex(int)}.
+     */
+    public int collectVisible(int viewerEntity, float x, float y) {
+        Viewer viewer = viewers.computeIfAbsent(viewerEntity, id -> new Viewer());
+        viewer.lastFrame = frame;
+
+        float outer = viewRadius + hysteresis;
+        float enter2 = viewRadius * viewRadius;
+        float leave2 = outer * outer;
+
+        int minX = grid.cellX(x - outer);
+        int maxX = grid.cellX(x + outer);
+        int minY = grid.cellY(y - outer);
+        int maxY = grid.cellY(y + outer);
+
+        visibleCount = 0;
+        for (int cy = minY; cy <= maxY; cy++) {
+            for (int cx = minX; cx <= maxX; cx++) {
+                int end = grid.cellEnd(cx, cy);
+                for (int slot = grid.cellBegin(cx, cy); slot < end; slot++) {
+                    int index = grid.item(slot);
+                    float dx = frameX[index] - x;
+                    float dy = frameY[index] - y;
+                    float distance2 = dx * dx + dy * dy;
+
+                    boolean inside = distance2 <= enter2
+                            || (distance2 <= leave2 && wasSeen(viewer, frameIds[index]));
+                    if (inside) {
+                        addVisible(index);
+                    }
+                }
+            }
+        }
+
+        remember(viewer);
+        return visibleCount;
+    }
+
+    public int visibleIndex(int i) {
+        return visible[i];
+    }
+
+    /**
+     * forgets viewers that weren't collected during the current frame.
+     */
+    public void endFrame() {
+        Iterator<Viewer> it = viewers.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().lastFrame != frame) {
+                it.remove();
+            }
+        }
+    }
+
+    private void addVisible(int index) {
+        if (visibleCount == visible.length) {
+            visible = Arrays.copyOf(visible, visibleCount * 2);
+        }
+        visible[visibleCount++] = index;
+    }
+
+    private boolean wasSeen(Viewer viewer, int entity) {
+        return Arrays.binarySearch(viewer.seen, 0, viewer.seenCount, entity) >= 0;
+    }
+
+    private void remember(Viewer viewer) {
+        if (viewer.seen.length < visibleCount) {
+            viewer.seen = new int[Math.max(visibleCount, viewer.seen.length * 2)];
+        }
+        for (int i = 0; i < visibleCount; i++) {
+            viewer.seen[i] = frameIds[visible[i]];
+        }
+        viewer.seenCount = visibleCount;
+        Arrays.sort(viewer.seen, 0, visibleCount);
+    }
+}
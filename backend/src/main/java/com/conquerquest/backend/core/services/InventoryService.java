@@ -7,7 +7,6 @@ import com.conquerquest.backend.core.systems.ItemType;
 import com.conquerquest.backend.infra.socket.dto.InventoryStateDTO;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
-import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
@@ -16,7 +15,7 @@ public class InventoryService {
     private final WorldState worldState;
     private final SnapshotService snapshotService;
 
-    public void addItem(UUID entityId, String itemId, int quantity) {
+    public void addItem(int entityId, String itemId, int quantity) {
         InventoryComponent inventory = worldState.getComponent(entityId, InventoryComponent.class);
         if (inventory == null)
             return;
@@ -35,7 +34,7 @@ public class InventoryService {
         }
     }
 
-    public void moveItem(UUID entityId, int fromSlot, int toSlot) {
+    public void moveItem(int entityId, int fromSlot, int toSlot) {
         InventoryComponent inventory = worldState.getComponent(entityId, InventoryComponent.class);
         if (inventory == null)
             return;
@@ -47,7 +46,7 @@ public class InventoryService {
     }
 
     // Método auxiliar para disparar o WebSocket
-    private void sendUpdate(UUID entityId, InventoryComponent inventory) {
+    private void sendUpdate(int entityId, InventoryComponent inventory) {
         PlayerTagComponent playerTag = worldState.getComponent(entityId, PlayerTagComponent.class);
         if (playerTag != null)
             snapshotService.sendInventoryUpdate(playerTag.userId(), inventory);
@@ -0,0 +1,288 @@
+package com.conquerquest.backend.core.services;
+
+import com.conquerquest.backend.core.components.PlayerTagComponent;
+import com.conquerquest.backend.core.engine.GameLoop;
+import com.conquerquest.backend.core.state.Archetype;
+import com.conquerquest.backend.core.state.EntityQuery;
+import com.conquerquest.backend.core.state.WorldState;
+import com.conquerquest.backend.domain.player.PlayerStateRepository;
+import com.conquerquest.backend.infra.cache.BoundedCache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind persistence of player state.
+ * The loop only captures an immutable PlayerSave and drops it into a map keyed
+ * by user, so several saves of the same player before a flush collapse into
+ * the newest one. A background thread drains the map and writes it in JDBC
+ * batches: an UPDATE batch, then an INSERT batch for the rows that didn't exist.
+ *
+ * Online players are checkpointed every checkpoint-seconds. Checkpoints are
+ * skipped while more than max-pending saves wait; saves on leave are always kept.
+ */
+@Service
+@Slf4j
+public class PlayerPersistenceService {
+
+    private static final String UPDATE_SQL = """
+            UPDATE player_state SET x = ?, y = ?, health = ?, max_health = ?, stamina = ?, max_stamina = ?,
+                hunger = ?, thirst = ?, temperature = ?, inventory = ?, saved_at = ?
+            WHERE user_id = ?""";
+    private static final String INSERT_SQL = """
+            INSERT INTO player_state (x, y, health, max_health, stamina, max_stamina,
+                hunger, thirst, temperature, inventory, saved_at, user_id)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PlayerStateRepository playerStateRepository;
+    private final GameLoop gameLoop;
+
+    private final int batchSize;
+    private final int maxPending;
+
+    private final Map<UUID, PlayerSave> pending = new ConcurrentHashMap<>();
+    // taken out of 'pending' and not committed yet; still visible to load()
+    private final Map<UUID, PlayerSave> writing = new ConcurrentHashMap<>();
+    // recently written saves, so a reconnect doesn't read back what we just wrote
+    private final BoundedCache<UUID, PlayerSave> written;
+    private final ScheduledExecutorService writer;
+    private EntityQuery players;
+
+    private final Timer flushTimer;
+    private final Counter savedCounter;
+    private final Counter skippedCheckpoints;
+    private final Counter failedFlushes;
+
+    public PlayerPersistenceService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+            PlayerStateRepository playerStateRepository, GameLoop gameLoop, MeterRegistry meterRegistry,
+            @Value("${game.persistence.flush-interval-millis:1000}") long flushIntervalMillis,
+            @Value("${game.persistence.checkpoint-seconds:60}") long checkpointSeconds,
+            @Value("${game.persistence.batch-size:100}") int batchSize,
+            @Value("${game.persistence.max-pending:10000}") int maxPending,
+            @Value("${game.cache.saves.max-size:10000}") int cacheSize,
+            @Value("${game.cache.saves.ttl-seconds:600}") long cacheTtlSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.playerStateRepository = playerStateRepository;
+        this.gameLoop = gameLoop;
+        this.batchSize = batchSize;
+        this.maxPending = maxPending;
+        this.written = new BoundedCache<>("saves", cacheSize, Duration.ofSeconds(cacheTtlSeconds), meterRegistry);
+
+        this.flushTimer = Timer.builder("game.persistence.flush")
+                .description("Time to write one batch of player saves")
+                .register(meterRegistry);
+        this.savedCounter = Counter.builder("game.persistence.saved")
+                .description("Player saves written to the database")
+                .register(meterRegistry);
+        this.skippedCheckpoints = Counter.builder("game.persistence.checkpoints.skipped")
+                .description("Checkpoints of online players skipped because the backlog was full")
+                .register(meterRegistry);
+        this.failedFlushes = Counter.builder("game.persistence.failures")
+                .description("Batches that failed and were queued again")
+                .register(meterRegistry);
+        Gauge.builder("game.persistence.pending", pending, Map::size)
+                .description("Player saves waiting to be written")
+                .register(meterRegistry);
+
+        this.writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "player-persistence");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer.scheduleWithFixedDelay(this::flushSafely, flushIntervalMillis, flushIntervalMillis,
+                TimeUnit.MILLISECONDS);
+        writer.scheduleAtFixedRate(() -> gameLoop.addInputTask(this::checkpoint),
+                checkpointSeconds, checkpointSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * queues a save, replacing one of the same user still waiting. Never blocks.
+     */
+    public void save(PlayerSave save) {
+        pending.put(save.userId(), save);
+    }
+
+    /**
+     * join pool: the newest state of a user, including saves not written yet.
+     * Returns null if the user was never saved.
+     */
+    public PlayerSave load(UUID userId) {
+        PlayerSave queued = pending.get(userId);
+        if (queued == null) {
+            queued = writing.get(userId);
+        }
+        if (queued != null)
+            return queued;
+        return written.get(userId,
+                id -> playerStateRepository.findById(id).map(PlayerSave::fromEntity).orElse(null));
+    }
+
+    /**
+     * loop thread: queues a save of every online registered player.
+     */
+    public void checkpoint() {
+        checkpoint(gameLoop.getWorldState());
+    }
+
+    private void checkpoint(WorldState state) {
+        if (players == null) {
+            players = state.query(PlayerTagComponent.class);
+        }
+
+        int queued = 0;
+        for (int a = 0; a < players.archetypeCount(); a++) {
+            Archetype archetype = players.archetype(a);
+            for (int row = 0; row < archetype.size(); row++) {
+                PlayerTagComponent tag = archetype.component(PlayerTagComponent.class, row);
+                if (tag.isGuest())
+                    continue;
+
+                if (pending.size() >= maxPending && !pending.containsKey(tag.userId())) {
+                    skippedCheckpoints.increment();
+                    continue;
+                }
+
+                PlayerSave save = PlayerSave.capture(state, archetype.entity(row), tag.userId());
+                if (save != null) {
+                    pending.put(save.userId(), save);
+                    queued++;
+                }
+            }
+        }
+        log.debug("Checkpoint queued {} players", queued);
+    }
+
+    // --- Writer thread ---
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("Error flushing player saves", e);
+        }
+    }
+
+    // package-private for tests
+    void flush() {
+        if (pending.isEmpty())
+            return;
+
+        List<PlayerSave> batch = new ArrayList<>(batchSize);
+        for (PlayerSave save : pending.values()) {
+            // in 'writing' before it leaves 'pending', so load() always sees it
+            writing.put(save.userId(), save);
+            if (!pending.remove(save.userId(), save)) {
+                // replaced by a newer save, written on the next flush
+                writing.remove(save.userId(), save);
+                continue;
+            }
+
+            batch.add(save);
+            if (batch.size() == batchSize) {
+                write(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+    }
+
+    private void write(List<PlayerSave> batch) {
+        long start = System.nanoTime();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Timestamp now = new Timestamp(System.currentTimeMillis());
+                // one chunk, since the batch is never larger than batchSize
+                int[] updated = jdbcTemplate.batchUpdate(UPDATE_SQL, batch, batch.size(),
+                        (ps, save) -> bind(ps, save, now))[0];
+
+                List<PlayerSave> missing = new ArrayList<>();
+                for (int i = 0; i < updated.length; i++) {
+                    if (updated[i] == 0) {
+                        missing.add(batch.get(i));
+                    }
+                }
+                if (!missing.isEmpty()) {
+                    jdbcTemplate.batchUpdate(INSERT_SQL, missing, missing.size(),
+                            (ps, save) -> bind(ps, save, now));
+                }
+            });
+            savedCounter.increment(batch.size());
+            for (PlayerSave save : batch) {
+                written.put(save.userId(), save);
+            }
+        } catch (RuntimeException e) {
+            failedFlushes.increment();
+            log.error("Could not write {} player saves, retrying on next flush: {}", batch.size(), e.getMessage());
+            // a newer save queued meanwhile wins over the failed one
+            for (PlayerSave save : batch) {
+                pending.putIfAbsent(save.userId(), save);
+            }
+        } finally {
+            for (PlayerSave save : batch) {
+                writing.remove(save.userId(), save);
+            }
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static void bind(PreparedStatement ps, PlayerSave save, Timestamp now) throws SQLException {
+        ps.setFloat(1, save.x());
+        ps.setFloat(2, save.y());
+        ps.setFloat(3, save.health());
+        ps.setFloat(4, save.maxHealth());
+        ps.setFloat(5, save.stamina());
+        ps.setFloat(6, save.maxStamina());
+        ps.setFloat(7, save.hunger());
+        ps.setFloat(8, save.thirst());
+        ps.setFloat(9, save.temperature());
+        ps.setString(10, save.encodeInventory());
+        ps.setTimestamp(11, now);
+        ps.setObject(12, save.userId());
+    }
+
+    /**
+     * on shutdown the loop has already stopped: checkpoint from this thread and
+     * write everything still queued.
+     */
+    @PreDestroy
+    public void shutdown() {
+        writer.shutdownNow();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+            if (!gameLoop.isRunning()) {
+                checkpoint(gameLoop.getWorldState());
+            }
+            flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Could not write player saves on shutdown", e);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.conquerquest.backend.core.services;
+
+import com.conquerquest.backend.core.components.InventoryComponent;
+import com.conquerquest.backend.core.components.InventorySlot;
+import com.conquerquest.backend.core.components.PositionComponent;
+import com.conquerquest.backend.core.components.SurvivalComponent;
+import com.conquerquest.backend.core.components.VitalityComponent;
+import com.conquerquest.backend.core.state.WorldState;
+import com.conquerquest.backend.core.systems.ItemType;
+import com.conquerquest.backend.domain.player.PlayerState;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Immutable copy of the persisted part of a player, taken on the loop thread
+ * and written later by PlayerPersistenceService without touching WorldState.
+ */
+public record PlayerSave(
+        UUID userId,
+        float x,
+        float y,
+        float health,
+        float maxHealth,
+        float stamina,
+        float maxStamina,
+        float hunger,
+        float thirst,
+        float temperature,
+        List<Slot> inventory) {
+
+    public record Slot(int index, ItemType item, int quantity) {
+    }
+
+    /**
+     * loop thread: copies the entity's state. Returns null if a component
+     * is missing.
+     */
+    public static PlayerSave capture(WorldState state, int entity, UUID userId) {
+        PositionComponent pos = state.getComponent(entity, PositionComponent.class);
+        VitalityComponent vitality = state.getComponent(entity, VitalityComponent.class);
+        SurvivalComponent survival = state.getComponent(entity, SurvivalComponent.class);
+        InventoryComponent inventory = state.getComponent(entity, InventoryComponent.class);
+        if (pos == null || vitality == null || survival == null || inventory == null)
+            return null;
+
+        List<Slot> slots = new ArrayList<>();
+        for (int i = 0; i < inventory.getCapacity(); i++) {
+            InventorySlot slot = inventory.getSlot(i);
+            if (slot != null) {
+                slots.add(new Slot(i, slot.getItem(), slot.getQuantity()));
+            }
+        }
+
+        return new PlayerSave(userId,
+                pos.getX(), pos.getY(),
+                vitality.getHealth(), vitality.getMaxHealth(),
+                vitality.getStamina(), vitality.getMaxStamina(),
+                survival.getHunger(), survival.getThirst(), survival.getTemperature(),
+                List.copyOf(slots));
+    }
+
+    /**
+     * loop thread: restores the saved state onto a freshly spawned entity.
+     */
+    public void applyTo(WorldState state, int entity) {
+        PositionComponent pos = state.getComponent(entity, PositionComponent.class);
+        pos.update(x, y);
+
+        VitalityComponent vitality = state.getComponent(entity, VitalityComponent.class);
+        vitality.setHealth(health);
+        vitality.setMaxHealth(maxHealth);
+        vitality.setStamina(stamina);
+        vitality.setMaxStamina(maxStamina);
+
+        SurvivalComponent survival = state.getComponent(entity, SurvivalComponent.class);
+        survival.setHunger(hunger);
+        survival.setThirst(thirst);
+        survival.setTemperature(temperature);
+
+        InventoryComponent inv = state.getComponent(entity, InventoryComponent.class);
+        inv.clear();
+        for (Slot slot : inventory) {
+            if (slot.index() < inv.getCapacity()) {
+                inv.getSlots()[slot.index()] = new InventorySlot(slot.item(), slot.quantity());
+            }
+        }
+    }
+
+    // --- Row mapping ---
+
+    public static PlayerSave fromEntity(PlayerState row) {
+        return new PlayerSave(row.getUserId(),
+                row.getX(), row.getY(),
+                row.getHealth(), row.getMaxHealth(),
+                row.getStamina(), row.getMaxStamina(),
+                row.getHunger(), row.getThirst(), row.getTemperature(),
+                decodeInventory(row.getInventory()));
+    }
+
+    String encodeInventory() {
+        StringBuilder sb = new StringBuilder();
+        for (Slot slot : inventory) {
+            if (!sb.isEmpty())
+                sb.append(';');
+            sb.append(slot.index()).append(':').append(slot.item().name()).append(':').append(slot.quantity());
+        }
+        return sb.toString();
+    }
+
+    static List<Slot> decodeInventory(String encoded) {
+        if (encoded == null || encoded.isEmpty())
+            return List.of();
+
+        List<Slot> slots = new ArrayList<>();
+        for (String entry : encoded.split(";")) {
+            String[] parts = entry.split(":");
+            ItemType item = parts.length == 3 ? ItemType.fromString(parts[1]) : null;
+            if (item != null) { // unknown items (removed from the game) are dropped
+                slots.add(new Slot(Integer.parseInt(parts[0]), item, Integer.parseInt(parts[2])));
+            }
+        }
+        return List.copyOf(slots);
+    }
+}
@@ -0,0 +1,85 @@
+package com.conquerquest.backend.core.services;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Copy of everything the publishers need from one tick: positions of visible
+ * entities, players receiving snapshots and their stats. Filled by the game
+ * loop, then read by the publisher thread without touching WorldState.
+ * Frames are pooled and refilled, so arrays only grow.
+ */
+public final class SnapshotFrame {
+
+    static final int STATS_FIELDS = 5; // health, stamina, hunger, thirst, temperature
+
+    long tick;
+    long serverTime;
+
+    // entities with a position
+    int count;
+    int[] ids = new int[256];
+    float[] xs = new float[256];
+    float[] ys = new float[256];
+
+    // players that receive snapshots
+    int viewerCount;
+    int[] viewerIds = new int[16];
+    UUID[] viewerUsers = new UUID[16];
+    float[] viewerX = new float[16];
+    float[] viewerY = new float[16];
+
+    // players with stats, STATS_FIELDS ints each
+    int statsCount;
+    UUID[] statsUsers = new UUID[16];
+    int[] stats = new int[16 * STATS_FIELDS];
+
+    public long tick() {
+        return tick;
+    }
+
+    void reset(long tick, long serverTime, int entities) {
+        this.tick = tick;
+        this.serverTime = serverTime;
+        this.count = 0;
+        this.viewerCount = 0;
+        this.statsCount = 0;
+
+        if (ids.length < entities) {
+            int capacity = Math.max(entities, ids.length * 2);
+            ids = new int[capacity];
+            xs = new float[capacity];
+            ys = new float[capacity];
+        }
+    }
+
+    void addViewer(int entity, UUID userId, float x, float y) {
+        if (viewerCount == viewerIds.length) {
+            int capacity = viewerCount * 2;
+            viewerIds = Arrays.copyOf(viewerIds, capacity);
+            viewerUsers = Arrays.copyOf(viewerUsers, capacity);
+            viewerX = Arrays.copyOf(viewerX, capacity);
+            viewerY = Arrays.copyOf(viewerY, capacity);
+        }
+        viewerIds[viewerCount] = entity;
+        viewerUsers[viewerCount] = userId;
+        viewerX[viewerCount] = x;
+        viewerY[viewerCount] = y;
+        viewerCount++;
+    }
+
+    void addStats(UUID userId, int health, int stamina, int hunger, int thirst, int temperature) {
+        if (statsCount == statsUsers.length) {
+            statsUsers = Arrays.copyOf(statsUsers, statsCount * 2);
+            stats = Arrays.copyOf(stats, statsCount * 2 * STATS_FIELDS);
+        }
+        statsUsers[statsCount] = userId;
+        int base = statsCount * STATS_FIELDS;
+        stats[base] = health;
+        stats[base + 1] = stamina;
+        stats[base + 2] = hunger;
+        stats[base + 3] = thirst;
+        stats[base + 4] = temperature;
+        statsCount++;
+    }
+}
@@ -0,0 +1,102 @@
+package com.conquerquest.backend.core.services;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ring of the last snapshots sent to one client, used as delta baselines.
+ * Each entry keeps the visible entities sorted by id, so two snapshots are
+ * compared with a single merge walk.
+ *
+ * Written by the broadcasting thread only; the acknowledged tick is updated
+ * from websocket threads.
+ */
+final class SnapshotHistory {
+
+    private final long[] ticks;
+    private final int[][] ids;
+    private final float[][] xs;
+    private final float[][] ys;
+    private final int[] counts;
+
+    private final AtomicLong ackedTick = new AtomicLong(-1);
+
+    // last broadcast this client was part of, to forget gone clients
+    long lastTick;
+
+    SnapshotHistory(int capacity) {
+        this.ticks = new long[capacity];
+        this.ids = new int[capacity][16];
+        this.xs = new float[capacity][16];
+        this.ys = new float[capacity][16];
+        this.counts = new int[capacity];
+        Arrays.fill(ticks, -1);
+    }
+
+    void acknowledge(long tick) {
+        ackedTick.accumulateAndGet(tick, Math::max);
+    }
+
+    /**
+     * slot holding the newest snapshot the client confirmed, or -1 when there
+     * is none or it was already overwritten (client too far behind).
+     */
+    int baseline() {
+        long tick = ackedTick.get();
+        if (tick < 0)
+            return -1;
+
+        int slot = slotOf(tick);
+        return ticks[slot] == tick ? slot : -1;
+    }
+
+    long tick(int slot) {
+        return ticks[slot];
+    }
+
+    int count(int slot) {
+        return counts[slot];
+    }
+
+    int id(int slot, int i) {
+        return ids[slot][i];
+    }
+
+    float x(int slot, int i) {
+        return xs[slot][i];
+    }
+
+    float y(int slot, int i) {
+        return ys[slot][i];
+    }
+
+    /**
+     * stores the snapshot sent at 'tick'. 'order' holds frame indexes sorted by
+     * entity id, packed as (id << 32 | index).
+     */
+    void record(long tick, long[] order, int count, float[] frameX, float[] frameY) {
+        int slot = slotOf(tick);
+        if (ids[slot].length < count) {
+            int capacity = Math.max(count, ids[slot].length * 2);
+            ids[slot] = new int[capacity];
+            xs[slot] = new float[capacity];
+            ys[slot] = new float[capacity];
+        }
+
+        int[] slotIds = ids[slot];
+        float[] slotX = xs[slot];
+        float[] slotY = ys[slot];
+        for (int i = 0; i < count; i++) {
+            int index = (int) order[i];
+            slotIds[i] = (int) (order[i] >>> 32);
+            slotX[i] = frameX[index];
+            slotY[i] = frameY[index];
+        }
+        counts[slot] = count;
+        ticks[slot] = tick;
+    }
+
+    private int slotOf(long tick) {
+        return (int) (tick % ticks.length);
+    }
+}
@@ -7,22 +7,35 @@ import com.conquerquest.backend.core.components.PlayerTagComponent;
 import com.conquerquest.backend.core.components.PositionComponent;
 import com.conquerquest.backend.core.components.SurvivalComponent;
 import com.conquerquest.backend.core.components.VitalityComponent;
+import com.conquerquest.backend.core.ecs.GameComponent;
+import com.conquerquest.backend.core.state.Archetype;
+import com.conquerquest.backend.core.state.EntityQuery;
 import com.conquerquest.backend.core.state.WorldState;
+import com.conquerquest.backend.infra.socket.codec.SnapshotCodec;
 import com.conquerquest.backend.infra.socket.dto.EntitySnapshotDTO;
 import com.conquerquest.backend.infra.socket.dto.GameStateDTO;
 import com.conquerquest.backend.infra.socket.dto.InventorySlotDTO;
 import com.conquerquest.backend.infra.socket.dto.InventoryStateDTO;
 import com.conquerquest.backend.infra.socket.dto.PlayerStatsDTO;
+import com.conquerquest.backend.infra.socket.stream.GameStreamSessions;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
@@ -36,58 +49,260 @@ public class SnapshotService {
     private final SimpMessagingTemplate messagingTemplate;
     private final Map<UUID, PlayerStatsDTO> lastSentStats = new ConcurrentHashMap<>();
 
-    // High Frequency Channel - 60Hz
-    // Visual data - position and movement
-    public void broadcastState() {
-        List<UUID> entities = worldState.getEntitiesWith(PositionComponent.class);
-        List<EntitySnapshotDTO> snapshots = new ArrayList<>(entities.size());
+    private final InterestManager interestManager;
+    private final SnapshotCodec snapshotCodec;
+    private final GameStreamSessions gameStreams;
+
+    // snapshots kept per client as delta baselines (64 = ~1s at 60Hz)
+    @Value("${game.snapshot.history:64}")
+    private int historySize;
+
+    // client entity -> recently sent snapshots and its last acknowledged tick (publisher thread)
+    private final Map<Integer, SnapshotHistory> histories = new ConcurrentHashMap<>();
+    private long snapshotTick; // loop thread
+
+    // scratch buffers for encoding one client's snapshot
+    private long[] order = new long[256];
+    private int[] removed = new int[64];
+    private static final int[] NONE_REMOVED = new int[0];
 
-        for (UUID id : entities) {
-            PositionComponent pos = worldState.getComponent(id, PositionComponent.class);
+    private EntityQuery visibleEntities;
+    private EntityQuery viewers;
+    private EntityQuery playersWithStats;
 
-            if (pos != null) {
-                snapshots.add(new EntitySnapshotDTO(id, pos.getX(), pos.getY()));
+    // clients that negotiated binary snapshots at join
+    private final Set<Integer> binaryClients = ConcurrentHashMap.newKeySet();
+
+    // --- Loop thread ---
+
+    /**
+     * copies what the publishers need from the world into 'frame'.
+     * Runs on the loop thread; everything else here runs on the publisher.
+     */
+    public void capture(SnapshotFrame frame) {
+        if (visibleEntities == null) {
+            visibleEntities = worldState.query(PositionComponent.class);
+            viewers = worldState.query(PlayerTagComponent.class, PositionComponent.class);
+            playersWithStats = worldState.query(
+                    SurvivalComponent.class,
+                    VitalityComponent.class,
+                    PlayerTagComponent.class);
+        }
+
+        frame.reset(++snapshotTick, System.currentTimeMillis(), visibleEntities.size());
+
+        for (int a = 0; a < visibleEntities.archetypeCount(); a++) {
+            Archetype archetype = visibleEntities.archetype(a);
+            int size = archetype.size();
+            System.arraycopy(archetype.column(PositionComponent.class, PositionComponent.X), 0, frame.xs, frame.count, size);
+            System.arraycopy(archetype.column(PositionComponent.class, PositionComponent.Y), 0, frame.ys, frame.count, size);
+            for (int row = 0; row < size; row++) {
+                frame.ids[frame.count + row] = archetype.entity(row);
+            }
+            frame.count += size;
+        }
+
+        for (int a = 0; a < viewers.archetypeCount(); a++) {
+            Archetype archetype = viewers.archetype(a);
+            GameComponent[] tags = archetype.components(PlayerTagComponent.class);
+            float[] posX = archetype.column(PositionComponent.class, PositionComponent.X);
+            float[] posY = archetype.column(PositionComponent.class, PositionComponent.Y);
+
+            for (int row = 0; row < archetype.size(); row++) {
+                frame.addViewer(archetype.entity(row), ((PlayerTagComponent) tags[row]).userId(), posX[row], posY[row]);
             }
         }
 
-        GameStateDTO gameState = new GameStateDTO(System.currentTimeMillis(), snapshots);
+        for (int a = 0; a < playersWithStats.archetypeCount(); a++) {
+            Archetype archetype = playersWithStats.archetype(a);
+            GameComponent[] tags = archetype.components(PlayerTagComponent.class);
+
+            for (int row = 0; row < archetype.size(); row++) {
+                var vital = archetype.component(VitalityComponent.class, row);
+                var surv = archetype.component(SurvivalComponent.class, row);
+                frame.addStats(((PlayerTagComponent) tags[row]).userId(),
+                        (int) vital.getHealth(),
+                        (int) vital.getStamina(),
+                        (int) surv.getHunger(),
+                        (int) surv.getThirst(),
+                        (int) surv.getTemperature());
+            }
+        }
+    }
 
-        messagingTemplate.convertAndSend("/topic/gamestate", gameState);
+    /**
+     * records the snapshot encoding a client negotiated at join.
+     */
+    public void registerClient(int entityId, boolean binary) {
+        if (binary) {
+            binaryClients.add(entityId);
+        } else {
+            binaryClients.remove(entityId);
+        }
     }
 
     /**
-     * Middle frequency channel - OnChange
-     * Sends stats individually to each player
+     * forgets per-client state once the player left.
+     */
+    public void unregisterClient(int entityId, UUID userId) {
+        binaryClients.remove(entityId);
+        clearCache(userId);
+    }
+
+    // --- Publisher thread ---
+
+    // High Frequency Channel - 60Hz
+    // Visual data - position and movement, filtered per player by area of interest
+    public void broadcastState(SnapshotFrame frame) {
+        interestManager.beginFrame(frame.ids, frame.xs, frame.ys, frame.count);
+        long tick = frame.tick;
+
+        for (int v = 0; v < frame.viewerCount; v++) {
+            int entity = frame.viewerIds[v];
+            int visible = sortVisible(frame, interestManager.collectVisible(entity, frame.viewerX[v], frame.viewerY[v]));
+
+            SnapshotHistory history = histories.computeIfAbsent(entity, id -> new SnapshotHistory(historySize));
+            history.lastTick = tick;
+
+            GameStateDTO gameState = encode(frame, history, visible);
+            history.record(tick, order, visible, frame.xs, frame.ys);
+
+            send(frame.viewerUsers[v], gameState, binaryClients.contains(entity));
+        }
+
+        interestManager.endFrame();
+        histories.values().removeIf(history -> history.lastTick != tick);
+    }
+
+    /**
+     * called when a client confirms it received the snapshot of 'tick'.
      */
-    public void broadcastPlayerStats() {
-        for (UUID entityId : worldState.getEntitiesWith(SurvivalComponent.class, VitalityComponent.class)) {
-            PlayerTagComponent playerTag = worldState.getComponent(entityId, PlayerTagComponent.class);
+    public void acknowledge(int entityId, long tick) {
+        SnapshotHistory history = histories.get(entityId);
+        if (history != null) {
+            history.acknowledge(tick);
+        }
+    }
 
-            if (playerTag != null) {
-                processStatsForPlayer(entityId, playerTag.userId());
+    // encodes the snapshot ourselves (JSON or binary) and sends the raw bytes,
+    // through the raw game stream when the client opened one (always binary)
+    private void send(UUID userId, GameStateDTO gameState, boolean binary) {
+        String destination = "/topic/gamestate/" + userId;
+        try {
+            if (gameStreams.isAttached(userId)) {
+                gameStreams.sendState(userId, gameState.tick(), snapshotCodec.encode(gameState, true));
+                return;
             }
+
+            byte[] payload = snapshotCodec.encode(gameState, binary);
+
+            SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+            headers.setContentType(snapshotCodec.contentType(binary));
+            headers.setLeaveMutable(true);
+            messagingTemplate.send(destination, MessageBuilder.createMessage(payload, headers.getMessageHeaders()));
+
+        } catch (JsonProcessingException e) {
+            log.error("Could not encode snapshot for {}", destination, e);
+        }
+    }
+
+    // fills 'order' with the visible frame indexes sorted by entity id
+    private int sortVisible(SnapshotFrame frame, int visible) {
+        if (order.length < visible) {
+            order = new long[Math.max(visible, order.length * 2)];
         }
+        for (int i = 0; i < visible; i++) {
+            int index = interestManager.visibleIndex(i);
+            order[i] = ((long) frame.ids[index] << 32) | index;
+        }
+        Arrays.sort(order, 0, visible);
+        return visible;
     }
 
-    private void processStatsForPlayer(UUID entityId, UUID userId) {
-        var vital = worldState.getComponent(entityId, VitalityComponent.class);
-        var surv = worldState.getComponent(entityId, SurvivalComponent.class);
+    /**
+     * full snapshot when the client has no usable baseline, otherwise only the
+     * entities that moved or appeared since the baseline plus the ones that left.
+     */
+    private GameStateDTO encode(SnapshotFrame frame, SnapshotHistory history, int visible) {
+        float[] xs = frame.xs;
+        float[] ys = frame.ys;
 
-        if (vital == null || surv == null)
-            return;
+        int base = history.baseline();
+        if (base < 0) {
+            List<EntitySnapshotDTO> snapshots = new ArrayList<>(visible);
+            for (int i = 0; i < visible; i++) {
+                int index = (int) order[i];
+                snapshots.add(new EntitySnapshotDTO(frame.ids[index], xs[index], ys[index]));
+            }
+            return new GameStateDTO(frame.serverTime, frame.tick, -1, snapshots, NONE_REMOVED);
+        }
+        List<EntitySnapshotDTO> changed = new ArrayList<>();
+        int removedCount = 0;
+        int baseCount = history.count(base);
+        int i = 0;
+        int j = 0;
+
+        // merge walk over both id-sorted lists
+        while (i < visible || j < baseCount) {
+            int id = i < visible ? (int) (order[i] >>> 32) : Integer.MAX_VALUE;
+            int baseId = j < baseCount ? history.id(base, j) : Integer.MAX_VALUE;
 
-        PlayerStatsDTO currentStats = new PlayerStatsDTO(
-                (int) vital.getHealth(),
-                (int) vital.getStamina(),
-                (int) surv.getHunger(),
-                (int) surv.getThirst(),
-                (int) surv.getTemperature());
+            if (id < baseId) {
+                // appeared
+                int index = (int) order[i++];
+                changed.add(new EntitySnapshotDTO(id, xs[index], ys[index]));
+            } else if (id > baseId) {
+                // left the area of interest or despawned
+                if (removedCount == removed.length) {
+                    removed = Arrays.copyOf(removed, removedCount * 2);
+                }
+                removed[removedCount++] = baseId;
+                j++;
+            } else {
+                int index = (int) order[i++];
+                if (xs[index] != history.x(base, j) || ys[index] != history.y(base, j)) {
+                    changed.add(new EntitySnapshotDTO(id, xs[index], ys[index]));
+                }
+                j++;
+            }
+        }
 
+        int[] removedIds = removedCount == 0 ? NONE_REMOVED : Arrays.copyOf(removed, removedCount);
+        return new GameStateDTO(frame.serverTime, frame.tick, history.tick(base), changed, removedIds);
+    }
+
+    /**
+     * Middle frequency channel - OnChange
+     * Sends stats individually to each player
+     */
+    public void broadcastPlayerStats(SnapshotFrame frame) {
+        for (int i = 0; i < frame.statsCount; i++) {
+            int base = i * SnapshotFrame.STATS_FIELDS;
+            processStatsForPlayer(frame.statsUsers[i],
+                    frame.stats[base],
+                    frame.stats[base + 1],
+                    frame.stats[base + 2],
+                    frame.stats[base + 3],
+                    frame.stats[base + 4]);
+        }
+    }
+
+    private void processStatsForPlayer(UUID userId, int health, int stamina, int hunger, int thirst, int temperature) {
+        // compare before allocating: stats rarely change between ticks
         PlayerStatsDTO lastStats = lastSentStats.get(userId);
+        if (lastStats != null
+                && lastStats.health() == health
+                && lastStats.stamina() == stamina
+                && lastStats.hunger() == hunger
+                && lastStats.thirst() == thirst
+                && lastStats.temperature() == temperature) {
+            return;
+        }
 
-        if (lastStats == null || !lastStats.equals(currentStats)) {
-            lastSentStats.put(userId, currentStats);
+        PlayerStatsDTO currentStats = new PlayerStatsDTO(health, stamina, hunger, thirst, temperature);
+        lastSentStats.put(userId, currentStats);
 
+        if (!gameStreams.sendReliable(userId, "stats", currentStats)) {
             messagingTemplate.convertAndSend("/topic/stats/" + userId, currentStats);
         }
     }
@@ -109,7 +324,9 @@ public class SnapshotService {
 
         InventoryStateDTO payload = new InventoryStateDTO(slotDTOs, inventory.getCapacity());
 
-        messagingTemplate.convertAndSend("/topic/inventory/" + userId, payload);
+        if (!gameStreams.sendReliable(userId, "inventory", payload)) {
+            messagingTemplate.convertAndSend("/topic/inventory/" + userId, payload);
+        }
 
         // log.debug("Inventory update sent to user {}", userId);
     }
@@ -1,13 +1,39 @@
 package com.conquerquest.backend.core.services;
 
-import jakarta.annotation.PostConstruct;
+import com.conquerquest.backend.core.world.ChunkCache;
+import com.conquerquest.backend.core.world.ChunkGenerator;
+import com.conquerquest.backend.core.world.TileProperties;
+import com.conquerquest.backend.core.world.WorldFile;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.util.Arrays;
-import java.util.List;
-import java.util.Random;
-
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static com.conquerquest.backend.core.world.ChunkGenerator.CHUNK_MASK;
+import static com.conquerquest.backend.core.world.ChunkGenerator.CHUNK_SHIFT;
+import static com.conquerquest.backend.core.world.ChunkGenerator.CHUNK_SIZE;
+
+/**
+ * The world map: width-chunks x height-chunks chunks of 32x32 tiles, generated
+ * from the seed the first time something reads them and kept in a bounded
+ * cache. Startup doesn't generate anything, and memory depends on where
+ * players are, not on the world size.
+ *
+ * With game.world.file set, chunks live in a memory-mapped WorldFile: a restart
+ * reopens the same world (its own seed and size win over the configuration)
+ * and tile changes are written through. Without it, the world exists only in
+ * memory and changed chunks are kept resident.
+ */
 @Service
 @Slf4j
 public class WorldMapService {
@@ -16,161 +42,330 @@ public class WorldMapService {
     }
 
     // --- Constants TILE_TYPES) ---
-    public static final int TILE_GRASS = 0;
-    public static final int TILE_WATER = 1;
-    public static final int TILE_TREE = 2;
-    public static final int TILE_ROCK = 3;
+    public static final int TILE_GRASS = ChunkGenerator.TILE_GRASS;
+    public static final int TILE_WATER = ChunkGenerator.TILE_WATER;
+    public static final int TILE_TREE = ChunkGenerator.TILE_TREE;
+    public static final int TILE_ROCK = ChunkGenerator.TILE_ROCK;
 
     // Map Configuration
-    private static final int TILE_SIZE = 64;
-    private static final int WIDTH_TILES = 50;
-    private static final int HEIGHT_TILES = 50;
-
-    // The Map Data (Row-major order: map[x][y])
-    private final int[][] mapData = new int[WIDTH_TILES][HEIGHT_TILES];
+    private static final int TILE_SHIFT = 6;
+    private static final int TILE_SIZE = 1 << TILE_SHIFT; // 64 px
+
+    // Padding allows smoother movement through gaps
+    private static final float COLLISION_PADDING = 5.0f;
+    private final int widthTiles;
+    private final int heightTiles;
+    // gap kept between a swept box and the tile it stops at; two float steps at the
+    // far edge of the world, so the stop position never rounds onto the tile
+    private final float contactGap;
+    // players spawn within this many chunks of the world center
+    private final int spawnRadiusChunks;
+
+    private final long mapVersion;
+    private final ChunkCache chunks;
+    private final WorldFile worldFile; // null when in memory only
+    private final ScheduledExecutorService syncer;
+
+    public WorldMapService(MeterRegistry meterRegistry,
+            @Value("${game.world.file:}") String worldFilePath,
+            @Value("${game.world.sync-seconds:30}") long syncSeconds,
+            @Value("${game.world.publish-millis:200}") long publishMillis,
+            @Value("${game.world.seed:1337}") long seed,
+            @Value("${game.world.width-chunks:16}") int widthChunks,
+            @Value("${game.world.height-chunks:16}") int heightChunks,
+            @Value("${game.world.chunk-cache-size:1024}") int chunkCacheSize,
+            @Value("${game.world.spawn-radius-chunks:2}") int spawnRadiusChunks) {
+        long start = System.nanoTime();
+        this.spawnRadiusChunks = spawnRadiusChunks;
+
+        if (worldFilePath.isBlank()) {
+            ChunkGenerator generator = new ChunkGenerator(seed);
+            this.worldFile = null;
+            this.syncer = null;
+            this.mapVersion = generator.version();
+            this.chunks = new ChunkCache(generator, chunkCacheSize);
+        } else {
+            this.worldFile = WorldFile.openOrCreate(Path.of(worldFilePath), seed, widthChunks, heightChunks);
+            widthChunks = worldFile.widthChunks();
+            heightChunks = worldFile.heightChunks();
+            seed = worldFile.seed();
+            this.mapVersion = worldFile.version();
+            this.chunks = new ChunkCache(worldFile, chunkCacheSize);
+
+            this.syncer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "world-sync");
+                thread.setDaemon(true);
+                return thread;
+            });
+            syncer.scheduleWithFixedDelay(worldFile::sync, syncSeconds, syncSeconds, TimeUnit.SECONDS);
+            // generated chunks get their table entry here, the msync stays off the tick threads
+            syncer.scheduleWithFixedDelay(worldFile::publish, publishMillis, publishMillis, TimeUnit.MILLISECONDS);
+        }
+        this.widthTiles = widthChunks * CHUNK_SIZE;
+        this.heightTiles = heightChunks * CHUNK_SIZE;
+        this.contactGap = Math.max(0.01f, 2 * Math.ulp((float) (Math.max(widthTiles, heightTiles) << TILE_SHIFT)));
+
+        Gauge.builder("game.world.chunks.resident", chunks, ChunkCache::size)
+                .description("Generated chunks held in memory")
+                .register(meterRegistry);
+        FunctionCounter.builder("game.world.chunks.loaded", chunks, ChunkCache::loadedCount)
+                .description("Chunks loaded or generated, including reloads after eviction")
+                .register(meterRegistry);
+        FunctionCounter.builder("game.world.chunks.evicted", chunks, ChunkCache::evictedCount)
+                .description("Chunks dropped from the chunk cache")
+                .register(meterRegistry);
+
+        log.info("World map: {}x{} tiles, seed {}, {} (opened in {} ms)", widthTiles, heightTiles, seed,
+                worldFile == null ? "in memory" : "file " + worldFilePath,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
 
-    private final Random random = new Random();
+    @PreDestroy
+    public void close() {
+        if (worldFile != null) {
+            syncer.shutdownNow();
+            worldFile.close();
+        }
+    }
 
-    private record StructureConfig(int width, int height, int count) {
+    /**
+     * tile type at a grid position, or -1 outside the map.
+     */
+    public int getTile(int col, int row) {
+        if (isOutOfBounds(col, row))
+            return -1;
+        return chunks.get(col >> CHUNK_SHIFT, row >> CHUNK_SHIFT)[((row & CHUNK_MASK) << CHUNK_SHIFT) | (col & CHUNK_MASK)];
     }
 
-    @PostConstruct
-    public void init() {
-        log.info("Generating World Map...");
-        generateMapData();
-        log.info("World Map generated successfully.");
+    /**
+     * changes a tile; written to the world file right away when there is one.
+     */
+    public void setTile(int col, int row, int type) {
+        if (isOutOfBounds(col, row))
+            return;
+        chunks.setTile(col >> CHUNK_SHIFT, row >> CHUNK_SHIFT,
+                ((row & CHUNK_MASK) << CHUNK_SHIFT) | (col & CHUNK_MASK), (byte) type);
     }
 
     /**
-     * Returns the raw map matrix to be sent to the frontend via API.
+     * revision of a chunk, bumped by every setTile in it.
      */
-    public int[][] getMapData() {
-        return mapData;
+    public int getChunkRevision(int cx, int cy) {
+        return chunks.revision(cx, cy);
     }
 
-    private void generateMapData() {
-        // Initialize with GRASS
-        for (int[] row : mapData) {
-            Arrays.fill(row, TILE_GRASS);
-        }
+    /**
+     * packed tiles of a chunk (see ChunkGenerator). The array must not be modified.
+     */
+    public byte[] getChunk(int cx, int cy) {
+        return chunks.get(cx, cy);
+    }
 
-        // Define Structures
-        placeStructures(TILE_WATER, List.of(
-                new StructureConfig(2, 2, 15),
-                new StructureConfig(4, 2, 10),
-                new StructureConfig(4, 3, 5)));
+    public int getWidthTiles() {
+        return widthTiles;
+    }
 
-        placeStructures(TILE_ROCK, List.of(
-                new StructureConfig(1, 1, 40),
-                new StructureConfig(2, 2, 15)));
+    public int getHeightTiles() {
+        return heightTiles;
+    }
 
-        placeStructures(TILE_TREE, List.of(
-                new StructureConfig(1, 1, 70),
-                new StructureConfig(2, 2, 20)));
+    public int getChunksX() {
+        return widthTiles >> CHUNK_SHIFT;
     }
 
-    private void placeStructures(int type, List<StructureConfig> configs) {
-        for (StructureConfig conf : configs) {
-            int placed = 0;
-            int attempts = 0;
+    public int getChunksY() {
+        return heightTiles >> CHUNK_SHIFT;
+    }
 
-            while (placed < conf.count && attempts < 1000) {
-                if (tryPlaceStructure(type, conf.width, conf.height)) {
-                    placed++;
-                }
-                attempts++;
-            }
-        }
+    public int getTileSize() {
+        return TILE_SIZE;
     }
 
-    private boolean tryPlaceStructure(int type, int width, int height) {
-        int x = random.nextInt(WIDTH_TILES - width);
-        int y = random.nextInt(HEIGHT_TILES - height);
+    /**
+     * identifies the terrain: same seed and generator, same version.
+     */
+    public long getMapVersion() {
+        return mapVersion;
+    }
 
-        // Check if area is clear - only replace GRASS
-        for (int i = 0; i < width; i++) {
-            for (int j = 0; j < height; j++) {
-                if (mapData[x + i][y + j] != TILE_GRASS) {
-                    return false; // Overlap detected
-                }
-            }
-        }
+    public float getWorldWidth() {
+        return widthTiles * TILE_SIZE;
+    }
 
-        // Stamp the structure
-        for (int i = 0; i < width; i++) {
-            for (int j = 0; j < height; j++) {
-                mapData[x + i][y + j] = type;
-            }
-        }
-        return true;
+    public float getWorldHeight() {
+        return heightTiles * TILE_SIZE;
     }
 
     // --- GAMEPLAY LOGIC - Used by MovementSystem ---
 
     public float getTerrainSpeedMultiplier(float worldX, float worldY) {
-        int col = (int) Math.floor(worldX / TILE_SIZE);
-        int row = (int) Math.floor(worldY / TILE_SIZE);
+        // (int) floors non-negative values; negative ones are outside anyway
+        if (worldX < 0 || worldY < 0)
+            return 1.0f;
+        int col = (int) worldX >> TILE_SHIFT;
+        int row = (int) worldY >> TILE_SHIFT;
 
         if (isOutOfBounds(col, row))
             return 1.0f;
 
-        int type = mapData[col][row];
-
-        if (type == TILE_WATER) // water slows movement
-            return 0.5f;
-
-        return 1.0f;
+        return TileProperties.speed(getTile(col, row));
     }
 
+    /**
+     * true if the box overlaps a solid tile or leaves the world. Tests every
+     * tile the box covers against the chunk solidity bitmaps.
+     */
     public boolean checkCollision(float x, float y, float width, float height) {
-        // Padding allows smoother movement through gaps
-        float padding = 5.0f;
+        float padding = COLLISION_PADDING;
 
         float left = x + padding;
         float right = x + width - padding;
         float top = y + padding;
         float bottom = y + height - padding;
 
-        if (isPointSolid(left, top))
-            return true;
-        if (isPointSolid(right, top))
-            return true;
-        if (isPointSolid(left, bottom))
-            return true;
-        if (isPointSolid(right, bottom))
+        if (left < 0 || top < 0)
+            return true; // World border is solid
+        int minCol = (int) left >> TILE_SHIFT;
+        int minRow = (int) top >> TILE_SHIFT;
+        int maxCol = (int) right >> TILE_SHIFT;
+        int maxRow = (int) bottom >> TILE_SHIFT;
+        if (maxCol >= widthTiles || maxRow >= heightTiles)
             return true;
 
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int col = minCol; col <= maxCol; col++) {
+                if (isTileSolid(col, row))
+                    return true;
+            }
+        }
         return false;
     }
 
-    private boolean isPointSolid(float px, float py) {
-        int col = (int) Math.floor(px / TILE_SIZE);
-        int row = (int) Math.floor(py / TILE_SIZE);
+    /**
+     * how far the box can move by 'dx' before touching a solid tile or the
+     * world border: 'dx' itself when the way is clear. Walks the tile columns
+     * in front of the leading edge once (1D DDA), so the cost depends on the
+     * distance in tiles, not on the speed or the tick rate.
+     */
+    public float sweepX(float x, float y, float width, float height, float dx) {
+        if (dx == 0)
+            return 0;
+
+        float top = y + COLLISION_PADDING;
+        float bottom = y + height - COLLISION_PADDING;
+        if (top < 0 || (int) bottom >> TILE_SHIFT >= heightTiles)
+            return 0; // already outside: stay, as checkCollision would
+        int minRow = (int) top >> TILE_SHIFT;
+        int maxRow = (int) bottom >> TILE_SHIFT;
+
+        if (dx > 0) {
+            float right = x + width - COLLISION_PADDING;
+            int target = tileOf(right + dx);
+            for (int col = tileOf(right) + 1; col <= target; col++) {
+                if (col >= widthTiles || isColumnSolid(col, minRow, maxRow)) {
+                    return Math.max(0, (col << TILE_SHIFT) - contactGap - right);
+                }
+            }
+        } else {
+            float left = x + COLLISION_PADDING;
+            int target = tileOf(left + dx);
+            for (int col = tileOf(left) - 1; col >= target; col--) {
+                if (col < 0 || isColumnSolid(col, minRow, maxRow)) {
+                    return Math.min(0, ((col + 1) << TILE_SHIFT) + contactGap - left);
+                }
+            }
+        }
+        return dx;
+    }
 
-        if (isOutOfBounds(col, row))
-            return true; // World border is solid
+    /**
+     * sweepX along the Y axis.
+     */
+    public float sweepY(float x, float y, float width, float height, float dy) {
+        if (dy == 0)
+            return 0;
+
+        float left = x + COLLISION_PADDING;
+        float right = x + width - COLLISION_PADDING;
+        if (left < 0 || (int) right >> TILE_SHIFT >= widthTiles)
+            return 0;
+        int minCol = (int) left >> TILE_SHIFT;
+        int maxCol = (int) right >> TILE_SHIFT;
+
+        if (dy > 0) {
+            float bottom = y + height - COLLISION_PADDING;
+            int target = tileOf(bottom + dy);
+            for (int row = tileOf(bottom) + 1; row <= target; row++) {
+                if (row >= heightTiles || isRowSolid(row, minCol, maxCol)) {
+                    return Math.max(0, (row << TILE_SHIFT) - contactGap - bottom);
+                }
+            }
+        } else {
+            float top = y + COLLISION_PADDING;
+            int target = tileOf(top + dy);
+            for (int row = tileOf(top) - 1; row >= target; row--) {
+                if (row < 0 || isRowSolid(row, minCol, maxCol)) {
+                    return Math.min(0, ((row + 1) << TILE_SHIFT) + contactGap - top);
+                }
+            }
+        }
+        return dy;
+    }
 
-        return isSolid(mapData[col][row]);
+    // floor for any sign, so negative positions map to column -1 and below
+    private static int tileOf(float px) {
+        return (int) Math.floor(px) >> TILE_SHIFT;
+    }
+
+    private boolean isColumnSolid(int col, int minRow, int maxRow) {
+        for (int row = minRow; row <= maxRow; row++) {
+            if (isTileSolid(col, row))
+                return true;
+        }
+        return false;
+    }
+
+    private boolean isRowSolid(int row, int minCol, int maxCol) {
+        for (int col = minCol; col <= maxCol; col++) {
+            if (isTileSolid(col, row))
+                return true;
+        }
+        return false;
+    }
+
+    // in bounds
+    private boolean isTileSolid(int col, int row) {
+        long[] bits = chunks.solidBits(col >> CHUNK_SHIFT, row >> CHUNK_SHIFT);
+        int index = ((row & CHUNK_MASK) << CHUNK_SHIFT) | (col & CHUNK_MASK);
+        return (bits[index >> 6] & (1L << (index & 63))) != 0;
     }
 
     public boolean isSolid(int type) {
-        return type == TILE_TREE || type == TILE_ROCK;
+        return TileProperties.isSolid(type);
     }
 
     private boolean isOutOfBounds(int col, int row) {
-        return col < 0 || col >= WIDTH_TILES || row < 0 || row >= HEIGHT_TILES;
+        return col < 0 || col >= widthTiles || row < 0 || row >= heightTiles;
     }
 
     public SpawnPoint getValidSpawnPoint() {
         int maxAttempts = 100;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        // only the chunks around the center, so spawning doesn't generate the whole world
+        int radius = spawnRadiusChunks * CHUNK_SIZE;
+        int minCol = Math.max(0, widthTiles / 2 - radius);
+        int maxCol = Math.min(widthTiles, widthTiles / 2 + radius);
+        int minRow = Math.max(0, heightTiles / 2 - radius);
+        int maxRow = Math.min(heightTiles, heightTiles / 2 + radius);
 
         for (int i = 0; i < maxAttempts; i++) {
-            int col = random.nextInt(WIDTH_TILES);
-            int row = random.nextInt(HEIGHT_TILES);
+            int col = random.nextInt(minCol, maxCol);
+            int row = random.nextInt(minRow, maxRow);
 
-            int tileType = mapData[col][row];
+            int tileType = getTile(col, row);
 
-            if (!isSolid(tileType) && tileType != TILE_WATER) {
+            if (TileProperties.isSpawnable(tileType)) {
                 float worldX = (col * TILE_SIZE) + (TILE_SIZE / 2f);
                 float worldY = (row * TILE_SIZE) + (TILE_SIZE / 2f);
 
@@ -181,4 +376,4 @@ public class WorldMapService {
         log.warn("Could not find a valid spawn point after {} attempts. Using default.", maxAttempts);
         return new SpawnPoint(100f, 100f); // safe fallback
     }
-}
\ No newline at end of file
+}
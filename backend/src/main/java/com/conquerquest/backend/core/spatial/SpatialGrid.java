@@ -0,0 +1,88 @@
+package com.conquerquest.backend.core.spatial;
+
+import java.util.Arrays;
+
+/**
+ * Uniform grid over the world bounds, rebuilt from a batch of points
+ * (counting sort into cells). Items of a cell are contiguous, so a range
+ * query is a walk over a few int ranges, with no allocation once warmed up.
+ * Points outside the bounds are clamped into the border cells.
+ */
+public final class SpatialGrid {
+
+    private final float cellSize;
+    private final int cols;
+    private final int rows;
+
+    // items of cell c are items[cellStart[c] .. cellStart[c + 1])
+    private final int[] cellStart;
+    private int[] items = new int[256];
+    private int[] cellOf = new int[256];
+
+    public SpatialGrid(float worldWidth, float worldHeight, float cellSize) {
+        this.cellSize = cellSize;
+        this.cols = Math.max(1, (int) Math.ceil(worldWidth / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(worldHeight / cellSize));
+        this.cellStart = new int[cols * rows + 1];
+    }
+
+    /**
+     * indexes points 0..count-1 by position.
+     */
+    public void rebuild(float[] xs, float[] ys, int count) {
+        if (items.length < count) {
+            int capacity = Math.max(count, items.length * 2);
+            items = new int[capacity];
+            cellOf = new int[capacity];
+        }
+
+        Arrays.fill(cellStart, 0);
+        for (int i = 0; i < count; i++) {
+            int cell = cellY(ys[i]) * cols + cellX(xs[i]);
+            cellOf[i] = cell;
+            cellStart[cell + 1]++;
+        }
+
+        // prefix sums: cellStart[c] = first slot of cell c
+        for (int c = 0; c < cellStart.length - 1; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+
+        // cellStart[c] is used as the write cursor, then shifted back
+        for (int i = 0; i < count; i++) {
+            items[cellStart[cellOf[i]]++] = i;
+        }
+        for (int c = cellStart.length - 1; c > 0; c--) {
+            cellStart[c] = cellStart[c - 1];
+        }
+        cellStart[0] = 0;
+    }
+
+    public int cellX(float x) {
+        return clamp((int) Math.floor(x / cellSize), cols);
+    }
+
+    public int cellY(float y) {
+        return clamp((int) Math.floor(y / cellSize), rows);
+    }
+
+    public int cols() {
+        return cols;
+    }
+
+    public int cellBegin(int cellX, int cellY) {
+        return cellStart[cellY * cols + cellX];
+    }
+
+    public int cellEnd(int cellX, int cellY) {
+        return cellStart[cellY * cols + cellX + 1];
+    }
+
+    public int item(int slot) {
+        return items[slot];
+    }
+
+    private static int clamp(int value, int size) {
+        return value < 0 ? 0 : Math.min(value, size - 1);
+    }
+}
@@ -0,0 +1,228 @@
+package com.conquerquest.backend.core.spatial;
+
+import com.conquerquest.backend.core.state.EntityAllocator;
+
+import java.util.Arrays;
+
+/**
+ * Uniform spatial hash of entity positions, updated in place as entities move.
+ * Cells are square; a cell maps to one of a power-of-two number of buckets,
+ * and each bucket is an intrusive doubly linked list threaded through arrays
+ * indexed by entity slot. Moving inside a cell is a store, changing cells is
+ * an unlink and a link, and nothing allocates after the arrays have grown.
+ *
+ * Queries visit the buckets of the covered cells and skip entries of other
+ * cells that share a bucket. The bucket table doubles whenever it holds more
+ * entities than buckets, so chains stay short. Loop thread only.
+ */
+public final class SpatialHashGrid {
+
+    /**
+     * query callback. Keep one instance around instead of a capturing lambda
+     * per call to stay allocation-free.
+     */
+    @FunctionalInterface
+    public interface Visitor {
+        void visit(int entity, float x, float y);
+    }
+
+    private static final int NONE = -1;
+
+    private final float cellSize;
+    private final float inverseCellSize;
+    private int bucketMask;
+    private int[] heads;
+
+    // per entity slot (EntityAllocator.indexOf)
+    private int[] handles = new int[256]; // NULL_ENTITY when not in the grid
+    private int[] next = new int[256];
+    private int[] prev = new int[256];
+    private long[] cellOf = new long[256];
+    private float[] xs = new float[256];
+    private float[] ys = new float[256];
+
+    private int size;
+
+    /**
+     * @param buckets initial bucket count, rounded up to a power of two
+     */
+    public SpatialHashGrid(float cellSize, int buckets) {
+        this.cellSize = cellSize;
+        this.inverseCellSize = 1f / cellSize;
+        int capacity = Integer.highestOneBit(Math.max(2, buckets - 1)) << 1;
+        this.bucketMask = capacity - 1;
+        this.heads = new int[capacity];
+        Arrays.fill(heads, NONE);
+    }
+
+    public float cellSize() {
+        return cellSize;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(int entity) {
+        int slot = EntityAllocator.indexOf(entity);
+        return slot < handles.length && handles[slot] == entity;
+    }
+
+    /**
+     * inserts the entity, or moves it if it's already in the grid.
+     */
+    public void update(int entity, float x, float y) {
+        int slot = EntityAllocator.indexOf(entity);
+        if (slot >= handles.length) {
+            grow(slot + 1);
+        }
+
+        long cell = cellKey(x, y);
+        if (handles[slot] == entity) {
+            xs[slot] = x;
+            ys[slot] = y;
+            if (cellOf[slot] == cell)
+                return;
+            unlink(slot);
+        } else {
+            if (handles[slot] != EntityAllocator.NULL_ENTITY) {
+                unlink(slot); // stale handle of a recycled slot
+                size--;
+            }
+            handles[slot] = entity;
+            xs[slot] = x;
+            ys[slot] = y;
+            size++;
+        }
+        cellOf[slot] = cell;
+        link(slot, cell);
+
+        if (size > heads.length) {
+            rehash(heads.length * 2);
+        }
+    }
+
+    public void remove(int entity) {
+        int slot = EntityAllocator.indexOf(entity);
+        if (slot >= handles.length || handles[slot] != entity)
+            return;
+
+        unlink(slot);
+        handles[slot] = EntityAllocator.NULL_ENTITY;
+        size--;
+    }
+
+    /**
+     * visits every entity within 'radius' of (x, y).
+     */
+    public void queryRadius(float x, float y, float radius, Visitor visitor) {
+        float radiusSq = radius * radius;
+        int minCx = cellCoord(x - radius);
+        int maxCx = cellCoord(x + radius);
+        int minCy = cellCoord(y - radius);
+        int maxCy = cellCoord(y + radius);
+
+        for (int cy = minCy; cy <= maxCy; cy++) {
+            for (int cx = minCx; cx <= maxCx; cx++) {
+                long cell = cellKey(cx, cy);
+                for (int slot = heads[bucket(cell)]; slot != NONE; slot = next[slot]) {
+                    if (cellOf[slot] != cell)
+                        continue;
+                    float dx = xs[slot] - x;
+                    float dy = ys[slot] - y;
+                    if (dx * dx + dy * dy <= radiusSq) {
+                        visitor.visit(handles[slot], xs[slot], ys[slot]);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * visits every entity whose position lies in the box.
+     */
+    public void queryBox(float minX, float minY, float maxX, float maxY, Visitor visitor) {
+        int minCx = cellCoord(minX);
+        int maxCx = cellCoord(maxX);
+        int minCy = cellCoord(minY);
+        int maxCy = cellCoord(maxY);
+
+        for (int cy = minCy; cy <= maxCy; cy++) {
+            for (int cx = minCx; cx <= maxCx; cx++) {
+                long cell = cellKey(cx, cy);
+                for (int slot = heads[bucket(cell)]; slot != NONE; slot = next[slot]) {
+                    if (cellOf[slot] != cell)
+                        continue;
+                    float px = xs[slot];
+                    float py = ys[slot];
+                    if (px >= minX && px <= maxX && py >= minY && py <= maxY) {
+                        visitor.visit(handles[slot], px, py);
+                    }
+                }
+            }
+        }
+    }
+
+    private void link(int slot, long cell) {
+        int bucket = bucket(cell);
+        int head = heads[bucket];
+        prev[slot] = NONE;
+        next[slot] = head;
+        if (head != NONE) {
+            prev[head] = slot;
+        }
+        heads[bucket] = slot;
+    }
+
+    private void unlink(int slot) {
+        int p = prev[slot];
+        int n = next[slot];
+        if (p != NONE) {
+            next[p] = n;
+        } else {
+            heads[bucket(cellOf[slot])] = n;
+        }
+        if (n != NONE) {
+            prev[n] = p;
+        }
+    }
+
+    private int cellCoord(float v) {
+        return (int) Math.floor(v * inverseCellSize);
+    }
+
+    private long cellKey(float x, float y) {
+        return cellKey(cellCoord(x), cellCoord(y));
+    }
+
+    private static long cellKey(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xFFFFFFFFL);
+    }
+
+    private int bucket(long cell) {
+        // 64-bit mix, so neighboring cells land in unrelated buckets
+        long h = cell * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & bucketMask;
+    }
+
+    private void rehash(int buckets) {
+        heads = new int[buckets];
+        Arrays.fill(heads, NONE);
+        bucketMask = buckets - 1;
+        for (int slot = 0; slot < handles.length; slot++) {
+            if (handles[slot] != EntityAllocator.NULL_ENTITY) {
+                link(slot, cellOf[slot]);
+            }
+        }
+    }
+
+    private void grow(int minCapacity) {
+        int capacity = Math.max(minCapacity, handles.length * 2);
+        handles = Arrays.copyOf(handles, capacity);
+        next = Arrays.copyOf(next, capacity);
+        prev = Arrays.copyOf(prev, capacity);
+        cellOf = Arrays.copyOf(cellOf, capacity);
+        xs = Arrays.copyOf(xs, capacity);
+        ys = Arrays.copyOf(ys, capacity);
+    }
+}
@@ -0,0 +1,212 @@
+package com.conquerquest.backend.core.state;
+
+import com.conquerquest.backend.core.ecs.GameComponent;
+import com.conquerquest.backend.core.ecs.PackedComponent;
+
+import java.util.Arrays;
+
+/**
+ * A table holding every entity that has exactly the same set of components.
+ * Rows are dense (0..size-1) and removals swap the last row into the hole.
+ * Each component type has an object column; PackedComponent types also have
+ * one float[] column per field, which their instances read/write through.
+ * Only touched by the game loop thread.
+ */
+public final class Archetype {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final long signature;
+    private final int[] typeIds;
+
+    // sparse by type id, null when the type is not part of this archetype
+    private final GameComponent[][] objects = new GameComponent[ComponentRegistry.MAX_TYPES][];
+    private final float[][][] packed = new float[ComponentRegistry.MAX_TYPES][][];
+
+    // cached transitions to neighbour archetypes (by type id)
+    private final Archetype[] addEdges = new Archetype[ComponentRegistry.MAX_TYPES];
+    private final Archetype[] removeEdges = new Archetype[ComponentRegistry.MAX_TYPES];
+
+    private int[] entities = new int[INITIAL_CAPACITY];
+    private int size;
+
+    Archetype(long signature) {
+        this.signature = signature;
+        this.typeIds = new int[Long.bitCount(signature)];
+
+        int i = 0;
+        for (int typeId = 0; typeId < ComponentRegistry.MAX_TYPES; typeId++) {
+            if ((signature & (1L << typeId)) == 0)
+                continue;
+
+            typeIds[i++] = typeId;
+            objects[typeId] = new GameComponent[INITIAL_CAPACITY];
+
+            int width = ComponentRegistry.packedWidth(typeId);
+            if (width > 0) {
+                packed[typeId] = new float[width][INITIAL_CAPACITY];
+            }
+        }
+    }
+
+    public long signature() {
+        return signature;
+    }
+
+    public boolean matches(long mask) {
+        return (signature & mask) == mask;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int entity(int row) {
+        return entities[row];
+    }
+
+    /**
+     * object column of a component type. Valid until the next structural change.
+     */
+    public GameComponent[] components(Class<? extends GameComponent> type) {
+        return objects[ComponentRegistry.idOf(type)];
+    }
+
+    /**
+     * component of a single row.
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends GameComponent> T component(Class<T> type, int row) {
+        return (T) objects[ComponentRegistry.idOf(type)][row];
+    }
+
+    /**
+     * dense float column of one field of a packed component type.
+     * Valid until the next structural change (the array may be reallocated).
+     */
+    public float[] column(Class<? extends PackedComponent> type, int field) {
+        float[][] fields = packed[ComponentRegistry.idOf(type)];
+        return fields == null ? null : fields[field];
+    }
+
+    // --- Package-private storage operations (driven by WorldState) ---
+
+    boolean has(int typeId) {
+        return objects[typeId] != null;
+    }
+
+    GameComponent get(int typeId, int row) {
+        GameComponent[] column = objects[typeId];
+        return column == null ? null : column[row];
+    }
+
+    int[] typeIds() {
+        return typeIds;
+    }
+
+    Archetype addEdge(int typeId) {
+        return addEdges[typeId];
+    }
+
+    void addEdge(int typeId, Archetype target) {
+        addEdges[typeId] = target;
+    }
+
+    Archetype removeEdge(int typeId) {
+        return removeEdges[typeId];
+    }
+
+    void removeEdge(int typeId, Archetype target) {
+        removeEdges[typeId] = target;
+    }
+
+    /**
+     * appends an empty row for the entity and returns its index.
+     */
+    int addRow(int entity) {
+        if (size == entities.length) {
+            grow();
+        }
+        entities[size] = entity;
+        return size++;
+    }
+
+    /**
+     * stores a component in a row. Packed values are copied into the columns
+     * and the instance is bound to them; a replaced packed instance is detached.
+     */
+    void set(int typeId, int row, GameComponent component) {
+        GameComponent previous = objects[typeId][row];
+        if (previous != null && previous != component && previous instanceof PackedComponent old) {
+            old.detach();
+        }
+
+        objects[typeId][row] = component;
+
+        if (component instanceof PackedComponent view) {
+            view.attach(packed[typeId], row);
+        }
+    }
+
+    /**
+     * removes a row by moving the last row into it.
+     * Returns the entity that changed row, or NULL_ENTITY if none did.
+     */
+    int removeRow(int row) {
+        int last = --size;
+        int moved = EntityAllocator.NULL_ENTITY;
+
+        if (row != last) {
+            moved = entities[last];
+            entities[row] = moved;
+
+            for (int typeId : typeIds) {
+                GameComponent[] column = objects[typeId];
+                column[row] = column[last];
+
+                float[][] fields = packed[typeId];
+                if (fields != null) {
+                    for (float[] field : fields) {
+                        field[row] = field[last];
+                    }
+                    ((PackedComponent) column[row]).rebind(row);
+                }
+            }
+        }
+
+        entities[last] = EntityAllocator.NULL_ENTITY;
+        for (int typeId : typeIds) {
+            objects[typeId][last] = null;
+        }
+
+        return moved;
+    }
+
+    /**
+     * detaches every packed instance of a row before it leaves the world.
+     */
+    void detachRow(int row) {
+        for (int typeId : typeIds) {
+            if (objects[typeId][row] instanceof PackedComponent view) {
+                view.detach();
+            }
+        }
+    }
+
+    private void grow() {
+        int capacity = entities.length * 2;
+        entities = Arrays.copyOf(entities, capacity);
+
+        for (int typeId : typeIds) {
+            objects[typeId] = Arrays.copyOf(objects[typeId], capacity);
+
+            // the outer array is kept so bound instances keep seeing their columns
+            float[][] fields = packed[typeId];
+            if (fields != null) {
+                for (int f = 0; f < fields.length; f++) {
+                    fields[f] = Arrays.copyOf(fields[f], capacity);
+                }
+            }
+        }
+    }
+}
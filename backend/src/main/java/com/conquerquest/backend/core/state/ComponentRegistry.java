@@ -0,0 +1,65 @@
+package com.conquerquest.backend.core.state;
+
+import com.conquerquest.backend.core.ecs.GameComponent;
+import com.conquerquest.backend.core.ecs.PackedComponent;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Assigns every component class a small, stable integer id.
+ * Ids are bit positions in archetype signatures, so at most 64 component
+ * types can exist.
+ */
+final class ComponentRegistry {
+
+    static final int MAX_TYPES = Long.SIZE;
+
+    private static final AtomicInteger nextId = new AtomicInteger();
+
+    // number of float columns for PackedComponent types, 0 for object-only types
+    private static final int[] packedWidths = new int[MAX_TYPES];
+
+    private static final ClassValue<Integer> ids = new ClassValue<>() {
+        @Override
+        protected Integer computeValue(Class<?> type) {
+            int id = nextId.getAndIncrement();
+            if (id >= MAX_TYPES) {
+                throw new IllegalStateException(
+                        "Too many component types (max " + MAX_TYPES + "): " + type.getName());
+            }
+            return id;
+        }
+    };
+
+    private ComponentRegistry() {
+    }
+
+    static int idOf(Class<? extends GameComponent> type) {
+        return ids.get(type);
+    }
+
+    /**
+     * same as {@link #idOf(Class)} but also learns the column layout of packed
+     * components from the instance.
+     */
+    static int idOf(GameComponent component) {
+        int id = ids.get(component.getClass());
+        if (component instanceof PackedComponent packed && packedWidths[id] == 0) {
+            packedWidths[id] = packed.fieldCount();
+        }
+        return id;
+    }
+
+    static int packedWidth(int typeId) {
+        return packedWidths[typeId];
+    }
+
+    @SafeVarargs
+    static long maskOf(Class<? extends GameComponent>... types) {
+        long mask = 0L;
+        for (Class<? extends GameComponent> type : types) {
+            mask |= 1L << idOf(type);
+        }
+        return mask;
+    }
+}
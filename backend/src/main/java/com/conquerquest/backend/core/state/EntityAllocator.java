@@ -0,0 +1,79 @@
+package com.conquerquest.backend.core.state;
+
+import java.util.Arrays;
+
+/**
+ * Hands out compact int entity handles: the low bits are a slot index,
+ * the high bits a generation counter bumped every time the slot is freed.
+ * A handle kept after its entity died no longer matches the slot's
+ * generation, so recycled slots can't be confused with the old entity.
+ * Slot 0 is never used, which makes 0 a safe "no entity" value.
+ */
+public final class EntityAllocator {
+
+    public static final int NULL_ENTITY = 0;
+
+    static final int INDEX_BITS = 20;
+    static final int INDEX_MASK = (1 << INDEX_BITS) - 1;
+    static final int MAX_ENTITIES = INDEX_MASK;
+
+    // 11 bits keep handles positive (sign bit unused)
+    private static final int GENERATION_MASK = (1 << (Integer.SIZE - 1 - INDEX_BITS)) - 1;
+
+    private int[] generations = new int[256];
+    private int nextIndex = 1;
+
+    // recycled slots (LIFO keeps recently used memory warm)
+    private int[] freeList = new int[64];
+    private int freeCount;
+
+    public static int indexOf(int entity) {
+        return entity & INDEX_MASK;
+    }
+
+    public static int generationOf(int entity) {
+        return entity >>> INDEX_BITS;
+    }
+
+    int allocate() {
+        int index;
+        if (freeCount > 0) {
+            index = freeList[--freeCount];
+        } else {
+            if (nextIndex > MAX_ENTITIES) {
+                throw new IllegalStateException("Entity limit reached: " + MAX_ENTITIES);
+            }
+            index = nextIndex++;
+            if (index == generations.length) {
+                generations = Arrays.copyOf(generations, generations.length * 2);
+            }
+        }
+        return (generations[index] << INDEX_BITS) | index;
+    }
+
+    void release(int entity) {
+        int index = indexOf(entity);
+        generations[index] = (generations[index] + 1) & GENERATION_MASK;
+
+        if (freeCount == freeList.length) {
+            freeList = Arrays.copyOf(freeList, freeList.length * 2);
+        }
+        freeList[freeCount++] = index;
+    }
+
+    /**
+     * true if the handle's generation is the current one of its slot.
+     * Free slots must be filtered by the caller (WorldState keeps the rows).
+     */
+    boolean isCurrent(int entity) {
+        int index = indexOf(entity);
+        return index > 0 && index < nextIndex && generations[index] == generationOf(entity);
+    }
+
+    /**
+     * upper bound (exclusive) of slot indexes handed out so far.
+     */
+    int capacity() {
+        return nextIndex;
+    }
+}
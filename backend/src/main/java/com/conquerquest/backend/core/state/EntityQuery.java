@@ -0,0 +1,58 @@
+package com.conquerquest.backend.core.state;
+
+import java.util.Arrays;
+
+/**
+ * A registered query ("all entities with Position + Velocity + Collision").
+ * Holds the archetypes whose signature contains the query mask; WorldState
+ * adds new archetypes as they appear, so membership follows
+ * addComponent/removeComponent/removeEntity without any per-tick work.
+ *
+ * Iterate with {@code for archetype in query, for row in 0..archetype.size()}.
+ * Replacing a component in place is fine while iterating; adding/removing
+ * component types or entities of the matched set is not.
+ */
+public final class EntityQuery {
+
+    private final long mask;
+
+    private Archetype[] archetypes = new Archetype[4];
+    private int archetypeCount;
+
+    EntityQuery(long mask) {
+        this.mask = mask;
+    }
+
+    public int archetypeCount() {
+        return archetypeCount;
+    }
+
+    public Archetype archetype(int index) {
+        return archetypes[index];
+    }
+
+    /**
+     * number of entities currently matching the query.
+     */
+    public int size() {
+        int total = 0;
+        for (int i = 0; i < archetypeCount; i++) {
+            total += archetypes[i].size();
+        }
+        return total;
+    }
+
+    long mask() {
+        return mask;
+    }
+
+    void offer(Archetype archetype) {
+        if (!archetype.matches(mask))
+            return;
+
+        if (archetypeCount == archetypes.length) {
+            archetypes = Arrays.copyOf(archetypes, archetypeCount * 2);
+        }
+        archetypes[archetypeCount++] = archetype;
+    }
+}
@@ -1,118 +1,276 @@
 package com.conquerquest.backend.core.state;
 
 import com.conquerquest.backend.core.ecs.GameComponent;
+import com.conquerquest.backend.core.ecs.PackedComponent;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
 
 import org.springframework.stereotype.Component;
 
 /**
  * Represents the state of the game world, including all entities and their
  * components.
- * Threadsafe for concurrent access. written by gameLopp and read by websocket
- * handlers.
+ * Entities are grouped by archetype (their exact component set). Each
+ * archetype stores its components in dense columns, and hot components
+ * (PackedComponent) live in primitive float[] columns.
+ * Entities are generational int handles (see EntityAllocator); UUIDs only
+ * exist at the edges (PlayerTagComponent, persistence).
+ * Structural changes and component access must happen on the game loop
+ * thread; websocket handlers go through GameLoop's input queue.
  */
 @Component
 public class WorldState {
 
-    // Entity ID -> Map<ComponentClass, ComponentInstance>
-    // Ex: Entity 1 -> { PositionComponent.class: {x:10, y:10},
-    // HealthComponent.class: {val:100} }
-    private final Map<UUID, Map<Class<? extends GameComponent>, GameComponent>> components = new ConcurrentHashMap<>();
+    private final EntityAllocator allocator = new EntityAllocator();
 
-    // otimization (Index): ComponentClass -> Set<EntityID>
-    private final Map<Class<? extends GameComponent>, Set<UUID>> componentIndex = new ConcurrentHashMap<>();
+    // Where an entity currently lives, indexed by handle slot: Archetype + row.
+    // A null archetype means the slot is free.
+    private Archetype[] archetypeOf = new Archetype[256];
+    private int[] rowOf = new int[256];
+
+    // Signature (component bitmask) -> Archetype
+    private final Map<Long, Archetype> archetypes = new HashMap<>();
+    private final List<Archetype> archetypeList = new ArrayList<>();
+
+    // Component bitmask -> registered query
+    private final Map<Long, EntityQuery> queries = new HashMap<>();
+
+    private final Archetype emptyArchetype = getOrCreateArchetype(0L);
+
+    // called with the handle of every entity about to be removed
+    private final List<IntConsumer> removalListeners = new ArrayList<>();
 
     /**
-     * create a new entity and return its UUID.
+     * create a new entity and return its handle.
      */
-    public UUID createEntity() {
-        UUID id = UUID.randomUUID();
-        components.put(id, new ConcurrentHashMap<>());
-        return id;
+    public int createEntity() {
+        int entity = allocator.allocate();
+        int index = EntityAllocator.indexOf(entity);
+
+        if (index >= archetypeOf.length) {
+            int capacity = Math.max(archetypeOf.length * 2, index + 1);
+            archetypeOf = Arrays.copyOf(archetypeOf, capacity);
+            rowOf = Arrays.copyOf(rowOf, capacity);
+        }
+
+        archetypeOf[index] = emptyArchetype;
+        rowOf[index] = emptyArchetype.addRow(entity);
+        return entity;
     }
 
     /**
      * remove an entity and all its components.
+     * The handle becomes stale; its slot is recycled with a new generation.
      */
-    public void removeEntity(UUID entityId) {
-        Map<Class<? extends GameComponent>, GameComponent> entityComponents = components.get(entityId);
-        if (entityComponents != null) {
-            for (Class<? extends GameComponent> type : entityComponents.keySet()) {
-                componentIndex.get(type).remove(entityId);
-            }
+    public void removeEntity(int entity) {
+        if (!hasEntity(entity))
+            return;
+
+        for (int i = 0; i < removalListeners.size(); i++) {
+            removalListeners.get(i).accept(entity);
         }
-        components.remove(entityId);
+
+        int index = EntityAllocator.indexOf(entity);
+        Archetype archetype = archetypeOf[index];
+        int row = rowOf[index];
+
+        archetype.detachRow(row);
+        removeRow(archetype, row);
+
+        archetypeOf[index] = null;
+        allocator.release(entity);
+    }
+
+    /**
+     * registers a callback run with each entity right before it is removed,
+     * for structures that index entities outside of WorldState.
+     */
+    public void onEntityRemoved(IntConsumer listener) {
+        removalListeners.add(listener);
     }
 
     /**
      * adds a component to an entity or updates it if it already exists.
      */
-    public void addComponent(UUID entityId, GameComponent component) {
-        if (components.containsKey(entityId)) {
-            // adds/updates component in the entity's component map
-            components.get(entityId).put(component.getClass(), component);
-
-            // adds entity to the component index
-            componentIndex.computeIfAbsent(component.getClass(), k -> new CopyOnWriteArraySet<>())
-                    .add(entityId);
+    public void addComponent(int entity, GameComponent component) {
+        if (!hasEntity(entity))
+            return;
+
+        int index = EntityAllocator.indexOf(entity);
+        int typeId = ComponentRegistry.idOf(component);
+        Archetype current = archetypeOf[index];
+
+        if (!current.has(typeId)) {
+            Archetype target = current.addEdge(typeId);
+            if (target == null) {
+                target = getOrCreateArchetype(current.signature() | (1L << typeId));
+                current.addEdge(typeId, target);
+            }
+            moveEntity(entity, target);
         }
+
+        archetypeOf[index].set(typeId, rowOf[index], component);
     }
 
-    public void removeComponent(UUID entityId, Class<? extends GameComponent> componentClass) {
-        if (components.containsKey(entityId)) {
-            components.get(entityId).remove(componentClass);
+    public void removeComponent(int entity, Class<? extends GameComponent> componentClass) {
+        if (!hasEntity(entity))
+            return;
 
-            if (componentIndex.containsKey(componentClass)) {
-                componentIndex.get(componentClass).remove(entityId);
-            }
+        int index = EntityAllocator.indexOf(entity);
+        int typeId = ComponentRegistry.idOf(componentClass);
+        Archetype current = archetypeOf[index];
+        if (!current.has(typeId))
+            return;
+
+        if (current.get(typeId, rowOf[index]) instanceof PackedComponent view) {
+            view.detach();
+        }
+
+        Archetype target = current.removeEdge(typeId);
+        if (target == null) {
+            target = getOrCreateArchetype(current.signature() & ~(1L << typeId));
+            current.removeEdge(typeId, target);
         }
+        moveEntity(entity, target);
     }
 
     /**
      * gets a component of a specific type for an entity.
      */
     @SuppressWarnings("unchecked")
-    public <T extends GameComponent> T getComponent(UUID entityId, Class<T> componentClass) {
-        Map<Class<? extends GameComponent>, GameComponent> entityComponents = components.get(entityId);
-        if (entityComponents == null)
+    public <T extends GameComponent> T getComponent(int entity, Class<T> componentClass) {
+        if (!hasEntity(entity))
             return null;
-        return (T) entityComponents.get(componentClass);
+
+        int index = EntityAllocator.indexOf(entity);
+        return (T) archetypeOf[index].get(ComponentRegistry.idOf(componentClass), rowOf[index]);
+    }
+
+    /**
+     * returns the component of an entity, creating and adding it from the
+     * factory when missing. Callers mutate the returned instance in place
+     * instead of allocating a replacement every tick.
+     * Creating is a structural change: don't call it while iterating a query
+     * that the entity matches. Returns null if the entity doesn't exist.
+     */
+    public <T extends GameComponent> T getOrCreate(int entity, Class<T> componentClass, Supplier<T> factory) {
+        T component = getComponent(entity, componentClass);
+        if (component == null && hasEntity(entity)) {
+            component = factory.get();
+            addComponent(entity, component);
+        }
+        return component;
+    }
+
+    /**
+     * returns the registered query for a component set, creating it on first
+     * use. Systems should keep the returned object and iterate it every tick.
+     */
+    @SafeVarargs
+    public final EntityQuery query(Class<? extends GameComponent>... componentTypes) {
+        long mask = ComponentRegistry.maskOf(componentTypes);
+
+        EntityQuery query = queries.get(mask);
+        if (query == null) {
+            query = new EntityQuery(mask);
+            for (Archetype archetype : archetypeList) {
+                query.offer(archetype);
+            }
+            queries.put(mask, query);
+        }
+        return query;
     }
 
     /**
      * gets a list of entity IDs that have all the specified component types.
+     * Builds a new list on every call; hot paths should iterate a query instead.
      */
     @SafeVarargs
-    public final List<UUID> getEntitiesWith(Class<? extends GameComponent>... componentTypes) {
+    public final List<Integer> getEntitiesWith(Class<? extends GameComponent>... componentTypes) {
         if (componentTypes.length == 0)
             return Collections.emptyList();
 
-        Set<UUID> candidates = componentIndex.get(componentTypes[0]);
-        if (candidates == null || candidates.isEmpty())
-            return Collections.emptyList();
+        EntityQuery query = query(componentTypes);
+        List<Integer> result = new ArrayList<>(query.size());
+
+        for (int a = 0; a < query.archetypeCount(); a++) {
+            Archetype archetype = query.archetype(a);
+            for (int row = 0; row < archetype.size(); row++) {
+                result.add(archetype.entity(row));
+            }
+        }
+
+        return result;
+    }
 
-        List<UUID> result = new ArrayList<>(candidates);
+    /**
+     * true if the handle refers to a live entity (stale handles return false).
+     */
+    public boolean hasEntity(int entity) {
+        return allocator.isCurrent(entity) && archetypeOf[EntityAllocator.indexOf(entity)] != null;
+    }
 
-        for (int i = 1; i < componentTypes.length; i++) {
-            Set<UUID> nextSet = componentIndex.get(componentTypes[i]);
-            if (nextSet == null || nextSet.isEmpty())
-                return Collections.emptyList();
+    // helper for snapshotting the entire world state (debug only, builds a copy)
+    public Map<Integer, Map<Class<? extends GameComponent>, GameComponent>> getAllEntities() {
+        Map<Integer, Map<Class<? extends GameComponent>, GameComponent>> result = new HashMap<>();
 
-            // removes entities that do not have the current component type
-            result.retainAll(nextSet);
+        for (Archetype archetype : archetypeList) {
+            for (int row = 0; row < archetype.size(); row++) {
+                Map<Class<? extends GameComponent>, GameComponent> entityComponents = new HashMap<>();
+                for (int typeId : archetype.typeIds()) {
+                    GameComponent component = archetype.get(typeId, row);
+                    entityComponents.put(component.getClass(), component);
+                }
+                result.put(archetype.entity(row), entityComponents);
+            }
         }
 
-        return result;
+        return Collections.unmodifiableMap(result);
+    }
+
+    // --- Archetype bookkeeping ---
+
+    private Archetype getOrCreateArchetype(long signature) {
+        Archetype archetype = archetypes.get(signature);
+        if (archetype == null) {
+            archetype = new Archetype(signature);
+            archetypes.put(signature, archetype);
+            archetypeList.add(archetype);
+
+            for (EntityQuery query : queries.values()) {
+                query.offer(archetype);
+            }
+        }
+        return archetype;
     }
 
-    public boolean hasEntity(UUID entityId) {
-        return components.containsKey(entityId);
+    /**
+     * moves an entity row to another archetype, carrying over the shared
+     * components.
+     */
+    private void moveEntity(int entity, Archetype target) {
+        int index = EntityAllocator.indexOf(entity);
+        Archetype source = archetypeOf[index];
+        int sourceRow = rowOf[index];
+
+        int targetRow = target.addRow(entity);
+        for (int typeId : target.typeIds()) {
+            if (source.has(typeId)) {
+                target.set(typeId, targetRow, source.get(typeId, sourceRow));
+            }
+        }
+
+        removeRow(source, sourceRow);
+
+        archetypeOf[index] = target;
+        rowOf[index] = targetRow;
     }
 
-    // helper for snapshotting the entire world state
-    public Map<UUID, Map<Class<? extends GameComponent>, GameComponent>> getAllEntities() {
-        return Collections.unmodifiableMap(components);
+    private void removeRow(Archetype archetype, int row) {
+        int moved = archetype.removeRow(row);
+        if (moved != EntityAllocator.NULL_ENTITY) {
+            rowOf[EntityAllocator.indexOf(moved)] = row;
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,63 +1,247 @@
 package com.conquerquest.backend.core.systems;
 
 import com.conquerquest.backend.core.components.*;
+import com.conquerquest.backend.core.ecs.GameComponent;
 import com.conquerquest.backend.core.ecs.GameSystem;
+import com.conquerquest.backend.core.ecs.SystemAccess;
+import com.conquerquest.backend.core.engine.ParallelFor;
 import com.conquerquest.backend.core.services.WorldMapService;
+import com.conquerquest.backend.core.spatial.SpatialHashGrid;
+import com.conquerquest.backend.core.state.Archetype;
+import com.conquerquest.backend.core.state.EntityQuery;
 import com.conquerquest.backend.core.state.WorldState;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import java.util.UUID;
+
+import java.util.Arrays;
 
 @Service
-@RequiredArgsConstructor
 public class PhysicsSystem implements GameSystem {
 
     private final WorldMapService worldMap;
+    private final ParallelFor parallelFor;
+    private final boolean playerSeparation;
+
+    // every entity with a position and a hitbox, kept up to date as they move
+    private final SpatialHashGrid grid;
+
+    // entities moved this tick, one buffer per worker; the grid isn't thread-safe
+    private final Moved[] moved;
+    private final ParallelFor.ChunkTask moveChunk = this::move;
+    private float delta;
+
+    private EntityQuery movers;
+    private EntityQuery colliders;
+    private EntityQuery players;
+
+    // separation pass state, reused to keep the query allocation-free
+    private final SpatialHashGrid.Visitor separationVisitor = this::pushApart;
+    private WorldState state;
+    private int self;
+    private float selfX, selfY, selfHalfW, selfHalfH;
+    private float pushX, pushY;
+
+    public PhysicsSystem(WorldMapService worldMap, ParallelFor parallelFor,
+            @Value("${game.physics.grid-cell-tiles:2}") int gridCellTiles,
+            @Value("${game.physics.player-separation:false}") boolean playerSeparation) {
+        this.worldMap = worldMap;
+        this.parallelFor = parallelFor;
+        this.playerSeparation = playerSeparation;
+        this.grid = new SpatialHashGrid(worldMap.getTileSize() * (float) gridCellTiles, 4096);
+        this.moved = new Moved[parallelFor.workers()];
+        for (int w = 0; w < moved.length; w++) {
+            moved[w] = new Moved();
+        }
+    }
+
+    /**
+     * entity positions as of the end of the last physics update. Loop thread only.
+     * Code that moves an entity outside of physics must update it as well.
+     */
+    public SpatialHashGrid grid() {
+        return grid;
+    }
+
+    @Override
+    public SystemAccess access() {
+        return SystemAccess.NONE.reading(VelocityComponent.class, CollisionComponent.class, PlayerTagComponent.class)
+                .writing(PositionComponent.class);
+    }
 
     @Override
     public void update(WorldState state, float delta) {
-        var entities = state.getEntitiesWith(
-                PositionComponent.class,
-                VelocityComponent.class,
-                CollisionComponent.class);
+        if (movers == null) {
+            movers = state.query(
+                    PositionComponent.class,
+                    VelocityComponent.class,
+                    CollisionComponent.class);
+            colliders = state.query(PositionComponent.class, CollisionComponent.class);
+            players = state.query(
+                    PositionComponent.class,
+                    CollisionComponent.class,
+                    PlayerTagComponent.class);
+            state.onEntityRemoved(grid::remove);
+            this.state = state;
+        }
+
+        this.delta = delta;
+        parallelFor.forEach(movers, moveChunk);
+
+        for (Moved buffer : moved) {
+            for (int i = 0; i < buffer.count; i++) {
+                grid.update(buffer.entities[i], buffer.xs[i], buffer.ys[i]);
+            }
+            buffer.count = 0;
+        }
 
-        for (UUID id : entities) {
-            VelocityComponent velocity = state.getComponent(id, VelocityComponent.class);
-            PositionComponent pos = state.getComponent(id, PositionComponent.class);
+        // entities spawned since the last tick, moving or not
+        for (int a = 0; a < colliders.archetypeCount(); a++) {
+            Archetype archetype = colliders.archetype(a);
+            float[] posX = archetype.column(PositionComponent.class, PositionComponent.X);
+            float[] posY = archetype.column(PositionComponent.class, PositionComponent.Y);
 
-            if (velocity.getX() == 0 && velocity.getY() == 0)
+            for (int row = 0; row < archetype.size(); row++) {
+                int entity = archetype.entity(row);
+                if (!grid.contains(entity)) {
+                    grid.update(entity, posX[row], posY[row]);
+                }
+            }
+        }
+
+        if (playerSeparation) {
+            separatePlayers();
+        }
+    }
+
+    /**
+     * moves rows [from, to); runs on any worker, touching only its own rows
+     * and its own buffer.
+     */
+    private void move(Archetype archetype, int from, int to, int worker) {
+        float[] posX = archetype.column(PositionComponent.class, PositionComponent.X);
+        float[] posY = archetype.column(PositionComponent.class, PositionComponent.Y);
+        float[] velX = archetype.column(VelocityComponent.class, VelocityComponent.X);
+        float[] velY = archetype.column(VelocityComponent.class, VelocityComponent.Y);
+        GameComponent[] hitboxes = archetype.components(CollisionComponent.class);
+        Moved buffer = moved[worker];
+
+        for (int row = from; row < to; row++) {
+            if (velX[row] == 0 && velY[row] == 0)
                 continue;
 
-            CollisionComponent hitbox = state.getComponent(id, CollisionComponent.class);
+            CollisionComponent hitbox = (CollisionComponent) hitboxes[row];
+
+            float currentX = posX[row];
+            float currentY = posY[row];
 
-            float terrainMult = worldMap.getTerrainSpeedMultiplier(pos.getX(), pos.getY());
+            float terrainMult = worldMap.getTerrainSpeedMultiplier(currentX, currentY);
 
-            float moveX = velocity.getX() * terrainMult * delta;
-            float moveY = velocity.getY() * terrainMult * delta;
+            float moveX = velX[row] * terrainMult * delta;
+            float moveY = velY[row] * terrainMult * delta;
 
-            float currentX = pos.getX();
-            float currentY = pos.getY();
             // assuming centered anchor
             float halfW = hitbox.width() / 2f;
             float halfH = hitbox.height() / 2f;
 
-            float nextX = currentX + moveX;
+            // swept per axis, X then Y: a blocked axis stops at the contact
+            // and the other one keeps sliding, at any speed or tick rate
+            float nextX = currentX + worldMap.sweepX(currentX - halfW, currentY - halfH,
+                    hitbox.width(), hitbox.height(), moveX);
 
-            if (worldMap.checkCollision(nextX - halfW, currentY - halfH, hitbox.width(), hitbox.height())) {
-                nextX = currentX;
+            float nextY = currentY + worldMap.sweepY(nextX - halfW, currentY - halfH,
+                    hitbox.width(), hitbox.height(), moveY);
+
+            if (nextX != currentX || nextY != currentY) {
+                posX[row] = nextX;
+                posY[row] = nextY;
+                buffer.add(archetype.entity(row), nextX, nextY);
+                // TODO: deal with rotation
             }
+        }
+    }
+
+    /**
+     * pushes overlapping players apart. Each side of a pair moves half the
+     * overlap along the shallower axis, swept so nobody is pushed into a wall;
+     * crowds spread out over a few ticks rather than in one.
+     */
+    private void separatePlayers() {
+        for (int a = 0; a < players.archetypeCount(); a++) {
+            Archetype archetype = players.archetype(a);
+            float[] posX = archetype.column(PositionComponent.class, PositionComponent.X);
+            float[] posY = archetype.column(PositionComponent.class, PositionComponent.Y);
+            GameComponent[] hitboxes = archetype.components(CollisionComponent.class);
+
+            for (int row = 0; row < archetype.size(); row++) {
+                CollisionComponent hitbox = (CollisionComponent) hitboxes[row];
+                self = archetype.entity(row);
+                selfX = posX[row];
+                selfY = posY[row];
+                selfHalfW = hitbox.width() / 2f;
+                selfHalfH = hitbox.height() / 2f;
+                pushX = 0;
+                pushY = 0;
+
+                // players are assumed to be of similar size: others are looked
+                // up as far as twice our own extent
+                float reach = 2 * Math.max(selfHalfW, selfHalfH);
+                grid.queryBox(selfX - reach, selfY - reach, selfX + reach, selfY + reach, separationVisitor);
 
-            float nextY = currentY + moveY;
+                if (pushX == 0 && pushY == 0)
+                    continue;
 
-            if (worldMap.checkCollision(nextX - halfW, nextY - halfH, hitbox.width(), hitbox.height())) {
-                nextY = currentY;
+                float left = selfX - selfHalfW;
+                float top = selfY - selfHalfH;
+                float nextX = selfX + worldMap.sweepX(left, top, hitbox.width(), hitbox.height(), pushX);
+                float nextY = selfY + worldMap.sweepY(nextX - selfHalfW, top, hitbox.width(), hitbox.height(), pushY);
+
+                posX[row] = nextX;
+                posY[row] = nextY;
+                grid.update(self, nextX, nextY);
             }
+        }
+    }
 
-            if (nextX != currentX || nextY != currentY) {
-                pos.setX(nextX);
-                pos.setY(nextY);
-                // TODO: deal with rotation
+    private void pushApart(int other, float otherX, float otherY) {
+        if (other == self)
+            return;
+        CollisionComponent otherBox = state.getComponent(other, CollisionComponent.class);
+        if (otherBox == null || state.getComponent(other, PlayerTagComponent.class) == null)
+            return;
+
+        float dx = selfX - otherX;
+        float dy = selfY - otherY;
+        float overlapX = selfHalfW + otherBox.width() / 2f - Math.abs(dx);
+        float overlapY = selfHalfH + otherBox.height() / 2f - Math.abs(dy);
+        if (overlapX <= 0 || overlapY <= 0)
+            return;
+
+        // exactly stacked players split by handle, so the two sides disagree
+        if (overlapX <= overlapY) {
+            float side = dx != 0 ? Math.signum(dx) : (self < other ? -1f : 1f);
+            pushX += side * overlapX / 2f;
+        } else {
+            float side = dy != 0 ? Math.signum(dy) : (self < other ? -1f : 1f);
+            pushY += side * overlapY / 2f;
+        }
+    }
+
+    private static final class Moved {
+        int count;
+        int[] entities = new int[64];
+        float[] xs = new float[64];
+        float[] ys = new float[64];
+
+        void add(int entity, float x, float y) {
+            if (count == entities.length) {
+                entities = Arrays.copyOf(entities, count * 2);
+                xs = Arrays.copyOf(xs, count * 2);
+                ys = Arrays.copyOf(ys, count * 2);
             }
+            entities[count] = entity;
+            xs[count] = x;
+            ys[count] = y;
+            count++;
         }
     }
-}
\ No newline at end of file
+}
@@ -1,7 +1,5 @@
 package com.conquerquest.backend.core.systems;
 
-import java.util.UUID;
-
 import org.springframework.stereotype.Service;
 
 import com.conquerquest.backend.core.components.DashComponent;
@@ -9,7 +7,11 @@ import com.conquerquest.backend.core.components.InputComponent;
 import com.conquerquest.backend.core.components.InputType;
 import com.conquerquest.backend.core.components.MovementStatsComponent;
 import com.conquerquest.backend.core.components.VelocityComponent;
+import com.conquerquest.backend.core.ecs.GameComponent;
 import com.conquerquest.backend.core.ecs.GameSystem;
+import com.conquerquest.backend.core.ecs.SystemAccess;
+import com.conquerquest.backend.core.state.Archetype;
+import com.conquerquest.backend.core.state.EntityQuery;
 import com.conquerquest.backend.core.state.WorldState;
 
 import lombok.RequiredArgsConstructor;
@@ -20,25 +22,46 @@ public class PlayerControlSystem implements GameSystem {
 
     private static final float DIAGONAL_FACTOR = 0.7071f;
 
+    private EntityQuery controllables;
+
+    @Override
+    public SystemAccess access() {
+        // consuming a dash press mutates the input
+        return SystemAccess.NONE.reading(MovementStatsComponent.class)
+                .writing(InputComponent.class, DashComponent.class, VelocityComponent.class);
+    }
+
     @Override
     public void update(WorldState state, float delta) {
-        var entities = state.getEntitiesWith(
-                InputComponent.class,
-                MovementStatsComponent.class,
-                DashComponent.class);
-
-        for (UUID id : entities) {
-            InputComponent input = state.getComponent(id, InputComponent.class);
-            MovementStatsComponent stats = state.getComponent(id, MovementStatsComponent.class);
-            DashComponent dashState = state.getComponent(id, DashComponent.class);
-            // TODO: Use SurvivalComponent for stamina, etc.
-
-            updateDashTimers(dashState, stats, delta);
-            handleDashInput(dashState, input, stats);
-
-            VelocityComponent velocity = calculateVelocity(input, stats, dashState);
-            // writes velocity component for MovementSystem to process
-            state.addComponent(id, velocity);
+        if (controllables == null) {
+            controllables = state.query(
+                    InputComponent.class,
+                    MovementStatsComponent.class,
+                    DashComponent.class,
+                    VelocityComponent.class);
+        }
+
+        for (int a = 0; a < controllables.archetypeCount(); a++) {
+            Archetype archetype = controllables.archetype(a);
+
+            GameComponent[] inputs = archetype.components(InputComponent.class);
+            GameComponent[] movementStats = archetype.components(MovementStatsComponent.class);
+            GameComponent[] dashes = archetype.components(DashComponent.class);
+            GameComponent[] velocities = archetype.components(VelocityComponent.class);
+
+            for (int row = 0; row < archetype.size(); row++) {
+                InputComponent input = (InputComponent) inputs[row];
+                MovementStatsComponent stats = (MovementStatsComponent) movementStats[row];
+                DashComponent dashState = (DashComponent) dashes[row];
+                // TODO: Use SurvivalComponent for stamina, etc.
+
+                updateDashTimers(dashState, stats, delta);
+                handleDashInput(dashState, input, stats);
+
+                // writes velocity in place for MovementSystem to process
+                VelocityComponent velocity = (VelocityComponent) velocities[row];
+                applyVelocity(velocity, input, stats, dashState);
+            }
         }
     }
 
@@ -90,18 +113,20 @@ public class PlayerControlSystem implements GameSystem {
         }
     }
 
-    private VelocityComponent calculateVelocity(InputComponent input, MovementStatsComponent stats,
+    private void applyVelocity(VelocityComponent velocity, InputComponent input, MovementStatsComponent stats,
             DashComponent dash) {
         // Dash Movement Priority
         if (dash.isDashing()) {
-            return new VelocityComponent(
+            velocity.update(
                     dash.getDashDirX() * stats.dashSpeed(),
                     dash.getDashDirY() * stats.dashSpeed());
+            return;
         }
 
         // Standard Movement
         if (input.getX() == 0 && input.getY() == 0) {
-            return new VelocityComponent(0, 0);
+            velocity.update(0, 0);
+            return;
         }
 
         float currentSpeed = stats.baseSpeed();
@@ -118,6 +143,6 @@ public class PlayerControlSystem implements GameSystem {
             vy *= DIAGONAL_FACTOR;
         }
 
-        return new VelocityComponent(vx * currentSpeed, vy * currentSpeed);
+        velocity.update(vx * currentSpeed, vy * currentSpeed);
     }
-}
\ No newline at end of file
+}
@@ -1,12 +1,14 @@
 package com.conquerquest.backend.core.systems;
 
-import java.util.UUID;
-
 import org.springframework.stereotype.Service;
 
 import com.conquerquest.backend.core.components.SurvivalComponent;
 import com.conquerquest.backend.core.components.VitalityComponent;
+import com.conquerquest.backend.core.engine.ParallelFor;
 import com.conquerquest.backend.core.ecs.GameSystem;
+import com.conquerquest.backend.core.ecs.SystemAccess;
+import com.conquerquest.backend.core.state.Archetype;
+import com.conquerquest.backend.core.state.EntityQuery;
 import com.conquerquest.backend.core.state.WorldState;
 
 import lombok.RequiredArgsConstructor;
@@ -30,79 +32,97 @@ public class SurvivalSystem implements GameSystem {
     private static final float DEHYDRATION_DAMAGE = 1.5f;
     private static final float FREEZING_DAMAGE = 2.0f;
 
+    private final ParallelFor parallelFor;
+
+    private EntityQuery survivors;
+
+    // reused every tick, a capturing lambda would allocate
+    private final ParallelFor.ChunkTask updateChunk = this::updateChunk;
+    private float delta;
+
+    @Override
+    public SystemAccess access() {
+        return SystemAccess.NONE.writing(SurvivalComponent.class, VitalityComponent.class);
+    }
+
     @Override
     public void update(WorldState state, float delta) {
         // Fetch entities that have both Survival (stats) and Vitality (health to take
         // damage)
-        var entities = state.getEntitiesWith(
-                SurvivalComponent.class,
-                VitalityComponent.class);
+        if (survivors == null) {
+            survivors = state.query(
+                    SurvivalComponent.class,
+                    VitalityComponent.class);
+        }
+
+        // rows are independent, so large populations are split across workers
+        this.delta = delta;
+        parallelFor.forEach(survivors, updateChunk);
+    }
 
-        for (UUID id : entities) {
-            SurvivalComponent survival = state.getComponent(id, SurvivalComponent.class);
-            VitalityComponent vitality = state.getComponent(id, VitalityComponent.class);
+    private void updateChunk(Archetype archetype, int from, int to, int worker) {
+        float[] hunger = archetype.column(SurvivalComponent.class, SurvivalComponent.HUNGER);
+        float[] thirst = archetype.column(SurvivalComponent.class, SurvivalComponent.THIRST);
+        float[] temperature = archetype.column(SurvivalComponent.class, SurvivalComponent.TEMPERATURE);
+        float[] maxTemperature = archetype.column(SurvivalComponent.class, SurvivalComponent.MAX_TEMPERATURE);
+        float[] coldResistance = archetype.column(SurvivalComponent.class, SurvivalComponent.COLD_RESISTANCE);
+        float[] health = archetype.column(VitalityComponent.class, VitalityComponent.HEALTH);
 
+        for (int row = from; row < to; row++) {
             // Process individual survival aspects
-            updateHunger(survival, vitality, delta);
-            updateThirst(survival, vitality, delta);
-            updateTemperature(survival, vitality, delta);
-
+            updateHunger(hunger, health, row, delta);
+            updateThirst(thirst, health, row, delta);
+            updateTemperature(temperature, maxTemperature, coldResistance, health, row, delta);
         }
     }
 
-    private void updateHunger(SurvivalComponent survival, VitalityComponent vitality, float delta) {
-        float currentHunger = survival.getHunger();
+    private void updateHunger(float[] hunger, float[] health, int row, float delta) {
+        float currentHunger = hunger[row];
 
         if (currentHunger > 0) {
             // Decrease hunger
-            float newHunger = Math.max(0, currentHunger - (HUNGER_DECAY_PER_SEC * delta));
-            survival.setHunger(newHunger);
+            hunger[row] = Math.max(0, currentHunger - (HUNGER_DECAY_PER_SEC * delta));
         } else {
             // Apply starvation damage if hunger is 0
-            applyDamage(vitality, STARVATION_DAMAGE * delta);
+            applyDamage(health, row, STARVATION_DAMAGE * delta);
         }
     }
 
-    private void updateThirst(SurvivalComponent survival, VitalityComponent vitality, float delta) {
-        float currentThirst = survival.getThirst();
+    private void updateThirst(float[] thirst, float[] health, int row, float delta) {
+        float currentThirst = thirst[row];
 
         if (currentThirst > 0) {
             // Decrease thirst
-            float newThirst = Math.max(0, currentThirst - (THIRST_DECAY_PER_SEC * delta));
-            survival.setThirst(newThirst);
+            thirst[row] = Math.max(0, currentThirst - (THIRST_DECAY_PER_SEC * delta));
         } else {
             // Apply dehydration damage if thirst is 0
-            applyDamage(vitality, DEHYDRATION_DAMAGE * delta);
+            applyDamage(health, row, DEHYDRATION_DAMAGE * delta);
         }
     }
 
-    private void updateTemperature(SurvivalComponent survival, VitalityComponent vitality, float delta) {
-        float currentTemp = survival.getTemperature();
-        float maxTemp = survival.getMaxTemperature();
-        float resistance = survival.getColdResistance();
-
-        float heatLossRate = BASE_ENV_COOLING_RATE - resistance;
+    private void updateTemperature(float[] temperature, float[] maxTemperature, float[] coldResistance,
+            float[] health, int row, float delta) {
+        float heatLossRate = BASE_ENV_COOLING_RATE - coldResistance[row];
 
-        float newTemp = currentTemp - (heatLossRate * delta);
+        float newTemp = temperature[row] - (heatLossRate * delta);
 
         // Clamp values between 0 (Freezing Point) and MaxTemperature (Comfort Zone)
-        newTemp = Math.max(0, Math.min(newTemp, maxTemp));
+        newTemp = Math.max(0, Math.min(newTemp, maxTemperature[row]));
 
-        survival.setTemperature(newTemp);
+        temperature[row] = newTemp;
 
         // Apply Hypothermia Damage if Temperature hits 0
         if (newTemp <= 0) {
-            applyDamage(vitality, FREEZING_DAMAGE * delta);
+            applyDamage(health, row, FREEZING_DAMAGE * delta);
         }
     }
 
     /**
-     * Helper to apply damage to VitalityComponent safely.
+     * Helper to apply damage to the Vitality health column safely.
      */
-    private void applyDamage(VitalityComponent vitality, float amount) {
-        if (vitality.getHealth() > 0) {
-            float newHealth = Math.max(0, vitality.getHealth() - amount);
-            vitality.setHealth(newHealth);
+    private void applyDamage(float[] health, int row, float amount) {
+        if (health[row] > 0) {
+            health[row] = Math.max(0, health[row] - amount);
         }
     }
-}
+}
\ No newline at end of file
@@ -0,0 +1,201 @@
+package com.conquerquest.backend.core.world;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Chunks kept in memory, at most maxChunks of them (modified chunks whose
+ * source can't persist changes don't count and are never dropped).
+ * Each lookup stamps the chunk with the current generation clock; when the
+ * cache overflows, the least recently used tenth is dropped at once, so
+ * eviction cost is amortized over many inserts. Chunks around players are
+ * read every tick and stay; chunks nobody visits age out.
+ * Chunks come back identically from the source (the generator regenerates
+ * them, the world file stores them), so eviction loses nothing.
+ *
+ * Lookups come from parallel system workers as well as the loop thread. Hits
+ * take no lock: each thread remembers its own last chunk, and the recency
+ * stamp is only written when it changes. Misses (load, insert, eviction) run
+ * one at a time under the cache lock; an evicted chunk is flagged so no
+ * thread keeps using or modifying it.
+ */
+public final class ChunkCache {
+
+    private static final class Resident {
+        final long key;
+        final byte[] tiles;
+        // solidity bitmap of the tiles (see TileProperties.solidBits)
+        final long[] solid;
+        // racy on purpose: an approximate recency is enough
+        long lastUsed;
+        volatile int revision;
+        // changed and not persisted by the source: can't be evicted (guarded by the resident)
+        boolean pinned;
+        // dropped from the cache: lookups must go through the map again
+        volatile boolean evicted;
+
+        Resident(long key, byte[] tiles, int revision, long lastUsed) {
+            this.key = key;
+            this.tiles = tiles;
+            this.solid = TileProperties.solidBits(tiles);
+            this.revision = revision;
+            this.lastUsed = lastUsed;
+        }
+    }
+
+    private final ChunkSource source;
+    private final int maxChunks;
+
+    private final Map<Long, Resident> chunks = new ConcurrentHashMap<>();
+    // advances on every generation; only the order matters
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicLong loaded = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+    // last chunk looked up by each thread: consecutive lookups mostly hit the same chunk
+    private final ThreadLocal<Resident[]> last = ThreadLocal.withInitial(() -> new Resident[1]);
+
+    public ChunkCache(ChunkSource source, int maxChunks) {
+        this.source = source;
+        this.maxChunks = Math.max(1, maxChunks);
+    }
+
+    /**
+     * tiles of a chunk, loaded on first use. The array must not be modified
+     * (use setTile).
+     */
+    public byte[] get(int cx, int cy) {
+        return resident(cx, cy).tiles;
+    }
+
+    /**
+     * solidity bitmap of a chunk: bit (index & 63) of word (index >> 6) is set
+     * when tile 'index' is solid. Must not be modified.
+     */
+    public long[] solidBits(int cx, int cy) {
+        return resident(cx, cy).solid;
+    }
+
+    public int revision(int cx, int cy) {
+        return resident(cx, cy).revision;
+    }
+
+    /**
+     * changes one tile (index inside the chunk) and hands the change to the source.
+     */
+    public void setTile(int cx, int cy, int index, byte type) {
+        while (true) {
+            Resident resident = resident(cx, cy);
+            synchronized (resident) {
+                if (resident.evicted)
+                    continue; // dropped since the lookup: change the reloaded copy
+                write(resident, cx, cy, index, type);
+                return;
+            }
+        }
+    }
+
+    private void write(Resident resident, int cx, int cy, int index, byte type) {
+        resident.tiles[index] = type;
+        TileProperties.updateSolidBit(resident.solid, index, type);
+        int revision = resident.revision + 1;
+        resident.revision = revision;
+        if (!source.write(cx, cy, index, type, revision)) {
+            resident.pinned = true;
+        }
+    }
+
+    private Resident resident(int cx, int cy) {
+        long key = key(cx, cy);
+        Resident[] mine = last.get();
+        Resident resident = mine[0];
+        if (resident == null || resident.key != key || resident.evicted) {
+            resident = chunks.get(key);
+            if (resident == null) {
+                resident = load(key, cx, cy);
+            }
+            mine[0] = resident;
+        }
+        // most lookups see the same stamp: skip the write, keep the line shared
+        long now = clock.get();
+        if (resident.lastUsed != now) {
+            resident.lastUsed = now;
+        }
+        return resident;
+    }
+
+    private synchronized Resident load(long key, int cx, int cy) {
+        Resident resident = chunks.get(key);
+        if (resident != null)
+            return resident; // another thread loaded it meanwhile
+
+        loaded.incrementAndGet();
+        ChunkSource.LoadedChunk chunk = source.load(cx, cy);
+        resident = new Resident(key, chunk.tiles(), chunk.revision(), clock.incrementAndGet());
+        chunks.put(key, resident);
+        if (chunks.size() > maxChunks) {
+            evict();
+        }
+        return resident;
+    }
+
+    // called with the cache lock held
+    private void evict() {
+        int excess = chunks.size() - maxChunks;
+        if (excess <= 0)
+            return;
+
+        // drop down to 90% of the limit
+        int toDrop = excess + maxChunks / 10;
+        long[] stamps = new long[chunks.size()];
+        int n = 0;
+        for (Resident resident : chunks.values()) {
+            if (n == stamps.length)
+                break;
+            if (!resident.pinned) {
+                stamps[n++] = resident.lastUsed;
+            }
+        }
+        if (n == 0)
+            return;
+        Arrays.sort(stamps, 0, n);
+        long threshold = stamps[Math.min(toDrop, n) - 1];
+
+        int dropped = 0;
+        var it = chunks.values().iterator();
+        while (it.hasNext() && dropped < toDrop) {
+            Resident resident = it.next();
+            if (resident.lastUsed > threshold)
+                continue;
+            synchronized (resident) {
+                // a concurrent setTile may have pinned it since the scan
+                if (!resident.pinned) {
+                    resident.evicted = true;
+                    it.remove();
+                    dropped++;
+                }
+            }
+        }
+        evicted.addAndGet(dropped);
+    }
+
+    public int size() {
+        return chunks.size();
+    }
+
+    /**
+     * chunks loaded from the source, including reloads after eviction.
+     */
+    public long loadedCount() {
+        return loaded.get();
+    }
+
+    public long evictedCount() {
+        return evicted.get();
+    }
+
+    private static long key(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,134 @@
+package com.conquerquest.backend.core.world;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic terrain generator: a chunk depends only on the world seed and
+ * its coordinates, so chunks can be generated in any order, thrown away and
+ * generated again identically.
+ *
+ * Tiles are packed one byte each, row by row (index = localY * CHUNK_SIZE + localX).
+ * Structures are stamped by trial placement like before, kept inside their chunk.
+ *
+ * As a ChunkSource it keeps nothing: tile changes stay in memory only.
+ */
+public final class ChunkGenerator implements ChunkSource {
+
+    public static final int CHUNK_SHIFT = 5;
+    public static final int CHUNK_SIZE = 1 << CHUNK_SHIFT; // 32 tiles
+    public static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    // bump when the output for a given seed changes, so clients drop cached chunks
+    static final int GENERATOR_VERSION = 1;
+
+    public static final byte TILE_GRASS = 0;
+    public static final byte TILE_WATER = 1;
+    public static final byte TILE_TREE = 2;
+    public static final byte TILE_ROCK = 3;
+
+    private record StructureConfig(int width, int height, int count) {
+    }
+
+    // per chunk, about the density of the old 50x50 map
+    private static final List<StructureConfig> WATER = List.of(
+            new StructureConfig(2, 2, 6),
+            new StructureConfig(4, 2, 4),
+            new StructureConfig(4, 3, 2));
+    private static final List<StructureConfig> ROCKS = List.of(
+            new StructureConfig(1, 1, 16),
+            new StructureConfig(2, 2, 6));
+    private static final List<StructureConfig> TREES = List.of(
+            new StructureConfig(1, 1, 28),
+            new StructureConfig(2, 2, 8));
+
+    private static final int MAX_ATTEMPTS = 200;
+
+    private final long seed;
+
+    public ChunkGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * identifies the terrain this generator produces; same seed, same version.
+     */
+    public long version() {
+        return mix(seed + GENERATOR_VERSION) & 0xFFFF_FFFF_FFFFL; // 48 bits, exact as a JS number
+    }
+
+    public long seed() {
+        return seed;
+    }
+
+    @Override
+    public LoadedChunk load(int cx, int cy) {
+        return new LoadedChunk(generate(cx, cy), 0);
+    }
+
+    @Override
+    public boolean write(int cx, int cy, int index, byte type, int revision) {
+        return false;
+    }
+
+    public byte[] generate(int cx, int cy) {
+        byte[] tiles = new byte[CHUNK_SIZE * CHUNK_SIZE];
+        Arrays.fill(tiles, TILE_GRASS);
+
+        SplittableRandom random = new SplittableRandom(chunkSeed(cx, cy));
+        placeStructures(tiles, random, TILE_WATER, WATER);
+        placeStructures(tiles, random, TILE_ROCK, ROCKS);
+        placeStructures(tiles, random, TILE_TREE, TREES);
+        return tiles;
+    }
+
+    private static void placeStructures(byte[] tiles, SplittableRandom random, byte type,
+            List<StructureConfig> configs) {
+        for (StructureConfig conf : configs) {
+            int placed = 0;
+            int attempts = 0;
+
+            while (placed < conf.count() && attempts < MAX_ATTEMPTS) {
+                if (tryPlaceStructure(tiles, random, type, conf.width(), conf.height())) {
+                    placed++;
+                }
+                attempts++;
+            }
+        }
+    }
+
+    private static boolean tryPlaceStructure(byte[] tiles, SplittableRandom random, byte type,
+            int width, int height) {
+        int x = random.nextInt(CHUNK_SIZE - width);
+        int y = random.nextInt(CHUNK_SIZE - height);
+
+        // Check if area is clear - only replace GRASS
+        for (int j = 0; j < height; j++) {
+            for (int i = 0; i < width; i++) {
+                if (tiles[((y + j) << CHUNK_SHIFT) + x + i] != TILE_GRASS) {
+                    return false; // Overlap detected
+                }
+            }
+        }
+
+        // Stamp the structure
+        for (int j = 0; j < height; j++) {
+            for (int i = 0; i < width; i++) {
+                tiles[((y + j) << CHUNK_SHIFT) + x + i] = type;
+            }
+        }
+        return true;
+    }
+
+    private long chunkSeed(int cx, int cy) {
+        return mix(seed ^ (cx * 0x9E3779B97F4A7C15L) ^ (cy * 0xC2B2AE3D27D4EB4FL));
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
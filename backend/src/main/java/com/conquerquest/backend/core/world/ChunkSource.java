@@ -0,0 +1,25 @@
+package com.conquerquest.backend.core.world;
+
+/**
+ * Where ChunkCache gets chunks from and sends tile changes to. Called from
+ * any thread that looks up tiles, so implementations must be thread-safe.
+ */
+public interface ChunkSource {
+
+    /**
+     * tiles of a chunk plus its revision (bumped by every tile change).
+     */
+    record LoadedChunk(byte[] tiles, int revision) {
+    }
+
+    /**
+     * the chunk's tiles, generating them if it was never generated.
+     */
+    LoadedChunk load(int cx, int cy);
+
+    /**
+     * persists one tile change. Returns false if the source can't keep it, in
+     * which case the chunk must stay in memory.
+     */
+    boolean write(int cx, int cy, int index, byte type, int revision);
+}
@@ -0,0 +1,67 @@
+package com.conquerquest.backend.core.world;
+
+import java.util.Arrays;
+
+/**
+ * Per tile type properties, indexed by the tile byte (& 0xFF), so gameplay
+ * code reads a table instead of comparing types. Unknown types, including
+ * 0xFF (outside the map), are solid and not spawnable.
+ */
+public final class TileProperties {
+
+    private static final boolean[] SOLID = new boolean[256];
+    private static final float[] SPEED = new float[256];
+    private static final boolean[] SPAWNABLE = new boolean[256];
+
+    static {
+        Arrays.fill(SOLID, true);
+        Arrays.fill(SPEED, 1.0f);
+
+        define(ChunkGenerator.TILE_GRASS, false, 1.0f, true);
+        define(ChunkGenerator.TILE_WATER, false, 0.5f, false); // water slows movement
+        define(ChunkGenerator.TILE_TREE, true, 1.0f, false);
+        define(ChunkGenerator.TILE_ROCK, true, 1.0f, false);
+    }
+
+    private TileProperties() {
+    }
+
+    private static void define(byte type, boolean solid, float speed, boolean spawnable) {
+        SOLID[type & 0xFF] = solid;
+        SPEED[type & 0xFF] = speed;
+        SPAWNABLE[type & 0xFF] = spawnable;
+    }
+
+    public static boolean isSolid(int type) {
+        return SOLID[type & 0xFF];
+    }
+
+    public static float speed(int type) {
+        return SPEED[type & 0xFF];
+    }
+
+    public static boolean isSpawnable(int type) {
+        return SPAWNABLE[type & 0xFF];
+    }
+
+    /**
+     * one bit per tile of a chunk, set when solid: 16 longs, two rows each.
+     */
+    static long[] solidBits(byte[] tiles) {
+        long[] bits = new long[tiles.length >> 6];
+        for (int i = 0; i < tiles.length; i++) {
+            if (SOLID[tiles[i] & 0xFF]) {
+                bits[i >> 6] |= 1L << (i & 63);
+            }
+        }
+        return bits;
+    }
+
+    static void updateSolidBit(long[] bits, int index, byte type) {
+        if (SOLID[type & 0xFF]) {
+            bits[index >> 6] |= 1L << (index & 63);
+        } else {
+            bits[index >> 6] &= ~(1L << (index & 63));
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.conquerquest.backend.core.world;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * World stored in one memory-mapped file, so a restart reopens the same world
+ * without generating anything and tile changes survive.
+ *
+ * Layout:
+ * <pre>
+ *   0  magic "CQWM"        int
+ *   4  format version      int
+ *   8  seed                long
+ *  16  generator version   int
+ *  20  width in chunks     int
+ *  24  height in chunks    int
+ *  28  chunk size          int
+ *  64  chunk table         int revision per chunk, row by row; 0 = never generated
+ *  tiles (4 KB aligned)    CHUNK_SIZE^2 bytes per chunk, same order, same layout as ChunkGenerator
+ * </pre>
+ * Chunks are generated into the file the first time they are read. Writes are
+ * plain memory writes; the OS writes pages back, sync() forces them to disk.
+ * The OS may write pages back in any order, so a generated chunk's tiles are
+ * forced to disk before its table entry is set: after a crash the table never
+ * points at tiles that didn't make it, and a chunk is at worst generated again.
+ * That force is an msync, too slow for the tick threads that generate chunks,
+ * so load() only queues the chunk; publish(), called off the loop, forces the
+ * queued tiles and then sets their entries. Until then the chunk's revision
+ * lives in memory. Tile edits need no such ordering, a crash loses them or
+ * leaves an older tile.
+ */
+@Slf4j
+public final class WorldFile implements ChunkSource, AutoCloseable {
+
+    private static final int MAGIC = 0x4357_514D; // "CQWM"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int PAGE = 4096;
+    private static final int CHUNK_BYTES = ChunkGenerator.CHUNK_SIZE * ChunkGenerator.CHUNK_SIZE;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer map;
+    private final ChunkGenerator generator;
+    private final int widthChunks;
+    private final int heightChunks;
+    private final long tilesOffset;
+
+    // revision of generated chunks whose table entry isn't set yet, 0 = none
+    private final int[] unpublished;
+    // chunks waiting for publish(), in generation order
+    private int[] queued = new int[16];
+    private int queuedCount;
+
+    private WorldFile(FileChannel channel, MappedByteBuffer map, long seed, int widthChunks, int heightChunks) {
+        this.channel = channel;
+        this.map = map;
+        this.generator = new ChunkGenerator(seed);
+        this.widthChunks = widthChunks;
+        this.heightChunks = heightChunks;
+        this.tilesOffset = tilesOffset(widthChunks, heightChunks);
+        this.unpublished = new int[widthChunks * heightChunks];
+    }
+
+    /**
+     * opens the world at 'path', or creates it from the given seed and size.
+     * An existing file keeps its own seed and size.
+     */
+    public static WorldFile openOrCreate(Path path, long seed, int widthChunks, int heightChunks) {
+        try {
+            if (Files.exists(path) && Files.size(path) > 0) {
+                return open(path, seed, widthChunks, heightChunks);
+            }
+            return create(path, seed, widthChunks, heightChunks);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open world file " + path, e);
+        }
+    }
+
+    private static WorldFile open(Path path, long seed, int widthChunks, int heightChunks) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        channel.read(header, 0);
+        header.flip();
+
+        if (header.remaining() < HEADER_BYTES || header.getInt(0) != MAGIC) {
+            channel.close();
+            throw new IOException("not a world file");
+        }
+        if (header.getInt(4) != FORMAT_VERSION || header.getInt(28) != ChunkGenerator.CHUNK_SIZE) {
+            channel.close();
+            throw new IOException("unsupported world file format " + header.getInt(4));
+        }
+
+        long fileSeed = header.getLong(8);
+        int fileWidth = header.getInt(20);
+        int fileHeight = header.getInt(24);
+        if (fileSeed != seed || fileWidth != widthChunks || fileHeight != heightChunks) {
+            log.warn("World file {} has seed {} and {}x{} chunks, keeping it over the configured {} and {}x{}",
+                    path, fileSeed, fileWidth, fileHeight, seed, widthChunks, heightChunks);
+        }
+        if (header.getInt(16) != ChunkGenerator.GENERATOR_VERSION) {
+            log.warn("World file {} was generated by generator v{}, new chunks will use v{}",
+                    path, header.getInt(16), ChunkGenerator.GENERATOR_VERSION);
+        }
+
+        long size = fileSize(fileWidth, fileHeight);
+        MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        return new WorldFile(channel, map, fileSeed, fileWidth, fileHeight);
+    }
+
+    private static WorldFile create(Path path, long seed, int widthChunks, int heightChunks) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        // mapping past the end grows the file; unwritten regions stay sparse
+        MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize(widthChunks, heightChunks));
+        map.putInt(0, MAGIC);
+        map.putInt(4, FORMAT_VERSION);
+        map.putLong(8, seed);
+        map.putInt(16, ChunkGenerator.GENERATOR_VERSION);
+        map.putInt(20, widthChunks);
+        map.putInt(24, heightChunks);
+        map.putInt(28, ChunkGenerator.CHUNK_SIZE);
+        map.force();
+
+        log.info("Created world file {} ({}x{} chunks, seed {})", path, widthChunks, heightChunks, seed);
+        return new WorldFile(channel, map, seed, widthChunks, heightChunks);
+    }
+
+    public long seed() {
+        return generator.seed();
+    }
+
+    public long version() {
+        return generator.version();
+    }
+
+    public int widthChunks() {
+        return widthChunks;
+    }
+
+    public int heightChunks() {
+        return heightChunks;
+    }
+
+    // load and write come from the chunk cache of any thread; buffers aren't
+    // thread-safe, so they take turns. force() only flushes pages, so sync()
+    // and publish() run it outside the monitor
+
+    @Override
+    public synchronized LoadedChunk load(int cx, int cy) {
+        int chunk = cy * widthChunks + cx;
+        int revision = unpublished[chunk] != 0 ? unpublished[chunk] : map.getInt(tableOffset(chunk));
+        int offset = chunkOffset(chunk);
+
+        byte[] tiles;
+        if (revision == 0) {
+            tiles = generator.generate(cx, cy);
+            map.put(offset, tiles);
+            revision = 1;
+            // the entry waits for publish(), after the tiles are on disk
+            unpublished[chunk] = revision;
+            if (queuedCount == queued.length) {
+                queued = Arrays.copyOf(queued, queuedCount * 2);
+            }
+            queued[queuedCount++] = chunk;
+        } else {
+            tiles = new byte[CHUNK_BYTES];
+            map.get(offset, tiles);
+        }
+        return new LoadedChunk(tiles, revision);
+    }
+
+    @Override
+    public synchronized boolean write(int cx, int cy, int index, byte type, int revision) {
+        int chunk = cy * widthChunks + cx;
+        map.put(chunkOffset(chunk) + index, type);
+        if (unpublished[chunk] != 0) {
+            unpublished[chunk] = revision;
+        } else {
+            map.putInt(tableOffset(chunk), revision);
+        }
+        return true;
+    }
+
+    /**
+     * forces the tiles of newly generated chunks to disk, then sets their
+     * table entries. Returns how many chunks it published.
+     */
+    public int publish() {
+        int[] chunks;
+        synchronized (this) {
+            chunks = Arrays.copyOf(queued, queuedCount);
+            queuedCount = 0;
+        }
+        if (chunks.length == 0)
+            return 0;
+
+        for (int chunk : chunks) {
+            map.force(chunkOffset(chunk), CHUNK_BYTES);
+        }
+        synchronized (this) {
+            for (int chunk : chunks) {
+                map.putInt(tableOffset(chunk), unpublished[chunk]);
+                unpublished[chunk] = 0;
+            }
+        }
+        return chunks.length;
+    }
+
+    /**
+     * publishes new chunks and forces written pages to disk.
+     */
+    public void sync() {
+        publish();
+        map.force();
+    }
+
+    @Override
+    public void close() {
+        sync();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Error closing world file", e);
+        }
+    }
+
+    private int chunkOffset(int chunk) {
+        return (int) (tilesOffset + (long) chunk * CHUNK_BYTES);
+    }
+
+    private static int tableOffset(int chunk) {
+        return HEADER_BYTES + chunk * Integer.BYTES;
+    }
+
+    private static long tilesOffset(int widthChunks, int heightChunks) {
+        long tableEnd = HEADER_BYTES + (long) widthChunks * heightChunks * Integer.BYTES;
+        return (tableEnd + PAGE - 1) / PAGE * PAGE;
+    }
+
+    private static long fileSize(int widthChunks, int heightChunks) throws IOException {
+        long size = tilesOffset(widthChunks, heightChunks) + (long) widthChunks * heightChunks * CHUNK_BYTES;
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("world of " + widthChunks + "x" + heightChunks + " chunks exceeds one 2 GB mapping");
+        }
+        return size;
+    }
+}
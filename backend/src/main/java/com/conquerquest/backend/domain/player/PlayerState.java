@@ -0,0 +1,43 @@
+package com.conquerquest.backend.domain.player;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Last saved in-game state of a registered player. Rows are written in
+ * batches by PlayerPersistenceService, not through this entity; JPA only
+ * owns the schema and the reads.
+ */
+@Entity
+@Table(name = "player_state")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PlayerState {
+
+    @Id
+    private UUID userId;
+
+    private float x;
+    private float y;
+
+    private float health;
+    private float maxHealth;
+    private float stamina;
+    private float maxStamina;
+
+    private float hunger;
+    private float thirst;
+    private float temperature;
+
+    // "slot:ITEM:quantity" entries separated by ';'
+    @Column(length = 1024)
+    private String inventory;
+
+    private LocalDateTime savedAt;
+}
@@ -0,0 +1,11 @@
+package com.conquerquest.backend.domain.player;
+
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface PlayerStateRepository extends JpaRepository<PlayerState, UUID> {
+
+}
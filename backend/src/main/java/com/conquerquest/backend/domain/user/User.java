@@ -10,6 +10,7 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "users")
+@EntityListeners(UserCacheInvalidator.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,25 @@
+package com.conquerquest.backend.domain.user;
+
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA listener on User: any update or delete drops the cached profile.
+ * The cache is resolved lazily, since Hibernate creates this listener while
+ * the repositories the cache depends on are still being built.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserCacheInvalidator {
+
+    private final ObjectProvider<UserProfileCache> cache;
+
+    @PostUpdate
+    @PostRemove
+    public void userChanged(User user) {
+        cache.ifAvailable(c -> c.invalidate(user.getId()));
+    }
+}
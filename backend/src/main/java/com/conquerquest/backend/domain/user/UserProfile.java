@@ -0,0 +1,14 @@
+package com.conquerquest.backend.domain.user;
+
+import java.util.UUID;
+
+/**
+ * Immutable view of the user fields the game needs at join. Cached instead of
+ * the User entity, so no one shares a mutable detached entity.
+ */
+public record UserProfile(UUID id, String username) {
+
+    public static UserProfile from(User user) {
+        return new UserProfile(user.getId(), user.getUsername());
+    }
+}
@@ -0,0 +1,40 @@
+package com.conquerquest.backend.domain.user;
+
+import com.conquerquest.backend.infra.cache.BoundedCache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Read-through cache of user profiles in front of UserRepository, so
+ * reconnects after a deploy don't each cost a query. Entries are dropped when
+ * the User row is updated or deleted (see UserCacheInvalidator).
+ * Unknown users are not cached.
+ */
+@Service
+public class UserProfileCache {
+
+    private final UserRepository userRepository;
+    private final BoundedCache<UUID, UserProfile> cache;
+
+    public UserProfileCache(UserRepository userRepository, MeterRegistry meterRegistry,
+            @Value("${game.cache.users.max-size:10000}") int maxSize,
+            @Value("${game.cache.users.ttl-seconds:600}") long ttlSeconds) {
+        this.userRepository = userRepository;
+        this.cache = new BoundedCache<>("users", maxSize, Duration.ofSeconds(ttlSeconds), meterRegistry);
+    }
+
+    public Optional<UserProfile> find(UUID userId) {
+        return Optional.ofNullable(cache.get(userId,
+                id -> userRepository.findById(id).map(UserProfile::from).orElse(null)));
+    }
+
+    public void invalidate(UUID userId) {
+        cache.invalidate(userId);
+    }
+}
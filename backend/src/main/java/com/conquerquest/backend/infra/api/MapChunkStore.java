@@ -0,0 +1,91 @@
+package com.conquerquest.backend.infra.api;
+
+import com.conquerquest.backend.core.services.WorldMapService;
+import com.conquerquest.backend.core.world.ChunkGenerator;
+import com.conquerquest.backend.infra.cache.BoundedCache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Map chunks as served over HTTP: the generator's packed bytes (one byte per
+ * tile, row by row, CHUNK_SIZE x CHUNK_SIZE) plus a gzipped copy and an ETag
+ * derived from the map version. Recently requested chunks stay encoded in a
+ * bounded cache.
+ */
+@Component
+public class MapChunkStore {
+
+    public static final int CHUNK_SIZE = ChunkGenerator.CHUNK_SIZE;
+
+    public record EncodedChunk(byte[] raw, byte[] gzip, String etag, int revision) {
+    }
+
+    private final WorldMapService worldMapService;
+    private final BoundedCache<Long, EncodedChunk> chunks;
+
+    public MapChunkStore(WorldMapService worldMapService, MeterRegistry meterRegistry,
+            @Value("${game.cache.map-chunks.max-size:512}") int maxSize) {
+        this.worldMapService = worldMapService;
+        // chunks never change for a given map version, the TTL only bounds idle memory
+        this.chunks = new BoundedCache<>("map-chunks", maxSize, Duration.ofHours(1), meterRegistry);
+    }
+
+    public int chunksX() {
+        return worldMapService.getChunksX();
+    }
+
+    public int chunksY() {
+        return worldMapService.getChunksY();
+    }
+
+    public String manifestEtag() {
+        return "\"map-" + Long.toHexString(worldMapService.getMapVersion()) + "\"";
+    }
+
+    /**
+     * the encoded chunk, or null if it lies outside the map.
+     */
+    public EncodedChunk chunk(int cx, int cy) {
+        if (cx < 0 || cy < 0 || cx >= chunksX() || cy >= chunksY())
+            return null;
+
+        int revision = worldMapService.getChunkRevision(cx, cy);
+        EncodedChunk chunk = chunks.get(key(cx, cy), k -> encode(cx, cy, revision));
+        if (chunk.revision() != revision) {
+            // tiles changed since it was encoded
+            chunk = encode(cx, cy, revision);
+            chunks.put(key(cx, cy), chunk);
+        }
+        return chunk;
+    }
+
+    private EncodedChunk encode(int cx, int cy, int revision) {
+        // copy: the live chunk may change while it's being sent
+        byte[] raw = worldMapService.getChunk(cx, cy).clone();
+        String etag = "\"" + Long.toHexString(worldMapService.getMapVersion())
+                + "-" + cx + "-" + cy + "-" + revision + "\"";
+        return new EncodedChunk(raw, gzip(raw), etag, revision);
+    }
+
+    private static byte[] gzip(byte[] raw) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(raw);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static long key(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xFFFFFFFFL);
+    }
+}
@@ -1,23 +1,87 @@
 package com.conquerquest.backend.infra.api;
 
 import com.conquerquest.backend.core.services.WorldMapService;
+import com.conquerquest.backend.infra.api.MapChunkStore.EncodedChunk;
+import com.conquerquest.backend.infra.api.dto.MapManifestDTO;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.CrossOrigin;
 
+/**
+ * Map delivery: a small manifest, then binary chunks the client fetches around
+ * its position. Chunks are encoded once (see MapChunkStore) and revalidated with
+ * ETags, so a reload costs a 304 per chunk.
+ */
 @RestController
 @RequestMapping("/api/map")
 @RequiredArgsConstructor
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = HttpHeaders.ETAG)
 public class WorldMapController {
 
     private final WorldMapService worldMapService;
+    private final MapChunkStore chunkStore;
 
-    @GetMapping
-    public ResponseEntity<int[][]> getMap() {
-        return ResponseEntity.ok(worldMapService.getMapData());
+    @GetMapping("/manifest")
+    public ResponseEntity<MapManifestDTO> getManifest(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = chunkStore.manifestEtag();
+        if (etag.equals(ifNoneMatch)) {
+            return notModified(etag);
+        }
+
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .body(new MapManifestDTO(
+                        worldMapService.getMapVersion(),
+                        worldMapService.getTileSize(),
+                        worldMapService.getWidthTiles(),
+                        worldMapService.getHeightTiles(),
+                        MapChunkStore.CHUNK_SIZE,
+                        chunkStore.chunksX(),
+                        chunkStore.chunksY()));
+    }
+
+    /**
+     * one byte per tile, CHUNK_SIZE x CHUNK_SIZE, gzipped when the client accepts it.
+     */
+    @GetMapping("/chunk/{cx}/{cy}")
+    public ResponseEntity<byte[]> getChunk(@PathVariable int cx, @PathVariable int cy,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        EncodedChunk chunk = chunkStore.chunk(cx, cy);
+        if (chunk == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (chunk.etag().equals(ifNoneMatch)) {
+            return notModified(chunk.etag());
+        }
+
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(chunk.etag())
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_OCTET_STREAM);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(chunk.gzip());
+        }
+        return response.body(chunk.raw());
+    }
+
+    private static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .build();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,11 @@
+package com.conquerquest.backend.infra.api.dto;
+
+public record MapManifestDTO(
+        long version,
+        int tileSize,
+        int widthTiles,
+        int heightTiles,
+        int chunkSize,
+        int chunksX,
+        int chunksY) {
+}
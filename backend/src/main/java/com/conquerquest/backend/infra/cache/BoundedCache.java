@@ -0,0 +1,121 @@
+package com.conquerquest.backend.infra.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Small LRU cache bounded by size and time to live, with hit/miss/eviction
+ * counters tagged with the cache name. Loads run outside the lock, so a slow
+ * loader never blocks other keys; a value loaded while its key was
+ * invalidated or put is not stored, so it can't replace a newer value.
+ */
+public final class BoundedCache<K, V> {
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+
+    private final int maxSize;
+    private final long ttlNanos;
+
+    // access order: the eldest entry is the least recently used
+    private final LinkedHashMap<K, Entry<V>> entries;
+    // bumped by every invalidation and put, see get(key, loader)
+    private long invalidations;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public BoundedCache(String name, int maxSize, Duration ttl, MeterRegistry registry) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() <= BoundedCache.this.maxSize)
+                    return false;
+                evictions.increment();
+                return true;
+            }
+        };
+
+        this.hits = counter(registry, "game.cache.hits", name, "Lookups answered from the cache");
+        this.misses = counter(registry, "game.cache.misses", name, "Lookups that went to the loader");
+        this.evictions = counter(registry, "game.cache.evictions", name, "Entries dropped to stay under max size");
+        Gauge.builder("game.cache.size", this, BoundedCache::size)
+                .description("Entries currently cached")
+                .tag("cache", name)
+                .register(registry);
+    }
+
+    /**
+     * cached value, or null if absent or expired. Counts a hit or a miss.
+     */
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null && entry.expiresAt() - System.nanoTime() > 0) {
+            hits.increment();
+            return entry.value();
+        }
+        if (entry != null) {
+            entries.remove(key);
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * cached value, or the loader's result (cached unless null).
+     */
+    public V get(K key, Function<K, V> loader) {
+        long generation;
+        synchronized (this) {
+            V cached = get(key);
+            if (cached != null)
+                return cached;
+            generation = invalidations;
+        }
+
+        V loaded = loader.apply(key);
+        if (loaded != null) {
+            synchronized (this) {
+                if (generation == invalidations) {
+                    store(key, loaded);
+                }
+            }
+        }
+        return loaded;
+    }
+
+    public synchronized void put(K key, V value) {
+        // a load already running may have read an older value
+        invalidations++;
+        store(key, value);
+    }
+
+    public synchronized void invalidate(K key) {
+        invalidations++;
+        entries.remove(key);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void store(K key, V value) {
+        entries.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+    }
+
+    private static Counter counter(MeterRegistry registry, String metric, String name, String description) {
+        return Counter.builder(metric)
+                .description(description)
+                .tag("cache", name)
+                .register(registry);
+    }
+}
@@ -0,0 +1,43 @@
+package com.conquerquest.backend.infra.metrics;
+
+import com.conquerquest.backend.infra.socket.stream.GameStreamSession;
+import com.conquerquest.backend.infra.socket.stream.GameStreamSessions;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Actuator endpoint with the outbound lag of every raw game stream session.
+ * Aggregates are in the game.stream.* metrics. Actuator is public, so no
+ * user ids here: sessions are only told apart by their websocket id.
+ * route: GET /actuator/streams
+ */
+@Component
+@Endpoint(id = "streams")
+@RequiredArgsConstructor
+public class GameStreamEndpoint {
+
+    private final GameStreamSessions sessions;
+
+    @ReadOperation
+    public List<Map<String, Object>> streams() {
+        List<Map<String, Object>> body = new ArrayList<>();
+        for (GameStreamSession session : sessions.sessions()) {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("session", session.id());
+            stats.put("lagTicks", session.lagTicks());
+            stats.put("replacedFrames", session.replacedFrames());
+            stats.put("pendingReliable", session.pendingReliable());
+            stats.put("msSinceLastState", session.millisSinceLastState());
+            body.add(stats);
+        }
+        return body;
+    }
+}
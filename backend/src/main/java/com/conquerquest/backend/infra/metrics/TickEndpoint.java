@@ -0,0 +1,68 @@
+package com.conquerquest.backend.infra.metrics;
+
+import com.conquerquest.backend.core.engine.GameLoop;
+import com.conquerquest.backend.core.engine.SnapshotPublisher;
+import com.conquerquest.backend.core.engine.TickProfiler;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Actuator endpoint with a one-page view of tick health.
+ * route: GET /actuator/tick
+ */
+@Component
+@Endpoint(id = "tick")
+@RequiredArgsConstructor
+public class TickEndpoint {
+
+    private final GameLoop gameLoop;
+    private final TickProfiler profiler;
+    private final SnapshotPublisher snapshotPublisher;
+
+    @ReadOperation
+    public Map<String, Object> tick() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("tickRate", gameLoop.getTickRate());
+        body.put("budgetMs", 1000.0 / gameLoop.getTickRate());
+        body.put("ticks", gameLoop.getTickCount());
+        body.put("overruns", gameLoop.getOverrunCount());
+        body.put("lateTicks", gameLoop.getLateTickCount());
+        body.put("droppedTicks", gameLoop.getDroppedTickCount());
+        body.put("inputQueueDepth", gameLoop.getInputQueueDepth());
+        body.put("publishedFrames", snapshotPublisher.getPublishedFrames());
+        body.put("droppedFrames", snapshotPublisher.getDroppedFrames());
+
+        Map<String, Object> phases = new LinkedHashMap<>();
+        for (TickProfiler.Phase phase : TickProfiler.Phase.values()) {
+            phases.put(phase.name().toLowerCase(), describe(profiler.timer(phase)));
+        }
+        body.put("phases", phases);
+
+        body.put("entities", profiler.entityCounts());
+
+        return body;
+    }
+
+    private Map<String, Object> describe(Timer timer) {
+        HistogramSnapshot snapshot = timer.takeSnapshot();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("count", snapshot.count());
+        stats.put("meanMs", snapshot.mean(TimeUnit.MILLISECONDS));
+        stats.put("maxMs", snapshot.max(TimeUnit.MILLISECONDS));
+        for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+            stats.put("p" + Math.round(percentile.percentile() * 100) + "Ms", percentile.value(TimeUnit.MILLISECONDS));
+        }
+        return stats;
+    }
+}
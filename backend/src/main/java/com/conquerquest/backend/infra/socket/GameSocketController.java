@@ -1,15 +1,27 @@
 package com.conquerquest.backend.infra.socket;
 
-import com.conquerquest.backend.core.components.InputComponent;
-import com.conquerquest.backend.core.components.InputType;
+import com.conquerquest.backend.core.components.PlayerTagComponent;
 import com.conquerquest.backend.core.components.PositionComponent;
 import com.conquerquest.backend.core.engine.GameLoop;
+import com.conquerquest.backend.core.engine.InputBuffer;
+import com.conquerquest.backend.core.engine.PlayerJoinService;
 import com.conquerquest.backend.core.engine.PlayerLifeCycleService;
+import com.conquerquest.backend.core.services.PlayerSave;
+import com.conquerquest.backend.core.services.SnapshotService;
+import com.conquerquest.backend.core.services.WorldMapService;
+import com.conquerquest.backend.domain.user.UserProfile;
+import com.conquerquest.backend.infra.socket.dto.AckPacketDTO;
+import com.conquerquest.backend.infra.socket.dto.AckPayloadDTO;
+import com.conquerquest.backend.infra.socket.dto.ActionPayloadDTO;
+import com.conquerquest.backend.infra.socket.dto.AttackPacketDTO;
 import com.conquerquest.backend.infra.socket.dto.JoinRequestDTO;
 import com.conquerquest.backend.infra.socket.dto.JoinResponseDTO;
+import com.conquerquest.backend.infra.socket.dto.MovePacketDTO;
 import com.conquerquest.backend.infra.socket.dto.MovePayloadDTO;
 import com.conquerquest.backend.infra.socket.dto.PacketDTO;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.conquerquest.backend.infra.socket.dto.UnknownPacketDTO;
+import com.conquerquest.backend.infra.socket.dto.UseItemPacketDTO;
+import com.conquerquest.backend.infra.socket.stream.GameStreamTokens;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -19,87 +31,84 @@ import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Controller;
 
-import java.util.Collections;
-import java.util.HashSet;
 import java.util.Map;
-import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
 
 @Controller
 @RequiredArgsConstructor
 @Slf4j
 public class GameSocketController {
 
+    // session attribute holding the entity handle bound at join
+    public static final String ENTITY_ATTRIBUTE = "entityId";
+
     private final GameLoop gameLoop;
+    private final InputBuffer inputBuffer;
     private final PlayerLifeCycleService playerService;
+    private final PlayerJoinService joinService;
+    private final SnapshotService snapshotService;
+    private final WorldMapService worldMapService;
+    private final GameStreamTokens streamTokens;
     private final SimpMessagingTemplate messagingTemplate; // For sending messages to specific users
-    private final ObjectMapper objectMapper;
 
     /**
-     * "The Router": Receives the generic packet, checks the type,
-     * and dispatches to the correct handler.
+     * "The Router": Receives the typed packet (Jackson already picked the
+     * record from its type), and dispatches to the correct handler.
+     * The entity is the one bound to this session at join, never the client's word.
      * route: /app/input
      */
     @MessageMapping("/input")
-    public void handleInput(@Payload PacketDTO packet) {
+    public void handleInput(@Payload PacketDTO packet, SimpMessageHeaderAccessor headerAccessor) {
         try {
-            if (packet.userId == null || packet.type == null)
-                return;
-
-            UUID entityId = UUID.fromString(packet.userId);
-
-            switch (packet.type) {
-                case "MOVE" -> handleMovement(entityId, packet.payload);
-                case "ATTACK" -> handleAttack(entityId, packet.payload);
-                case "USE_ITEM" -> handleItemUsage(entityId, packet.payload);
-                default -> log.warn("Unknown packet type received: {}", packet.type);
+            Map<String, Object> session = headerAccessor.getSessionAttributes();
+            Integer bound = session == null ? null : (Integer) session.get(ENTITY_ATTRIBUTE);
+            if (bound == null)
+                return; // not joined yet
+
+            int entityId = bound;
+            if (packet instanceof MovePacketDTO move) {
+                handleMovement(entityId, move.payload());
+            } else if (packet instanceof AttackPacketDTO attack) {
+                handleAttack(entityId, attack.payload());
+            } else if (packet instanceof UseItemPacketDTO useItem) {
+                handleItemUsage(entityId, useItem.payload());
+            } else if (packet instanceof AckPacketDTO ack) {
+                handleAck(entityId, ack.payload());
+            } else if (packet instanceof UnknownPacketDTO) {
+                log.warn("Unknown packet type received from {}", entityId);
             }
 
-        } catch (IllegalArgumentException e) {
-            log.error("Invalid UUID format: {}", packet.userId);
         } catch (Exception e) {
             log.error("Error processing input packet: {}", e.getMessage());
         }
     }
 
-    private void handleMovement(UUID entityId, Map<String, Object> payload) {
-        // Convert Map -> Record
-        MovePayloadDTO dto = objectMapper.convertValue(payload, MovePayloadDTO.class);
+    private void handleMovement(int entityId, MovePayloadDTO dto) {
+        if (dto == null)
+            return;
 
-        // Map Booleans to Enums
-        Set<InputType> activeActions = new HashSet<>();
-        if (dto.isDashing()) {
-            activeActions.add(InputType.DASH);
-        }
-
-        // Note: 'isSprinting' is a state, 'DASH' is an action trigger
-        InputComponent newInput = new InputComponent(
-                dto.x(),
-                dto.y(),
-                dto.facingX(),
-                dto.facingY(),
-                dto.isSprinting(),
-                activeActions,
-                0, 0);
-
-        // Schedule Update
-        gameLoop.addInputTask(() -> {
-            gameLoop.getWorldState().addComponent(entityId, newInput);
-        });
+        // Typed record into the bounded input buffer: no lambda, no component.
+        // Several MOVEs of the same tick collapse into the latest one.
+        inputBuffer.offerMove(entityId, dto.x(), dto.y(), dto.facingX(), dto.facingY(),
+                dto.isSprinting(), dto.isDashing());
     }
 
-    private void handleAttack(UUID entityId, Map<String, Object> payload) {
+    private void handleAttack(int entityId, ActionPayloadDTO payload) {
         // Future implementation
         log.info("Attack received for user {}", entityId);
     }
 
-    private void handleItemUsage(UUID entityId, Map<String, Object> payload) {
+    private void handleItemUsage(int entityId, ActionPayloadDTO payload) {
         // Future implementation
     }
 
+    // client confirms the last snapshot it applied, next ones are deltas against it
+    private void handleAck(int entityId, AckPayloadDTO payload) {
+        if (payload != null) {
+            snapshotService.acknowledge(entityId, payload.tick());
+        }
+    }
+
     /**
      * gets called when a player wants to join the game (either as guest or logged
      * in)
@@ -110,60 +119,93 @@ public class GameSocketController {
     public void handleJoin(@Payload JoinRequestDTO request, SimpMessageHeaderAccessor headerAccessor) {
         String sessionId = headerAccessor.getSessionId();
 
-        CompletableFuture<JoinResponseDTO> joinFuture = new CompletableFuture<>();
-
-        gameLoop.addInputTask(() -> {
-            try {
-                UUID entityId;
-                UUID userIdForSession;
-                String name = "Unknown";
-                if (request.isGuest()) {
-                    name = (request.guestName() == null || request.guestName().isBlank())
-                            ? "Unknown"
-                            : request.guestName();
-                    entityId = playerService.spawnGuest(name);
-
-                    var tag = gameLoop.getWorldState().getComponent(entityId,
-                            com.conquerquest.backend.core.components.PlayerTagComponent.class);
-                    userIdForSession = tag.userId();
-                } else {
-                    userIdForSession = UUID.fromString(request.userId());
-                    entityId = playerService.spawnPlayer(userIdForSession);
-                }
-
-                PositionComponent pos = gameLoop.getWorldState().getComponent(entityId, PositionComponent.class);
-
-                JoinResponseDTO response = new JoinResponseDTO(
-                        userIdForSession,
-                        entityId,
-                        name,
-                        pos.getX(),
-                        pos.getY(),
-                        true,
-                        "Welcome to ConquerQuest!");
-
-                joinFuture.complete(response);
-
-            } catch (Exception e) {
-                joinFuture.completeExceptionally(e);
-            }
-        });
-
-        // Await the result and send the response back to the client - max(500ms)
+        UUID userId;
         try {
-            JoinResponseDTO response = joinFuture.get(500, TimeUnit.MILLISECONDS);
+            userId = request.isGuest() ? null : UUID.fromString(request.userId());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            sendJoinResponse(sessionId, JoinResponseDTO.failure("Invalid user id"));
+            return;
+        }
 
-            messagingTemplate.convertAndSendToUser(
-                    sessionId,
-                    "/queue/join-response",
-                    response,
-                    createHeaders(sessionId));
+        // user lookup off the loop, spawn on the loop, reply from the join pool: nobody blocks
+        joinService.join(userId, request.isGuest(),
+                (user, saved) -> spawn(request, user, saved),
+                response -> playerService.removePlayer(response.entityId()))
+                .whenComplete((response, error) -> {
+                    if (error != null) {
+                        log.error("Error processing join request: {}", error.getMessage());
+                        sendJoinResponse(sessionId, JoinResponseDTO.failure("Could not join, try again"));
+                        return;
+                    }
+
+                    if (!bindSession(headerAccessor, response.entityId())) {
+                        return; // session closed while joining
+                    }
+                    sendJoinResponse(sessionId, response);
+                    log.info("Player joined: {}", response.entityId());
+                });
+    }
 
-            log.info("Player joined: {}", response.entityId());
+    // loop thread: spawns the player and describes it for the client
+    private JoinResponseDTO spawn(JoinRequestDTO request, UserProfile user, PlayerSave saved) {
+        int entityId;
+        String name;
+        if (user == null) {
+            name = (request.guestName() == null || request.guestName().isBlank())
+                    ? "Unknown"
+                    : request.guestName();
+            entityId = playerService.spawnGuest(name);
+        } else {
+            name = user.username();
+            entityId = playerService.spawnPlayer(user, saved);
+        }
 
-        } catch (Exception e) {
-            log.error("Timeout or Error processing join request", e);
+        PlayerTagComponent tag = gameLoop.getWorldState().getComponent(entityId, PlayerTagComponent.class);
+        PositionComponent pos = gameLoop.getWorldState().getComponent(entityId, PositionComponent.class);
+        snapshotService.registerClient(entityId, request.binarySnapshots());
+
+        return new JoinResponseDTO(
+                tag.userId(),
+                entityId,
+                name,
+                pos.getX(),
+                pos.getY(),
+                worldMapService.getWorldWidth(),
+                worldMapService.getWorldHeight(),
+                true,
+                "Welcome to ConquerQuest!",
+                streamTokens.issue(tag.userId(), entityId));
+    }
+
+    private void sendJoinResponse(String sessionId, JoinResponseDTO response) {
+        messagingTemplate.convertAndSendToUser(
+                sessionId,
+                "/queue/join-response",
+                response,
+                createHeaders(sessionId));
+    }
+
+    // inputs of this session now go to 'entityId'; a previous entity of the same session leaves.
+    // Returns false (and drops the new entity) if the session closed in the meantime.
+    private boolean bindSession(SimpMessageHeaderAccessor headerAccessor, int entityId) {
+        Map<String, Object> session = headerAccessor.getSessionAttributes();
+        if (session == null || session.containsKey(SessionEventListener.CLOSED_ATTRIBUTE)) {
+            gameLoop.addInputTask(() -> playerService.removePlayer(entityId));
+            return false;
+        }
+
+        Integer previous = (Integer) session.put(ENTITY_ATTRIBUTE, entityId);
+        if (previous != null && previous != entityId) {
+            gameLoop.addInputTask(() -> playerService.removePlayer(previous));
+        }
+
+        // disconnect may have run between the check and the put
+        if (session.containsKey(SessionEventListener.CLOSED_ATTRIBUTE)
+                && session.remove(ENTITY_ATTRIBUTE, entityId)) {
+            gameLoop.addInputTask(() -> playerService.removePlayer(entityId));
+            return false;
         }
+        return true;
     }
 
     // Helper for setting the sessionId in headers when not using full Spring
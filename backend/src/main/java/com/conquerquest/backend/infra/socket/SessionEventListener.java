@@ -0,0 +1,44 @@
+package com.conquerquest.backend.infra.socket;
+
+import com.conquerquest.backend.core.engine.GameLoop;
+import com.conquerquest.backend.core.engine.PlayerLifeCycleService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.Map;
+
+/**
+ * Removes the player bound to a STOMP session when the session ends
+ * (tab closed, network drop, heartbeat timeout), so abandoned entities
+ * don't keep costing tick time.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SessionEventListener {
+
+    // marks a closed session, so a join completing afterwards doesn't bind to it
+    public static final String CLOSED_ATTRIBUTE = "closed";
+
+    private final GameLoop gameLoop;
+    private final PlayerLifeCycleService playerService;
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        Map<String, Object> session = SimpMessageHeaderAccessor.wrap(event.getMessage()).getSessionAttributes();
+        if (session == null)
+            return;
+
+        session.put(CLOSED_ATTRIBUTE, Boolean.TRUE);
+        Integer entityId = (Integer) session.remove(GameSocketController.ENTITY_ATTRIBUTE);
+        if (entityId != null) {
+            log.info("Session {} closed, removing entity {}", event.getSessionId(), entityId);
+            gameLoop.addInputTask(() -> playerService.removePlayer(entityId));
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.conquerquest.backend.infra.socket.codec;
+
+import com.conquerquest.backend.core.services.WorldMapService;
+import com.conquerquest.backend.infra.socket.dto.EntitySnapshotDTO;
+import com.conquerquest.backend.infra.socket.dto.GameStateDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encodes game state snapshots as JSON (default) or as the compact binary
+ * format clients can opt into at join. Size and encode time of both are
+ * published as game.snapshot.bytes / game.snapshot.encode, tagged by encoding.
+ *
+ * Binary layout (little endian, 'varint' = unsigned LEB128):
+ *
+ * <pre>
+ * u8      version (1)
+ * varint  tick
+ * varint  tick - baselineTick (0 = full snapshot)
+ * varint  serverTime (epoch ms)
+ * varint  entity count, then per entity: varint id, u16 x, u16 y
+ * varint  removed count, then per id: varint id
+ * </pre>
+ *
+ * Positions are quantized to 16 bits over the world bounds sent in the join
+ * response: x = round(worldX / worldWidth * 65535).
+ *
+ * Not thread-safe: the scratch buffer belongs to the broadcasting thread.
+ */
+@Component
+public class SnapshotCodec {
+
+    public static final int VERSION = 1;
+    private static final int QUANTIZATION_STEPS = 0xFFFF;
+
+    private final ObjectMapper objectMapper;
+    private final float worldWidth;
+    private final float worldHeight;
+
+    private final Timer jsonEncodeTimer;
+    private final Timer binaryEncodeTimer;
+    private final DistributionSummary jsonBytes;
+    private final DistributionSummary binaryBytes;
+
+    private byte[] buffer = new byte[1024];
+    private int length;
+
+    public SnapshotCodec(ObjectMapper objectMapper, WorldMapService worldMap, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.worldWidth = worldMap.getWorldWidth();
+        this.worldHeight = worldMap.getWorldHeight();
+
+        this.jsonEncodeTimer = encodeTimer(meterRegistry, "json");
+        this.binaryEncodeTimer = encodeTimer(meterRegistry, "binary");
+        this.jsonBytes = sizeSummary(meterRegistry, "json");
+        this.binaryBytes = sizeSummary(meterRegistry, "binary");
+    }
+
+    public MimeType contentType(boolean binary) {
+        return binary ? MimeTypeUtils.APPLICATION_OCTET_STREAM : MimeTypeUtils.APPLICATION_JSON;
+    }
+
+    public byte[] encode(GameStateDTO state, boolean binary) throws JsonProcessingException {
+        long start = System.nanoTime();
+        byte[] payload = binary ? encodeBinary(state) : objectMapper.writeValueAsBytes(state);
+        long elapsed = System.nanoTime() - start;
+
+        (binary ? binaryEncodeTimer : jsonEncodeTimer).record(elapsed, TimeUnit.NANOSECONDS);
+        (binary ? binaryBytes : jsonBytes).record(payload.length);
+        return payload;
+    }
+
+    private byte[] encodeBinary(GameStateDTO state) {
+        length = 0;
+
+        writeByte(VERSION);
+        writeVarint(state.tick());
+        writeVarint(state.baselineTick() < 0 ? 0 : state.tick() - state.baselineTick());
+        writeVarint(state.serverTime());
+
+        List<EntitySnapshotDTO> entities = state.entities();
+        writeVarint(entities.size());
+        for (int i = 0; i < entities.size(); i++) {
+            EntitySnapshotDTO entity = entities.get(i);
+            writeVarint(entity.id());
+            writeShort(quantize(entity.x(), worldWidth));
+            writeShort(quantize(entity.y(), worldHeight));
+        }
+
+        int[] removed = state.removed();
+        writeVarint(removed.length);
+        for (int id : removed) {
+            writeVarint(id);
+        }
+
+        return Arrays.copyOf(buffer, length);
+    }
+
+    private static int quantize(float value, float extent) {
+        float normalized = value / extent;
+        if (normalized <= 0)
+            return 0;
+        if (normalized >= 1)
+            return QUANTIZATION_STEPS;
+        return Math.round(normalized * QUANTIZATION_STEPS);
+    }
+
+    private void writeVarint(long value) {
+        ensure(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[length++] = (byte) value;
+    }
+
+    private void writeShort(int value) {
+        ensure(2);
+        buffer[length++] = (byte) value;
+        buffer[length++] = (byte) (value >>> 8);
+    }
+
+    private void writeByte(int value) {
+        ensure(1);
+        buffer[length++] = (byte) value;
+    }
+
+    private void ensure(int bytes) {
+        if (length + bytes > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + bytes));
+        }
+    }
+
+    private static Timer encodeTimer(MeterRegistry registry, String encoding) {
+        return Timer.builder("game.snapshot.encode")
+                .description("Time to encode one client snapshot")
+                .tag("encoding", encoding)
+                .register(registry);
+    }
+
+    private static DistributionSummary sizeSummary(MeterRegistry registry, String encoding) {
+        return DistributionSummary.builder("game.snapshot.bytes")
+                .description("Encoded size of one client snapshot")
+                .baseUnit("bytes")
+                .tag("encoding", encoding)
+                .register(registry);
+    }
+}
@@ -0,0 +1,6 @@
+package com.conquerquest.backend.infra.socket.dto;
+
+public record AckPayloadDTO(
+        long tick // last snapshot tick the client applied
+) {
+}
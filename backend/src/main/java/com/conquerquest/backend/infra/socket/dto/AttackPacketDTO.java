@@ -0,0 +1,5 @@
+package com.conquerquest.backend.infra.socket.dto;
+
+public record AttackPacketDTO(
+        ActionPayloadDTO payload) implements PacketDTO {
+}
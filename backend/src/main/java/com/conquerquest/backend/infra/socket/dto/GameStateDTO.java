@@ -2,7 +2,16 @@ package com.conquerquest.backend.infra.socket.dto;
 
 import java.util.List;
 
+/**
+ * Snapshot of the entities a player can see.
+ * baselineTick = -1: full snapshot, 'entities' is everything visible.
+ * Otherwise a delta against the snapshot 'baselineTick' the client acked:
+ * 'entities' changed or appeared, 'removed' are ids no longer visible.
+ */
 public record GameStateDTO(
         long serverTime,
-        List<EntitySnapshotDTO> entities) {
+        long tick,
+        long baselineTick,
+        List<EntitySnapshotDTO> entities,
+        int[] removed) {
 }
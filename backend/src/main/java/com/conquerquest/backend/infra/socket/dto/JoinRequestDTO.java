@@ -3,5 +3,6 @@ package com.conquerquest.backend.infra.socket.dto;
 public record JoinRequestDTO(
         String userId,
         String guestName,
-        boolean isGuest) {
+        boolean isGuest,
+        boolean binarySnapshots) { // opt-in binary gamestate (native websocket only)
 }
\ No newline at end of file
@@ -4,10 +4,17 @@ import java.util.UUID;
 
 public record JoinResponseDTO(
         UUID userId,
-        UUID entityId,
+        int entityId,
         String username,
         float spawnX,
         float spawnY,
+        float worldWidth, // bounds used to dequantize binary snapshots
+        float worldHeight,
         boolean success,
-        String message) {
+        String message,
+        String streamToken) { // single use, opens /ws-game for this player
+
+    public static JoinResponseDTO failure(String message) {
+        return new JoinResponseDTO(null, 0, null, 0, 0, 0, 0, false, message, null);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,5 @@
+package com.conquerquest.backend.infra.socket.dto;
+
+public record MovePacketDTO(
+        MovePayloadDTO payload) implements PacketDTO {
+}
@@ -1,10 +1,21 @@
 package com.conquerquest.backend.infra.socket.dto;
 
-import java.util.Map;
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
 
-public class PacketDTO {
-    public String userId;
-    public String type; // "MOVE", "ATTACK", "USE_ITEM"
-
-    public Map<String, Object> payload;
-}
\ No newline at end of file
+/**
+ * Input packet sent by the client: { type, payload }. The entity is never
+ * taken from the packet: it comes from the session, bound at join.
+ * Jackson picks the record from 'type' and binds 'payload' straight into its
+ * typed payload record, with no intermediate Map.
+ */
+@JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "type", defaultImpl = UnknownPacketDTO.class)
+@JsonSubTypes({
+        @JsonSubTypes.Type(value = MovePacketDTO.class, name = "MOVE"),
+        @JsonSubTypes.Type(value = AttackPacketDTO.class, name = "ATTACK"),
+        @JsonSubTypes.Type(value = UseItemPacketDTO.class, name = "USE_ITEM"),
+        @JsonSubTypes.Type(value = AckPacketDTO.class, name = "ACK")
+})
+public sealed interface PacketDTO
+        permits MovePacketDTO, AttackPacketDTO, UseItemPacketDTO, AckPacketDTO, UnknownPacketDTO {
+}
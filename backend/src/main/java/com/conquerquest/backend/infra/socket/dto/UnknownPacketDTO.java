@@ -0,0 +1,8 @@
+package com.conquerquest.backend.infra.socket.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+// any 'type' the server doesn't know, logged and ignored
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record UnknownPacketDTO() implements PacketDTO {
+}
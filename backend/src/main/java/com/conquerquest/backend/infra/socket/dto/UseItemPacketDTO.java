@@ -0,0 +1,5 @@
+package com.conquerquest.backend.infra.socket.dto;
+
+public record UseItemPacketDTO(
+        ActionPayloadDTO payload) implements PacketDTO {
+}
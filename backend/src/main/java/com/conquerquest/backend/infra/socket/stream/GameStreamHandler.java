@@ -0,0 +1,126 @@
+package com.conquerquest.backend.infra.socket.stream;
+
+import com.conquerquest.backend.core.engine.InputBuffer;
+import com.conquerquest.backend.core.services.SnapshotService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.UUID;
+
+/**
+ * Plain websocket endpoint for the game state stream, next to the STOMP one.
+ * A joined client connects with the single-use ?token=... of its join
+ * response (checked by GameStreamHandshake); from then on its snapshots
+ * (binary), stats and inventory ({type, data} JSON text) come through here
+ * instead of STOMP. Joining still goes through STOMP.
+ *
+ * Inbound, the client may send compact binary input frames (little endian),
+ * decoded straight from the buffer; the entity comes from the session:
+ *
+ * <pre>
+ * u8 1 (MOVE)  f32 x, f32 y, f32 facingX, f32 facingY, u8 flags (1 = sprinting, 2 = dashing)
+ * u8 2 (ACK)   i64 tick
+ * </pre>
+ *
+ * or acks as text: {"type":"ACK","tick":n}.
+ * route: /ws-game
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class GameStreamHandler extends AbstractWebSocketHandler {
+
+    // session attributes set by GameStreamHandshake from the join token
+    static final String USER_ID = "userId";
+    static final String ENTITY_ID = "entityId";
+
+    // binary input frames
+    private static final byte MOVE = 1;
+    private static final byte ACK = 2;
+    private static final int MOVE_LENGTH = 1 + 4 * 4 + 1;
+    private static final int ACK_LENGTH = 1 + 8;
+    private static final int FLAG_SPRINTING = 1;
+    private static final int FLAG_DASHING = 1 << 1;
+
+    private final GameStreamSessions sessions;
+    private final SnapshotService snapshotService;
+    private final InputBuffer inputBuffer;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        UUID userId = (UUID) session.getAttributes().get(USER_ID);
+        if (userId == null) {
+            session.close(CloseStatus.POLICY_VIOLATION.withReason("not authorized"));
+            return;
+        }
+
+        sessions.open(session, userId);
+        log.info("Game stream opened for {}", userId);
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+        Integer entityId = (Integer) session.getAttributes().get(ENTITY_ID);
+        if (entityId == null)
+            return;
+
+        try {
+            JsonNode packet = objectMapper.readTree(message.getPayload());
+            if ("ACK".equals(packet.path("type").asText())) {
+                snapshotService.acknowledge(entityId, packet.path("tick").asLong());
+            }
+        } catch (Exception e) {
+            log.error("Invalid game stream packet: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) {
+        // the entity of the join that issued the token; once it leaves, inputs for it are ignored
+        Integer entityId = (Integer) session.getAttributes().get(ENTITY_ID);
+        if (entityId == null)
+            return;
+
+        ByteBuffer frame = message.getPayload().order(ByteOrder.LITTLE_ENDIAN);
+        if (!frame.hasRemaining())
+            return;
+
+        byte type = frame.get(frame.position());
+        if (type == MOVE && frame.remaining() >= MOVE_LENGTH) {
+            int at = frame.position() + 1;
+            int flags = frame.get(at + 16);
+            inputBuffer.offerMove(entityId,
+                    frame.getFloat(at),
+                    frame.getFloat(at + 4),
+                    frame.getFloat(at + 8),
+                    frame.getFloat(at + 12),
+                    (flags & FLAG_SPRINTING) != 0,
+                    (flags & FLAG_DASHING) != 0);
+        } else if (type == ACK && frame.remaining() >= ACK_LENGTH) {
+            snapshotService.acknowledge(entityId, frame.getLong(frame.position() + 1));
+        } else {
+            log.warn("Invalid binary input frame from {} (type {}, {} bytes)", entityId, type, frame.remaining());
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        UUID userId = (UUID) session.getAttributes().get(USER_ID);
+        if (userId != null) {
+            sessions.closed(session, userId);
+            log.info("Game stream closed for {} ({})", userId, status);
+        }
+    }
+}
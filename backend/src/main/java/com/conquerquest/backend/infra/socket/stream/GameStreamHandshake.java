@@ -0,0 +1,49 @@
+package com.conquerquest.backend.infra.socket.stream;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.Map;
+
+/**
+ * Opens a raw game stream only for a valid ?token=... issued at join, and
+ * binds the session to the user of that token. Anything else is refused
+ * before the websocket upgrade.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class GameStreamHandshake implements HandshakeInterceptor {
+
+    private static final String TOKEN = "token";
+
+    private final GameStreamTokens tokens;
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+            WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        String token = UriComponentsBuilder.fromUri(request.getURI()).build().getQueryParams().getFirst(TOKEN);
+        GameStreamTokens.Grant grant = tokens.redeem(token);
+        if (grant == null) {
+            log.warn("Refused game stream from {}: missing or invalid token", request.getRemoteAddress());
+            response.setStatusCode(HttpStatus.FORBIDDEN);
+            return false;
+        }
+
+        attributes.put(GameStreamHandler.USER_ID, grant.userId());
+        attributes.put(GameStreamHandler.ENTITY_ID, grant.entityId());
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+            WebSocketHandler wsHandler, Exception exception) {
+    }
+}
@@ -0,0 +1,152 @@
+package com.conquerquest.backend.infra.socket.stream;
+
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Outbound side of one raw game stream connection.
+ * State frames are latest-wins: a new frame replaces the one still waiting, so
+ * a slow client skips ticks instead of piling them up. Reliable messages
+ * (stats, inventory) queue in order and are never dropped.
+ * At most one writer task is queued or running per session, so sends are
+ * never concurrent and a busy session costs one task, not one per frame.
+ */
+public final class GameStreamSession {
+
+    private record StateFrame(long tick, byte[] payload) {
+    }
+
+    private final WebSocketSession session;
+    private final UUID userId;
+
+    private final AtomicReference<StateFrame> pendingState = new AtomicReference<>();
+    private final Queue<TextMessage> reliable = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger reliableCount = new AtomicInteger();
+    // a writer task is queued or running for this session
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    private final AtomicLong replacedFrames = new AtomicLong();
+    private volatile long queuedTick;
+    private volatile long sentTick;
+    private volatile long lastSentNanos = System.nanoTime();
+
+    GameStreamSession(WebSocketSession session, UUID userId) {
+        this.session = session;
+        this.userId = userId;
+    }
+
+    public UUID userId() {
+        return userId;
+    }
+
+    public String id() {
+        return session.getId();
+    }
+
+    /**
+     * queues a state frame, replacing the unsent one. Returns true if a
+     * frame was replaced.
+     */
+    boolean offerState(long tick, byte[] payload) {
+        queuedTick = tick;
+        if (pendingState.getAndSet(new StateFrame(tick, payload)) != null) {
+            replacedFrames.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * queues a reliable message; returns the number waiting, including this one.
+     */
+    int offerReliable(String json) {
+        reliable.add(new TextMessage(json));
+        return reliableCount.incrementAndGet();
+    }
+
+    /**
+     * true if the caller must submit a writer task (none queued or running).
+     */
+    boolean markScheduled() {
+        return scheduled.compareAndSet(false, true);
+    }
+
+    /**
+     * writer task: sends everything queued. Returns the lag in ticks of the
+     * last state frame sent, or -1 if none was sent.
+     */
+    long flush() throws IOException {
+        long lag = -1;
+        try {
+            do {
+                TextMessage message;
+                while ((message = reliable.poll()) != null) {
+                    reliableCount.decrementAndGet();
+                    session.sendMessage(message);
+                }
+
+                StateFrame frame = pendingState.getAndSet(null);
+                if (frame != null) {
+                    session.sendMessage(new BinaryMessage(ByteBuffer.wrap(frame.payload())));
+                    lag = queuedTick - frame.tick();
+                    sentTick = frame.tick();
+                    lastSentNanos = System.nanoTime();
+                }
+
+                scheduled.set(false);
+                // something may have been queued after we drained
+            } while (hasPending() && markScheduled());
+        } catch (IOException | RuntimeException e) {
+            scheduled.set(false);
+            throw e;
+        }
+        return lag;
+    }
+
+    boolean hasPending() {
+        return pendingState.get() != null || !reliable.isEmpty();
+    }
+
+    /**
+     * time since the last state frame went out, while another one is waiting.
+     * 0 when the client is up to date.
+     */
+    long behindNanos() {
+        return pendingState.get() == null ? 0 : System.nanoTime() - lastSentNanos;
+    }
+
+    boolean isOpen() {
+        return session.isOpen();
+    }
+
+    WebSocketSession delegate() {
+        return session;
+    }
+
+    public long lagTicks() {
+        return Math.max(0, queuedTick - sentTick);
+    }
+
+    public long replacedFrames() {
+        return replacedFrames.get();
+    }
+
+    public int pendingReliable() {
+        return reliableCount.get();
+    }
+
+    public long millisSinceLastState() {
+        return (System.nanoTime() - lastSentNanos) / 1_000_000;
+    }
+}
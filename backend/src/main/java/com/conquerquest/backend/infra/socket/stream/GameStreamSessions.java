@@ -0,0 +1,189 @@
+package com.conquerquest.backend.infra.socket.stream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Open raw game stream sessions by user, and the writer pool that drains
+ * their outbound queues. Publishers only enqueue; sends happen on the pool, so
+ * a slow socket never blocks the snapshot publisher.
+ *
+ * A client is disconnected when its reliable backlog exceeds max-reliable or
+ * when it has had a state frame waiting for longer than max-lag-millis.
+ */
+@Component
+@Slf4j
+public class GameStreamSessions {
+
+    // close status for clients that can't keep up
+    static final CloseStatus TOO_SLOW = CloseStatus.SESSION_NOT_RELIABLE.withReason("client too slow");
+
+    private final ObjectMapper objectMapper;
+    private final int maxReliable;
+    private final long maxLagNanos;
+    private final ExecutorService writers;
+
+    private final Map<UUID, GameStreamSession> sessions = new ConcurrentHashMap<>();
+
+    private final Counter replacedFrames;
+    private final Counter laggingDisconnects;
+    private final Counter overflowDisconnects;
+    private final DistributionSummary sendLag;
+
+    public GameStreamSessions(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+            @Value("${game.stream.max-reliable:256}") int maxReliable,
+            @Value("${game.stream.max-lag-millis:3000}") long maxLagMillis,
+            @Value("${game.stream.writer-threads:2}") int writerThreads) {
+        this.objectMapper = objectMapper;
+        this.maxReliable = maxReliable;
+        this.maxLagNanos = TimeUnit.MILLISECONDS.toNanos(maxLagMillis);
+
+        AtomicInteger threadIds = new AtomicInteger();
+        this.writers = Executors.newFixedThreadPool(writerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "game-stream-writer-" + threadIds.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("game.stream.sessions", sessions, Map::size)
+                .description("Open raw game stream sessions")
+                .register(meterRegistry);
+        this.replacedFrames = Counter.builder("game.stream.frames.replaced")
+                .description("State frames replaced by a newer one before being sent")
+                .register(meterRegistry);
+        this.laggingDisconnects = disconnectCounter(meterRegistry, "lagging");
+        this.overflowDisconnects = disconnectCounter(meterRegistry, "overflow");
+        this.sendLag = DistributionSummary.builder("game.stream.lag")
+                .description("Ticks between the newest queued state frame and the one sent")
+                .baseUnit("ticks")
+                .register(meterRegistry);
+    }
+
+    // --- Session lifecycle (websocket threads) ---
+
+    void open(WebSocketSession session, UUID userId) {
+        GameStreamSession previous = sessions.put(userId, new GameStreamSession(session, userId));
+        if (previous != null) {
+            close(previous, CloseStatus.POLICY_VIOLATION.withReason("replaced by a new connection"));
+        }
+    }
+
+    void closed(WebSocketSession session, UUID userId) {
+        sessions.computeIfPresent(userId, (id, current) -> current.delegate() == session ? null : current);
+    }
+
+    // --- Publishers ---
+
+    public boolean isAttached(UUID userId) {
+        return sessions.containsKey(userId);
+    }
+
+    /**
+     * latest-wins state frame. Returns false if the user has no stream open.
+     */
+    public boolean sendState(UUID userId, long tick, byte[] payload) {
+        GameStreamSession stream = sessions.get(userId);
+        if (stream == null)
+            return false;
+
+        if (stream.behindNanos() > maxLagNanos) {
+            laggingDisconnects.increment();
+            log.warn("Disconnecting game stream of {}: {} ticks behind", userId, stream.lagTicks());
+            close(stream, TOO_SLOW);
+            return true;
+        }
+
+        if (stream.offerState(tick, payload)) {
+            replacedFrames.increment();
+        }
+        schedule(stream);
+        return true;
+    }
+
+    /**
+     * reliable message, sent as a {type, data} JSON text frame.
+     * Returns false if the user has no stream open.
+     */
+    public boolean sendReliable(UUID userId, String type, Object data) {
+        GameStreamSession stream = sessions.get(userId);
+        if (stream == null)
+            return false;
+
+        try {
+            String json = objectMapper.writeValueAsString(Map.of("type", type, "data", data));
+            if (stream.offerReliable(json) > maxReliable) {
+                overflowDisconnects.increment();
+                log.warn("Disconnecting game stream of {}: reliable backlog full", userId);
+                close(stream, TOO_SLOW);
+            } else {
+                schedule(stream);
+            }
+        } catch (JsonProcessingException e) {
+            log.error("Could not encode {} for {}", type, userId, e);
+        }
+        return true;
+    }
+
+    public Collection<GameStreamSession> sessions() {
+        return sessions.values();
+    }
+
+    private void schedule(GameStreamSession stream) {
+        if (!stream.markScheduled())
+            return; // the running writer will pick it up
+
+        writers.execute(() -> {
+            try {
+                long lag = stream.flush();
+                if (lag >= 0) {
+                    sendLag.record(lag);
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Game stream send failed for {}: {}", stream.userId(), e.getMessage());
+                close(stream, CloseStatus.SERVER_ERROR);
+            }
+        });
+    }
+
+    private void close(GameStreamSession stream, CloseStatus status) {
+        sessions.remove(stream.userId(), stream);
+        try {
+            stream.delegate().close(status);
+        } catch (IOException e) {
+            log.debug("Error closing game stream of {}", stream.userId(), e);
+        }
+    }
+
+    private static Counter disconnectCounter(MeterRegistry registry, String reason) {
+        return Counter.builder("game.stream.disconnects")
+                .description("Game stream sessions closed because the client fell behind")
+                .tag("reason", reason)
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writers.shutdownNow();
+    }
+}
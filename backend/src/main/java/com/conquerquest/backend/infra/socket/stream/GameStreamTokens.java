@@ -0,0 +1,67 @@
+package com.conquerquest.backend.infra.socket.stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-use tokens that open a raw game stream. One is issued with every
+ * successful join, so only the client that joined over STOMP can attach a
+ * stream to that player; the stream never trusts a user id from the client.
+ * A token is gone once redeemed or after ttl-seconds.
+ */
+@Component
+public class GameStreamTokens {
+
+    /**
+     * what a token grants: the stream of this user, driving this entity.
+     */
+    public record Grant(UUID userId, int entityId) {
+    }
+
+    private record Issued(Grant grant, long expiresAt) {
+    }
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final SecureRandom random = new SecureRandom();
+    private final Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+    private final long ttlNanos;
+
+    private final Map<String, Issued> issued = new ConcurrentHashMap<>();
+
+    public GameStreamTokens(@Value("${game.stream.token-ttl-seconds:30}") long ttlSeconds) {
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+    }
+
+    public String issue(UUID userId, int entityId) {
+        long now = System.nanoTime();
+        // tokens of clients that never connected
+        issued.values().removeIf(token -> token.expiresAt() - now <= 0);
+
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = encoder.encodeToString(bytes);
+        issued.put(token, new Issued(new Grant(userId, entityId), now + ttlNanos));
+        return token;
+    }
+
+    /**
+     * the grant of a token, or null if unknown, used or expired.
+     */
+    public Grant redeem(String token) {
+        if (token == null)
+            return null;
+
+        Issued redeemed = issued.remove(token);
+        if (redeemed == null || redeemed.expiresAt() - System.nanoTime() <= 0)
+            return null;
+        return redeemed.grant();
+    }
+}
@@ -0,0 +1,120 @@
+package com.conquerquest.backend.core.engine;
+
+import com.conquerquest.backend.core.services.SnapshotService;
+import com.conquerquest.backend.core.services.WorldMapService;
+import com.conquerquest.backend.core.state.WorldState;
+import com.conquerquest.backend.core.systems.PhysicsSystem;
+import com.conquerquest.backend.core.systems.PlayerControlSystem;
+import com.conquerquest.backend.core.systems.SurvivalSystem;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * A system throwing an Error costs its tick, not the loop; only a
+ * VirtualMachineError stops it, and then the lifecycle says so.
+ */
+class GameLoopTest {
+
+    private static final int FAILING_TICK = 3;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final WorldMapService worldMap = new WorldMapService(registry, "", 30, 200, 1337, 16, 16, 1024, 2);
+    private final ParallelFor parallelFor = new ParallelFor(1, 4096, 1024);
+    private GameLoop loop;
+
+    @AfterEach
+    void tearDown() {
+        if (loop != null) {
+            loop.stop();
+        }
+        parallelFor.shutdown();
+        worldMap.close();
+    }
+
+    @Test
+    @Timeout(value = 10, threadMode = Timeout.ThreadMode.SEPARATE_THREAD)
+    void errorInASystemOnlyCostsItsTick() throws InterruptedException {
+        FailingSurvival survival = new FailingSurvival(new AssertionError("broken invariant"));
+        loop = loop(survival);
+        loop.start();
+
+        awaitUntil(() -> survival.updates.get() > FAILING_TICK + 5);
+
+        assertThat(loop.isRunning()).isTrue();
+        // the failing tick was not counted, the ones after it were
+        assertThat(loop.getTickCount()).isGreaterThanOrEqualTo(FAILING_TICK + 4);
+    }
+
+    @Test
+    @Timeout(value = 10, threadMode = Timeout.ThreadMode.SEPARATE_THREAD)
+    void virtualMachineErrorStopsTheLoopVisibly() throws InterruptedException {
+        FailingSurvival survival = new FailingSurvival(new StackOverflowError("simulated"));
+        loop = loop(survival);
+        loop.start();
+
+        awaitUntil(() -> !loop.isRunning());
+
+        int updates = survival.updates.get();
+        TimeUnit.MILLISECONDS.sleep(100);
+        assertThat(survival.updates.get()).isEqualTo(updates);
+    }
+
+    private GameLoop loop(SurvivalSystem survival) {
+        WorldState state = new WorldState();
+        TickProfiler profiler = new TickProfiler(registry, state);
+        // never started: submit only counts a dropped frame
+        SnapshotPublisher publisher = new SnapshotPublisher(mock(SnapshotService.class), profiler, registry);
+        GameLoop gameLoop = new GameLoop(state,
+                new PhysicsSystem(worldMap, parallelFor, 2, false),
+                new PlayerControlSystem(),
+                survival,
+                publisher,
+                profiler,
+                registry,
+                new InputBuffer(64, InputBuffer.OverflowPolicy.DROP_NEWEST, 0, registry));
+        ReflectionTestUtils.setField(gameLoop, "tickRate", 200);
+        ReflectionTestUtils.setField(gameLoop, "maxCatchUpSteps", 5);
+        ReflectionTestUtils.setField(gameLoop, "spinThresholdMicros", 100L);
+        ReflectionTestUtils.setField(gameLoop, "systemThreads", 1);
+        return gameLoop;
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        while (!condition.getAsBoolean()) {
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+    }
+
+    /**
+     * throws on one tick, then behaves.
+     */
+    private class FailingSurvival extends SurvivalSystem {
+
+        private final Error error;
+        private final AtomicInteger updates = new AtomicInteger();
+
+        FailingSurvival(Error error) {
+            super(parallelFor);
+            this.error = error;
+        }
+
+        @Override
+        public void update(WorldState state, float delta) {
+            if (updates.incrementAndGet() == FAILING_TICK) {
+                throw error;
+            }
+            super.update(state, delta);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.conquerquest.backend.core.engine;
+
+import com.conquerquest.backend.core.components.CollisionComponent;
+import com.conquerquest.backend.core.components.PositionComponent;
+import com.conquerquest.backend.core.components.SurvivalComponent;
+import com.conquerquest.backend.core.components.VelocityComponent;
+import com.conquerquest.backend.core.components.VitalityComponent;
+import com.conquerquest.backend.core.services.WorldMapService;
+import com.conquerquest.backend.core.state.WorldState;
+import com.conquerquest.backend.core.systems.PhysicsSystem;
+import com.conquerquest.backend.core.systems.SurvivalSystem;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Survival and movement ticks at 10k and 100k survival entities (every tenth
+ * one also moving) with 1, 2 and 4 workers. The state after the run must not
+ * depend on the worker count. Run with mvn -Pbenchmark test; scaling only
+ * shows on a machine with as many cores as workers.
+ */
+@Tag("benchmark")
+class ParallelForBenchmarkTest {
+
+    private static final float DELTA = 1f / 30;
+    private static final int WARM_UP_TICKS = 1000;
+    private static final int TICKS = 500;
+
+    private final WorldMapService worldMap = new WorldMapService(new SimpleMeterRegistry(), "", 30, 200, 1337, 16, 16, 1024, 2);
+    // picked at random: once, so every run starts from the same state
+    private final WorldMapService.SpawnPoint spawn = worldMap.getValidSpawnPoint();
+
+    @AfterEach
+    void tearDown() {
+        worldMap.close();
+    }
+
+    @Test
+    void survivalAndMovementByWorkerCount() {
+        System.out.printf("cores %d%n", Runtime.getRuntime().availableProcessors());
+        System.out.println("survival  workers  survival/tick  physics/tick");
+        for (int entities : new int[] { 10_000, 100_000 }) {
+            float[] reference = null;
+            for (int workers : new int[] { 1, 2, 4 }) {
+                float[] result = run(entities, workers);
+                if (reference == null) {
+                    reference = result;
+                } else {
+                    assertThat(result).as("%d entities, %d workers", entities, workers).isEqualTo(reference);
+                }
+            }
+        }
+    }
+
+    private float[] run(int n, int workers) {
+        ParallelFor parallelFor = new ParallelFor(workers, 4096, 1024);
+        try {
+            WorldState state = new WorldState();
+            Random random = new Random(3);
+            int[] entities = new int[n];
+            for (int i = 0; i < n; i++) {
+                int entity = state.createEntity();
+                entities[i] = entity;
+                state.addComponent(entity, new SurvivalComponent(100f, 100f, 100f, 100f, 100f, 100f, random.nextInt(8)));
+                state.addComponent(entity, new VitalityComponent(100f, 100f, 100f, 100f));
+                if (i % 10 == 0) {
+                    state.addComponent(entity, new PositionComponent(
+                            spawn.x() + random.nextInt(4000) - 2000, spawn.y() + random.nextInt(4000) - 2000, 0));
+                    state.addComponent(entity, new VelocityComponent(random.nextInt(300) - 150, random.nextInt(300) - 150));
+                    state.addComponent(entity, new CollisionComponent(30, 30));
+                }
+            }
+
+            SurvivalSystem survival = new SurvivalSystem(parallelFor);
+            PhysicsSystem physics = new PhysicsSystem(worldMap, parallelFor, 2, false);
+            for (int tick = 0; tick < WARM_UP_TICKS; tick++) {
+                survival.update(state, DELTA);
+                physics.update(state, DELTA);
+            }
+
+            long survivalNanos = 0;
+            long physicsNanos = 0;
+            for (int tick = 0; tick < TICKS; tick++) {
+                long start = System.nanoTime();
+                survival.update(state, DELTA);
+                long middle = System.nanoTime();
+                physics.update(state, DELTA);
+                survivalNanos += middle - start;
+                physicsNanos += System.nanoTime() - middle;
+            }
+            System.out.printf("%8d  %7d  %10.0f us  %9.0f us%n",
+                    n, workers, survivalNanos / 1e3 / TICKS, physicsNanos / 1e3 / TICKS);
+
+            float[] result = new float[n * 3];
+            for (int i = 0; i < n; i++) {
+                result[i * 3] = state.getComponent(entities[i], VitalityComponent.class).getHealth();
+                PositionComponent position = state.getComponent(entities[i], PositionComponent.class);
+                if (position != null) {
+                    result[i * 3 + 1] = position.getX();
+                    result[i * 3 + 2] = position.getY();
+                }
+            }
+            assertThat(physics.grid().size()).isEqualTo(n / 10);
+            return result;
+        } finally {
+            parallelFor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.conquerquest.backend.core.engine;
+
+import com.conquerquest.backend.core.services.PlayerPersistenceService;
+import com.conquerquest.backend.core.state.WorldState;
+import com.conquerquest.backend.domain.player.PlayerStateRepository;
+import com.conquerquest.backend.domain.user.User;
+import com.conquerquest.backend.domain.user.UserProfileCache;
+import com.conquerquest.backend.domain.user.UserRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * N registered users joining at once against the embedded H2 database of
+ * PlayerPersistenceServiceTest: latency percentiles and how many joins made
+ * it, with a cold and then a warm user profile cache (the users have no save,
+ * and a missing save is looked up every time). The spawn step runs on a thread
+ * draining a real InputBuffer at 60 Hz, as the loop does. Run with
+ * mvn -Pbenchmark test.
+ */
+@Tag("benchmark")
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.datasource.url=jdbc:h2:mem:joins",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver"
+})
+// joins load users on their own pool, so the test must not hold a transaction
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PlayerJoinBenchmarkTest {
+
+    private static final int[] CONCURRENT_JOINS = { 100, 400 };
+    private static final long TICK_NANOS = TimeUnit.SECONDS.toNanos(1) / 60;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlayerStateRepository playerStateRepository;
+
+    private SimpleMeterRegistry registry;
+    private WorldState state;
+    private ScheduledExecutorService loop;
+    private PlayerPersistenceService persistence;
+    private PlayerJoinService joins;
+    private UserProfileCache profiles;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        state = new WorldState();
+        InputBuffer inputs = new InputBuffer(8192, InputBuffer.OverflowPolicy.RESERVE_FOR_TASKS, 256, registry);
+        loop = Executors.newSingleThreadScheduledExecutor(runnable -> new Thread(runnable, "game-loop"));
+        loop.scheduleAtFixedRate(() -> inputs.drain(state), TICK_NANOS, TICK_NANOS, TimeUnit.NANOSECONDS);
+
+        GameLoop gameLoop = mock(GameLoop.class);
+        when(gameLoop.getWorldState()).thenReturn(state);
+        when(gameLoop.addInputTask(any())).thenAnswer(call -> inputs.offerTask(call.getArgument(0)));
+
+        persistence = new PlayerPersistenceService(jdbcTemplate, transactionTemplate, playerStateRepository, gameLoop,
+                registry, 1000, 3600, 100, 10_000, 10_000, 600);
+        profiles = new UserProfileCache(userRepository, registry, 10_000, 600);
+        joins = new PlayerJoinService(profiles, persistence, gameLoop, registry, 4, 512, 5000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        joins.shutdown();
+        persistence.shutdown();
+        loop.shutdownNow();
+        playerStateRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentJoins() {
+        System.out.println("joins  cache  succeeded       p50       p99");
+        for (int n : CONCURRENT_JOINS) {
+            List<UUID> users = register(n);
+            for (String cache : new String[] { "cold", "warm" }) {
+                Result result = joinAll(users);
+                assertThat(result.succeeded()).isEqualTo(n);
+                System.out.printf("%5d  %-5s  %9d  %6.1f ms  %6.1f ms%n", n, cache, result.succeeded(),
+                        percentile(result.latencies(), 0.5) / 1e6, percentile(result.latencies(), 0.99) / 1e6);
+            }
+        }
+    }
+
+    private record Result(int succeeded, long[] latencies) {
+    }
+
+    private Result joinAll(List<UUID> users) {
+        long[] latencies = new long[users.size()];
+        List<CompletableFuture<Integer>> joined = new ArrayList<>(users.size());
+        for (int i = 0; i < users.size(); i++) {
+            int slot = i;
+            long start = System.nanoTime();
+            joined.add(joins.join(users.get(i), false, (user, saved) -> state.createEntity(), state::removeEntity)
+                    .whenComplete((entity, error) -> latencies[slot] = System.nanoTime() - start));
+        }
+
+        int succeeded = 0;
+        for (CompletableFuture<Integer> join : joined) {
+            try {
+                join.join();
+                succeeded++;
+            } catch (RuntimeException e) {
+                // counted as a failure; latency still recorded
+            }
+        }
+        return new Result(succeeded, latencies);
+    }
+
+    private List<UUID> register(int n) {
+        List<User> users = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            String name = "bench" + UUID.randomUUID().toString().substring(0, 12);
+            users.add(User.builder()
+                    .username(name)
+                    .email(name + "@example.com")
+                    .passwordHash("x")
+                    .totalPlayTimeSeconds(0L)
+                    .highestScore(0)
+                    .build());
+        }
+        return userRepository.saveAll(users).stream().map(User::getId).toList();
+    }
+
+    private static double percentile(long[] values, double p) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+}
@@ -0,0 +1,122 @@
+package com.conquerquest.backend.core.engine;
+
+import com.conquerquest.backend.core.components.PositionComponent;
+import com.conquerquest.backend.core.components.SurvivalComponent;
+import com.conquerquest.backend.core.ecs.GameSystem;
+import com.conquerquest.backend.core.ecs.SystemAccess;
+import com.conquerquest.backend.core.state.WorldState;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * A failing system must not stall the parallel tick: the error reaches the
+ * loop thread, and the systems after it are skipped for that tick only. The
+ * loop thread ignores interrupts while it waits, so a hang can only be caught
+ * from a separate thread.
+ */
+class SystemSchedulerTest {
+
+    private final WorldState state = new WorldState();
+    private final TickProfiler profiler = new TickProfiler(new SimpleMeterRegistry(), state);
+    private SystemScheduler scheduler;
+
+    @AfterEach
+    void tearDown() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    @Timeout(value = 10, threadMode = Timeout.ThreadMode.SEPARATE_THREAD)
+    void errorInParallelTickIsRethrownAndSkipsDependents() {
+        AtomicInteger failing = new AtomicInteger();
+        AtomicInteger dependent = new AtomicInteger();
+        AtomicInteger independent = new AtomicInteger();
+        SystemAccess movesPositions = SystemAccess.NONE.writing(PositionComponent.class);
+        Counting failer = new Counting(failing, movesPositions) {
+            @Override
+            public void update(WorldState state, float delta) {
+                super.update(state, delta);
+                if (failing.get() > 1) {
+                    throw new StackOverflowError("boom");
+                }
+            }
+        };
+
+        scheduler = new SystemScheduler(List.of(
+                new SystemScheduler.Entry(failer, TickProfiler.Phase.PLAYER_CONTROL),
+                new SystemScheduler.Entry(new Counting(dependent, movesPositions), TickProfiler.Phase.PHYSICS),
+                new SystemScheduler.Entry(new Counting(independent, SystemAccess.NONE.writing(SurvivalComponent.class)),
+                        TickProfiler.Phase.SURVIVAL)),
+                profiler, 2);
+
+        // first tick runs sequentially, the second one on the pool
+        scheduler.run(state, 1f / 60);
+        assertThatThrownBy(() -> scheduler.run(state, 1f / 60))
+                .isInstanceOf(StackOverflowError.class)
+                .hasMessage("boom");
+
+        assertThat(failing.get()).isEqualTo(2);
+        assertThat(dependent.get()).isEqualTo(1);
+        assertThat(independent.get()).isEqualTo(2);
+    }
+
+    @Test
+    @Timeout(value = 10, threadMode = Timeout.ThreadMode.SEPARATE_THREAD)
+    void tickAfterFailureRunsEverySystem() {
+        AtomicInteger ticks = new AtomicInteger();
+        AtomicInteger dependent = new AtomicInteger();
+        Counting failer = new Counting(ticks, SystemAccess.EXCLUSIVE) {
+            @Override
+            public void update(WorldState state, float delta) {
+                super.update(state, delta);
+                if (ticks.get() == 2) {
+                    throw new IllegalStateException("once");
+                }
+            }
+        };
+
+        scheduler = new SystemScheduler(List.of(
+                new SystemScheduler.Entry(failer, TickProfiler.Phase.PLAYER_CONTROL),
+                new SystemScheduler.Entry(new Counting(dependent, SystemAccess.EXCLUSIVE), TickProfiler.Phase.PHYSICS)),
+                profiler, 2);
+
+        scheduler.run(state, 1f / 60);
+        assertThatThrownBy(() -> scheduler.run(state, 1f / 60)).isInstanceOf(IllegalStateException.class);
+        scheduler.run(state, 1f / 60);
+
+        assertThat(ticks.get()).isEqualTo(3);
+        assertThat(dependent.get()).isEqualTo(2);
+    }
+
+    private static class Counting implements GameSystem {
+
+        private final AtomicInteger updates;
+        private final SystemAccess access;
+
+        Counting(AtomicInteger updates, SystemAccess access) {
+            this.updates = updates;
+            this.access = access;
+        }
+
+        @Override
+        public void update(WorldState state, float delta) {
+            updates.incrementAndGet();
+        }
+
+        @Override
+        public SystemAccess access() {
+            return access;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.conquerquest.backend.core.engine;
+
+import com.conquerquest.backend.core.components.*;
+import com.conquerquest.backend.core.services.WorldMapService;
+import com.conquerquest.backend.core.state.WorldState;
+import com.conquerquest.backend.core.systems.PhysicsSystem;
+import com.conquerquest.backend.core.systems.PlayerControlSystem;
+import com.conquerquest.backend.core.systems.SurvivalSystem;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Steady-state ticks must not allocate: inputs offered and drained, then the
+ * systems run through the parallel scheduler and parallel loops. Allocation
+ * is measured on the loop (calling) thread with ThreadMXBean.
+ */
+class TickAllocationTest {
+
+    private static final int PLAYERS = 5000;
+    private static final int MOVING = 1000;
+    private static final float DELTA = 1f / 60;
+
+    // a few stray bytes per tick (JIT deopts, rare blocking joins) are tolerated
+    private static final long MAX_BYTES_PER_TICK = 64;
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private WorldMapService worldMap;
+    private WorldState state;
+    private InputBuffer inputs;
+    private ParallelFor parallelFor;
+    private SystemScheduler scheduler;
+    private int[] players;
+
+    @BeforeEach
+    void setUp() {
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        worldMap = new WorldMapService(registry, "", 30, 200, 1337, 16, 16, 1024, 2);
+        state = new WorldState();
+        inputs = new InputBuffer(8192, InputBuffer.OverflowPolicy.RESERVE_FOR_TASKS, 256, registry);
+
+        // forced to the parallel paths whatever the core count
+        parallelFor = new ParallelFor(2, 1024, 256);
+        scheduler = new SystemScheduler(List.of(
+                new SystemScheduler.Entry(new PlayerControlSystem(), TickProfiler.Phase.PLAYER_CONTROL),
+                new SystemScheduler.Entry(new PhysicsSystem(worldMap, parallelFor, 2, false), TickProfiler.Phase.PHYSICS),
+                new SystemScheduler.Entry(new SurvivalSystem(parallelFor), TickProfiler.Phase.SURVIVAL)),
+                new TickProfiler(registry, state), 2);
+
+        WorldMapService.SpawnPoint spawn = worldMap.getValidSpawnPoint();
+        players = new int[PLAYERS];
+        for (int i = 0; i < PLAYERS; i++) {
+            players[i] = spawnPlayer(spawn.x() + (i % 100) * 8, spawn.y() + (i / 100) * 8);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            parallelFor.shutdown();
+            worldMap.close();
+        }
+    }
+
+    @Test
+    void steadyStateTicksAllocateNothing() {
+        for (int tick = 0; tick < 2000; tick++) {
+            tick(tick);
+        }
+
+        int ticks = 500;
+        long thread = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int tick = 0; tick < ticks; tick++) {
+            tick(tick);
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+        assertThat(allocated / ticks)
+                .as("bytes allocated per tick (%d over %d ticks)", allocated, ticks)
+                .isLessThanOrEqualTo(MAX_BYTES_PER_TICK);
+    }
+
+    private void tick(int tick) {
+        // back and forth, so players stay on the same few chunks
+        float direction = (tick / 30) % 2 == 0 ? 1f : -1f;
+        for (int i = 0; i < MOVING; i++) {
+            inputs.offerMove(players[i], direction, 0f, direction, 0f, i % 2 == 0, false);
+        }
+        inputs.drain(state);
+        scheduler.run(state, DELTA);
+    }
+
+    private int spawnPlayer(float x, float y) {
+        int entity = state.createEntity();
+        state.addComponent(entity, new PlayerTagComponent(UUID.randomUUID(), "player", true));
+        state.addComponent(entity, new MovementStatsComponent(180f, 1.5f, 20f, 800f, 0.2f, 2.0f));
+        state.addComponent(entity, new DashComponent(false, 0f, 0f, 0f, 0f));
+        state.addComponent(entity, new CollisionComponent(30, 30));
+        state.addComponent(entity, new PositionComponent(x, y, 0f));
+        state.addComponent(entity, new VelocityComponent(0f, 0f));
+        state.addComponent(entity, new InputComponent());
+        state.addComponent(entity, new SurvivalComponent(100f, 100f, 100f, 100f, 100f, 100f, 1));
+        state.addComponent(entity, new VitalityComponent(100f, 100f, 100f, 100f));
+        return entity;
+    }
+}
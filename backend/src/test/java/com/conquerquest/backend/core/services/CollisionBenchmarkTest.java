@@ -0,0 +1,112 @@
+package com.conquerquest.backend.core.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Collision plus terrain lookups through the per-chunk solidity bitmaps,
+ * against the former corner-point algorithm (floor divisions and tile type
+ * comparisons through getTile). Run with mvn -Pbenchmark test.
+ */
+@Tag("benchmark")
+class CollisionBenchmarkTest {
+
+    private static final int POSITIONS = 1 << 16;
+    private static final float SIZE = 32;
+    private static final float PADDING = 5;
+
+    private static final int WARM_UP_ROUNDS = 5;
+    private static final int ROUNDS = 5;
+    private static final long ROUND_NANOS = 500_000_000L;
+
+    private final WorldMapService map = new WorldMapService(new SimpleMeterRegistry(), "", 30, 200, 1337, 16, 16, 1024, 2);
+
+    @AfterEach
+    void tearDown() {
+        map.close();
+    }
+
+    @Test
+    void bitmapsMatchAndOutrunCornerPoints() {
+        // both answer the same, edges and outside the world included
+        SplittableRandom random = new SplittableRandom(3);
+        int mismatches = 0;
+        for (int i = 0; i < 2_000_000; i++) {
+            float x = (float) random.nextDouble(-100, 16 * 32 * 64 + 100);
+            float y = (float) random.nextDouble(-100, 16 * 32 * 64 + 100);
+            if (cornersCollide(x, y) != map.checkCollision(x, y, SIZE, SIZE)
+                    || cornerSpeed(x, y) != map.getTerrainSpeedMultiplier(x, y)) {
+                mismatches++;
+            }
+        }
+        assertThat(mismatches).isZero();
+
+        // players cluster: positions within a 20x20-tile area
+        float[] xs = new float[POSITIONS];
+        float[] ys = new float[POSITIONS];
+        for (int i = 0; i < POSITIONS; i++) {
+            xs[i] = 15000 + (float) random.nextDouble(1280);
+            ys[i] = 15000 + (float) random.nextDouble(1280);
+        }
+
+        double corners = queriesPerSecond(xs, ys, false);
+        double bitmaps = queriesPerSecond(xs, ys, true);
+        System.out.printf("collision+terrain: corner points %.1f M/s, bitmaps %.1f M/s (x%.2f)%n",
+                corners / 1e6, bitmaps / 1e6, bitmaps / corners);
+    }
+
+    // best round after warm-up
+    private double queriesPerSecond(float[] xs, float[] ys, boolean bitmaps) {
+        double best = 0;
+        int sink = 0;
+        for (int round = 0; round < WARM_UP_ROUNDS + ROUNDS; round++) {
+            long start = System.nanoTime();
+            long queries = 0;
+            while (System.nanoTime() - start < ROUND_NANOS) {
+                for (int i = 0; i < POSITIONS; i++) {
+                    float x = xs[i] - SIZE / 2;
+                    float y = ys[i] - SIZE / 2;
+                    if (bitmaps) {
+                        sink += map.checkCollision(x, y, SIZE, SIZE) ? 1 : 0;
+                        sink += map.getTerrainSpeedMultiplier(xs[i], ys[i]) < 1 ? 1 : 0;
+                    } else {
+                        sink += cornersCollide(x, y) ? 1 : 0;
+                        sink += cornerSpeed(xs[i], ys[i]) < 1 ? 1 : 0;
+                    }
+                }
+                queries += POSITIONS;
+            }
+            if (round >= WARM_UP_ROUNDS) {
+                best = Math.max(best, queries / ((System.nanoTime() - start) / 1e9));
+            }
+        }
+        assertThat(sink).isNotNegative();
+        return best;
+    }
+
+    // --- the former algorithm ---
+
+    private boolean cornersCollide(float x, float y) {
+        float left = x + PADDING;
+        float right = x + SIZE - PADDING;
+        float top = y + PADDING;
+        float bottom = y + SIZE - PADDING;
+        return solidAt(left, top) || solidAt(right, top) || solidAt(left, bottom) || solidAt(right, bottom);
+    }
+
+    private boolean solidAt(float px, float py) {
+        int type = map.getTile((int) Math.floor(px / 64), (int) Math.floor(py / 64));
+        return type < 0 || type == WorldMapService.TILE_TREE || type == WorldMapService.TILE_ROCK;
+    }
+
+    private float cornerSpeed(float px, float py) {
+        int type = map.getTile((int) Math.floor(px / 64), (int) Math.floor(py / 64));
+        return type == WorldMapService.TILE_WATER ? 0.5f : 1f;
+    }
+}
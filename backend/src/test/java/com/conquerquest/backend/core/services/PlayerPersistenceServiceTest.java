@@ -0,0 +1,159 @@
+package com.conquerquest.backend.core.services;
+
+import com.conquerquest.backend.core.engine.GameLoop;
+import com.conquerquest.backend.core.state.WorldState;
+import com.conquerquest.backend.core.systems.ItemType;
+import com.conquerquest.backend.domain.player.PlayerState;
+import com.conquerquest.backend.domain.player.PlayerStateRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Write-behind path against an embedded H2 database: saves of one user
+ * coalesce, and a load while their batch is being written returns the save
+ * in flight instead of the (not yet written) row.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.datasource.url=jdbc:h2:mem:persistence",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver"
+})
+// the writer commits on its own thread, so the test must not hold a transaction
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PlayerPersistenceServiceTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PlayerStateRepository repository;
+
+    private PausingJdbcTemplate jdbcTemplate;
+    private SimpleMeterRegistry registry;
+    private PlayerPersistenceService service;
+
+    @BeforeEach
+    void setUp() {
+        GameLoop gameLoop = mock(GameLoop.class);
+        when(gameLoop.getWorldState()).thenReturn(new WorldState());
+
+        jdbcTemplate = new PausingJdbcTemplate(dataSource);
+        registry = new SimpleMeterRegistry();
+        // timers far in the future: the test flushes by hand
+        service = new PlayerPersistenceService(jdbcTemplate, transactionTemplate, repository, gameLoop, registry,
+                3_600_000, 3600, 100, 10_000, 100, 600);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.release();
+        service.shutdown();
+        repository.deleteAll();
+    }
+
+    @Test
+    void savesOfOneUserCoalesceIntoOneWrite() {
+        UUID user = UUID.randomUUID();
+        service.save(save(user, 10f, 90f));
+        service.save(save(user, 20f, 80f));
+        service.save(save(user, 30f, 70f));
+
+        service.flush();
+
+        assertThat(registry.get("game.persistence.saved").counter().count()).isEqualTo(1);
+        PlayerState row = repository.findById(user).orElseThrow();
+        assertThat(row.getX()).isEqualTo(30f);
+        assertThat(row.getHealth()).isEqualTo(70f);
+        assertThat(row.getInventory()).isEqualTo(save(user, 30f, 70f).encodeInventory());
+    }
+
+    @Test
+    void loadDuringFlushReadsTheSaveInFlight() throws Exception {
+        UUID user = UUID.randomUUID();
+        PlayerSave latest = save(user, 42f, 55f);
+        service.save(latest);
+
+        jdbcTemplate.pause();
+        CompletableFuture<Void> flush = CompletableFuture.runAsync(service::flush);
+        assertThat(jdbcTemplate.awaitPaused()).isTrue();
+
+        // out of 'pending', not committed: only 'writing' has it
+        assertThat(repository.findById(user)).isEmpty();
+        assertThat(service.load(user)).isEqualTo(latest);
+
+        jdbcTemplate.release();
+        flush.get(10, TimeUnit.SECONDS);
+
+        assertThat(repository.findById(user)).map(PlayerState::getX).contains(42f);
+        assertThat(service.load(user)).isEqualTo(latest);
+    }
+
+    private static PlayerSave save(UUID user, float x, float health) {
+        return new PlayerSave(user, x, 0f, health, 100f, 100f, 100f, 90f, 80f, 70f,
+                List.of(new PlayerSave.Slot(0, ItemType.WOOD, (int) x)));
+    }
+
+    /**
+     * holds batch writes until released, once paused.
+     */
+    private static final class PausingJdbcTemplate extends JdbcTemplate {
+
+        private volatile CountDownLatch paused = new CountDownLatch(0);
+        private final CountDownLatch entered = new CountDownLatch(1);
+
+        PausingJdbcTemplate(DataSource dataSource) {
+            super(dataSource);
+        }
+
+        void pause() {
+            paused = new CountDownLatch(1);
+        }
+
+        boolean awaitPaused() throws InterruptedException {
+            return entered.await(10, TimeUnit.SECONDS);
+        }
+
+        void release() {
+            paused.countDown();
+        }
+
+        @Override
+        public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+                ParameterizedPreparedStatementSetter<T> setter) {
+            entered.countDown();
+            try {
+                paused.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return super.batchUpdate(sql, batchArgs, batchSize, setter);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.conquerquest.backend.core.spatial;
+
+import com.conquerquest.backend.core.state.WorldState;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Incremental grid updates and 256 px radius queries at 1k, 10k and 50k
+ * entities random-walking at about 200 px/s over a 512x512-tile world,
+ * against a linear scan. Run with mvn -Pbenchmark test.
+ */
+@Tag("benchmark")
+class SpatialHashGridBenchmarkTest {
+
+    private static final float WORLD_PX = 512 * 64f;
+    private static final float CELL_PX = 128f;
+    private static final float RADIUS = 256f;
+    private static final int TICKS = 200;
+    private static final int QUERIES = 200_000;
+
+    private int hits;
+
+    @Test
+    void updatesAndRadiusQueries() {
+        System.out.println("entities  update/tick  queries/s  linear scan/s");
+        for (int entities : new int[] { 1_000, 10_000, 50_000 }) {
+            run(entities, false); // warm-up
+            run(entities, true);
+        }
+    }
+
+    private void run(int n, boolean print) {
+        Random random = new Random(1);
+        WorldState state = new WorldState();
+        SpatialHashGrid grid = new SpatialHashGrid(CELL_PX, 4096);
+        int[] entities = new int[n];
+        float[] x = new float[n];
+        float[] y = new float[n];
+        float[] vx = new float[n];
+        float[] vy = new float[n];
+        for (int i = 0; i < n; i++) {
+            entities[i] = state.createEntity();
+            x[i] = random.nextFloat() * WORLD_PX;
+            y[i] = random.nextFloat() * WORLD_PX;
+            vx[i] = (random.nextFloat() - 0.5f) * 12; // ~200 px/s at 30 Hz
+            vy[i] = (random.nextFloat() - 0.5f) * 12;
+            grid.update(entities[i], x[i], y[i]);
+        }
+        SpatialHashGrid.Visitor count = (entity, px, py) -> hits++;
+
+        long start = System.nanoTime();
+        for (int tick = 0; tick < TICKS; tick++) {
+            for (int i = 0; i < n; i++) {
+                x[i] += vx[i];
+                y[i] += vy[i];
+                grid.update(entities[i], x[i], y[i]);
+            }
+        }
+        double updateMillis = (System.nanoTime() - start) / 1e6 / TICKS;
+
+        start = System.nanoTime();
+        for (int k = 0; k < QUERIES; k++) {
+            int i = k % n;
+            grid.queryRadius(x[i], y[i], RADIUS, count);
+        }
+        double queriesPerSecond = QUERIES / ((System.nanoTime() - start) / 1e9);
+
+        int scans = Math.min(QUERIES, 400_000_000 / n);
+        int scanned = 0;
+        start = System.nanoTime();
+        for (int k = 0; k < scans; k++) {
+            scanned += linearScan(x, y, k % n);
+        }
+        double scansPerSecond = scans / ((System.nanoTime() - start) / 1e9);
+
+        // same answers as the scan
+        int mismatches = 0;
+        for (int k = 0; k < 2000; k++) {
+            int i = k * 7 % n;
+            hits = 0;
+            grid.queryRadius(x[i], y[i], RADIUS, count);
+            if (hits != linearScan(x, y, i)) {
+                mismatches++;
+            }
+        }
+        assertThat(mismatches).isZero();
+        assertThat(scanned).isPositive();
+
+        for (int i = 0; i < n; i += 2) {
+            grid.remove(entities[i]);
+        }
+        assertThat(grid.size()).isEqualTo(n / 2);
+
+        if (print) {
+            System.out.printf("%8d  %8.3f ms  %9.0f  %13.0f%n", n, updateMillis, queriesPerSecond, scansPerSecond);
+        }
+    }
+
+    private static int linearScan(float[] x, float[] y, int i) {
+        int found = 0;
+        for (int j = 0; j < x.length; j++) {
+            float dx = x[j] - x[i];
+            float dy = y[j] - y[i];
+            if (dx * dx + dy * dy <= RADIUS * RADIUS) {
+                found++;
+            }
+        }
+        return found;
+    }
+}
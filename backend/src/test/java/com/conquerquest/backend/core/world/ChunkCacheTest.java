@@ -0,0 +1,110 @@
+package com.conquerquest.backend.core.world;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Lookups from several threads on a cache far smaller than the chunks they
+ * visit, so loads and evictions race with hits and with tile edits.
+ */
+class ChunkCacheTest {
+
+    private static final int THREADS = 4;
+    private static final int LOOKUPS = 50_000;
+    private static final int SPAN = 12; // chunks per axis visited
+
+    @Test
+    @Timeout(value = 60, threadMode = Timeout.ThreadMode.SEPARATE_THREAD)
+    void concurrentLookupsSeeSourceTilesAndKeepEdits() throws InterruptedException {
+        CountingGenerator source = new CountingGenerator(1337);
+        ChunkCache cache = new ChunkCache(source, 16);
+        ChunkGenerator generator = new ChunkGenerator(1337);
+        byte[][] reference = new byte[(SPAN + 1) * SPAN][];
+        for (int i = 0; i < reference.length; i++) {
+            reference[i] = generator.generate(i % (SPAN + 1), i / (SPAN + 1));
+        }
+
+        // chunk 0,0 is edited while the others read; the generator can't persist
+        // the edit, so the chunk must stay and keep it
+        byte edited = (byte) (reference[0][0] == ChunkGenerator.TILE_ROCK
+                ? ChunkGenerator.TILE_GRASS : ChunkGenerator.TILE_ROCK);
+
+        Queue<String> mismatches = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int seed = t;
+            Thread thread = new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(seed);
+                awaitQuietly(start);
+                for (int i = 0; i < LOOKUPS; i++) {
+                    int cx = 1 + random.nextInt(SPAN);
+                    int cy = random.nextInt(SPAN);
+                    if (cache.get(cx, cy)[i & 1023] != reference[cy * (SPAN + 1) + cx][i & 1023]) {
+                        mismatches.add(cx + "," + cy);
+                    }
+                    if (seed == 0 && i % 1000 == 0) {
+                        cache.setTile(0, 0, 0, edited);
+                    }
+                }
+            }, "lookup-" + t);
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(mismatches).isEmpty();
+        assertThat(cache.get(0, 0)[0]).isEqualTo(edited);
+        assertThat(cache.revision(0, 0)).isEqualTo(LOOKUPS / 1000);
+        assertThat(cache.evictedCount()).isPositive();
+        // loads are serialized, so a chunk is never loaded twice at once
+        assertThat(source.maxConcurrentLoads.get()).isEqualTo(1);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class CountingGenerator implements ChunkSource {
+
+        private final ChunkGenerator generator;
+        private final AtomicInteger loading = new AtomicInteger();
+        final AtomicInteger maxConcurrentLoads = new AtomicInteger();
+
+        CountingGenerator(long seed) {
+            this.generator = new ChunkGenerator(seed);
+        }
+
+        @Override
+        public LoadedChunk load(int cx, int cy) {
+            maxConcurrentLoads.accumulateAndGet(loading.incrementAndGet(), Math::max);
+            try {
+                return generator.load(cx, cy);
+            } finally {
+                loading.decrementAndGet();
+            }
+        }
+
+        @Override
+        public boolean write(int cx, int cy, int index, byte type, int revision) {
+            return generator.write(cx, cy, index, type, revision);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.conquerquest.backend.core.world;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reading every chunk of a large world: from an existing world file against
+ * generating each chunk, as the world did before it was persisted. Run with
+ * mvn -Pbenchmark test.
+ */
+@Tag("benchmark")
+class WorldFileBenchmarkTest {
+
+    private static final long SEED = 1337;
+    private static final int CHUNKS = 128; // per axis, 16k chunks, 16 MB of tiles
+    private static final int ROUNDS = 3;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void openExistingAgainstGenerate() {
+        Path path = dir.resolve("world.cqw");
+        long createNanos = System.nanoTime();
+        try (WorldFile world = WorldFile.openOrCreate(path, SEED, CHUNKS, CHUNKS)) {
+            readAll(world);
+        }
+        createNanos = System.nanoTime() - createNanos;
+
+        ChunkGenerator generator = new ChunkGenerator(SEED);
+        long generate = Long.MAX_VALUE;
+        long open = Long.MAX_VALUE;
+        long generatedSum = 0;
+        long openedSum = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            generatedSum = readAll(generator);
+            generate = Math.min(generate, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            try (WorldFile world = WorldFile.openOrCreate(path, SEED, CHUNKS, CHUNKS)) {
+                openedSum = readAll(world);
+            }
+            open = Math.min(open, System.nanoTime() - start);
+        }
+        assertThat(openedSum).isEqualTo(generatedSum);
+
+        System.out.printf("%dx%d chunks: create file %d ms, generate all %d ms, open file and read all %d ms (x%.1f)%n",
+                CHUNKS, CHUNKS, createNanos / 1_000_000, generate / 1_000_000, open / 1_000_000,
+                (double) generate / open);
+    }
+
+    // sum of all tiles, so nothing is optimized away and both paths can be compared
+    private static long readAll(ChunkSource source) {
+        long sum = 0;
+        for (int cy = 0; cy < CHUNKS; cy++) {
+            for (int cx = 0; cx < CHUNKS; cx++) {
+                for (byte tile : source.load(cx, cy).tiles()) {
+                    sum += tile;
+                }
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,71 @@
+package com.conquerquest.backend.core.world;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A generated chunk enters the chunk table only once publish() has forced its
+ * tiles; until then its revision and edits live in memory.
+ */
+class WorldFileTest {
+
+    private static final int TABLE = 64;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void generatedChunkIsEnteredOnlyWhenPublished() throws IOException {
+        Path path = dir.resolve("world.cqw");
+        try (WorldFile world = WorldFile.openOrCreate(path, 1337, 4, 4)) {
+            assertThat(world.load(1, 0).revision()).isEqualTo(1);
+            assertThat(tableEntry(path, 1)).isZero();
+
+            assertThat(world.publish()).isEqualTo(1);
+            assertThat(tableEntry(path, 1)).isEqualTo(1);
+            assertThat(world.publish()).isZero();
+        }
+    }
+
+    @Test
+    void editsOfUnpublishedChunkSurviveReloadAndReopen() throws IOException {
+        Path path = dir.resolve("world.cqw");
+        byte edited;
+        try (WorldFile world = WorldFile.openOrCreate(path, 1337, 4, 4)) {
+            byte[] tiles = world.load(2, 3).tiles();
+            edited = (byte) (tiles[5] == ChunkGenerator.TILE_ROCK ? ChunkGenerator.TILE_GRASS : ChunkGenerator.TILE_ROCK);
+            world.write(2, 3, 5, edited, 2);
+
+            // evicted and loaded again before publish: not generated over the edit
+            ChunkSource.LoadedChunk reloaded = world.load(2, 3);
+            assertThat(reloaded.revision()).isEqualTo(2);
+            assertThat(reloaded.tiles()[5]).isEqualTo(edited);
+            assertThat(tableEntry(path, 3 * 4 + 2)).isZero();
+        }
+
+        // close published it
+        try (WorldFile world = WorldFile.openOrCreate(path, 1337, 4, 4)) {
+            ChunkSource.LoadedChunk reopened = world.load(2, 3);
+            assertThat(reopened.revision()).isEqualTo(2);
+            assertThat(reopened.tiles()[5]).isEqualTo(edited);
+            assertThat(world.publish()).isZero();
+        }
+    }
+
+    // read through the file, not the mapping
+    private static int tableEntry(Path path, int chunk) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer entry = ByteBuffer.allocate(Integer.BYTES);
+            channel.read(entry, TABLE + (long) chunk * Integer.BYTES);
+            return entry.getInt(0);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.conquerquest.backend.infra.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A load that read the store before a newer value was put or invalidated must
+ * not cache what it read over it.
+ */
+class BoundedCacheTest {
+
+    private final BoundedCache<String, String> cache =
+            new BoundedCache<>("test", 16, Duration.ofMinutes(1), new SimpleMeterRegistry());
+
+    @Test
+    @Timeout(value = 10, threadMode = Timeout.ThreadMode.SEPARATE_THREAD)
+    void loadStartedBeforePutKeepsThePutValue() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<String> load = CompletableFuture.supplyAsync(() -> cache.get("player", key -> {
+            loading.countDown();
+            await(release);
+            return "older save";
+        }));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // e.g. a flush caching the save it just wrote
+        cache.put("player", "newer save");
+        release.countDown();
+
+        assertThat(load.get(5, TimeUnit.SECONDS)).isEqualTo("older save");
+        assertThat(cache.get("player")).isEqualTo("newer save");
+    }
+
+    @Test
+    @Timeout(value = 10, threadMode = Timeout.ThreadMode.SEPARATE_THREAD)
+    void loadStartedBeforeInvalidateIsNotCached() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<String> load = CompletableFuture.supplyAsync(() -> cache.get("user", key -> {
+            loading.countDown();
+            await(release);
+            return "stale profile";
+        }));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+        cache.invalidate("user");
+        release.countDown();
+
+        assertThat(load.get(5, TimeUnit.SECONDS)).isEqualTo("stale profile");
+        assertThat(cache.get("user")).isNull();
+    }
+
+    @Test
+    void loadedValueIsCached() {
+        assertThat(cache.get("user", key -> "profile")).isEqualTo("profile");
+        assertThat(cache.get("user", key -> "reloaded")).isEqualTo("profile");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.conquerquest.backend.infra.socket;
+
+import com.conquerquest.backend.infra.socket.dto.MovePacketDTO;
+import com.conquerquest.backend.infra.socket.dto.MovePayloadDTO;
+import com.conquerquest.backend.infra.socket.dto.PacketDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Decoding of a STOMP MOVE body: the typed PacketDTO records against the
+ * former generic packet (Map payload plus convertValue). Run with
+ * mvn -Pbenchmark test.
+ */
+@Tag("benchmark")
+class InputDecodeBenchmarkTest {
+
+    private static final byte[] MOVE = ("{\"type\":\"MOVE\",\"payload\":{\"x\":0.7071,\"y\":-0.7071,"
+            + "\"facingX\":0.7071,\"facingY\":-0.7071,\"isSprinting\":true,\"isDashing\":false}}")
+            .getBytes(StandardCharsets.UTF_8);
+
+    private static final int WARM_UP_ROUNDS = 5;
+    private static final int ROUNDS = 5;
+    private static final long ROUND_NANOS = 500_000_000L;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // the packet shape before typed records
+    static final class GenericPacket {
+        public String type;
+        public String userId;
+        public Map<String, Object> payload;
+    }
+
+    @Test
+    void typedRecordsAgainstGenericPacket() throws Exception {
+        MovePayloadDTO typed = decodeTyped();
+        assertThat(decodeGeneric()).isEqualTo(typed);
+        assertThat(typed.isSprinting()).isTrue();
+
+        double generic = packetsPerSecond(this::decodeGeneric);
+        double typedRate = packetsPerSecond(this::decodeTyped);
+        System.out.printf("MOVE decode: generic %.0f k/s, typed %.0f k/s (x%.2f)%n",
+                generic / 1e3, typedRate / 1e3, typedRate / generic);
+    }
+
+    private MovePayloadDTO decodeTyped() throws Exception {
+        PacketDTO packet = objectMapper.readValue(MOVE, PacketDTO.class);
+        return ((MovePacketDTO) packet).payload();
+    }
+
+    private MovePayloadDTO decodeGeneric() throws Exception {
+        GenericPacket packet = objectMapper.readValue(MOVE, GenericPacket.class);
+        return "MOVE".equals(packet.type) ? objectMapper.convertValue(packet.payload, MovePayloadDTO.class) : null;
+    }
+
+    private interface Decoder {
+        MovePayloadDTO decode() throws Exception;
+    }
+
+    // best round after warm-up
+    private static double packetsPerSecond(Decoder decoder) throws Exception {
+        double best = 0;
+        int sink = 0;
+        for (int round = 0; round < WARM_UP_ROUNDS + ROUNDS; round++) {
+            long start = System.nanoTime();
+            long decoded = 0;
+            while (System.nanoTime() - start < ROUND_NANOS) {
+                for (int i = 0; i < 1000; i++) {
+                    sink += decoder.decode().isSprinting() ? 1 : 0;
+                }
+                decoded += 1000;
+            }
+            if (round >= WARM_UP_ROUNDS) {
+                best = Math.max(best, decoded / ((System.nanoTime() - start) / 1e9));
+            }
+        }
+        assertThat(sink).isPositive();
+        return best;
+    }
+}
@@ -0,0 +1,90 @@
+package com.conquerquest.backend.infra.socket.codec;
+
+import com.conquerquest.backend.core.services.WorldMapService;
+import com.conquerquest.backend.infra.socket.dto.EntitySnapshotDTO;
+import com.conquerquest.backend.infra.socket.dto.GameStateDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The same snapshots encoded as JSON and as binary: bytes and encode time per
+ * snapshot, for a full snapshot and for a typical delta. Run with
+ * mvn -Pbenchmark test.
+ */
+@Tag("benchmark")
+class SnapshotCodecBenchmarkTest {
+
+    private static final int WARM_UP_ROUNDS = 5;
+    private static final int ROUNDS = 5;
+    private static final long ROUND_NANOS = 500_000_000L;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final WorldMapService worldMap = new WorldMapService(registry, "", 30, 200, 1337, 16, 16, 1024, 2);
+    private final SnapshotCodec codec = new SnapshotCodec(new ObjectMapper(), worldMap, registry);
+
+    @AfterEach
+    void tearDown() {
+        worldMap.close();
+    }
+
+    @Test
+    void jsonAgainstBinary() throws Exception {
+        System.out.println("snapshot         encoding  bytes   ns/snapshot");
+        report("full, 200 seen", snapshot(200, -1, 0));
+        report("delta, 20 moved", snapshot(20, 1000, 5));
+    }
+
+    private void report(String name, GameStateDTO state) throws Exception {
+        int jsonBytes = codec.encode(state, false).length;
+        int binaryBytes = codec.encode(state, true).length;
+        assertThat(binaryBytes).isLessThan(jsonBytes);
+
+        System.out.printf("%-16s %-8s %6d  %12.0f%n", name, "json", jsonBytes, nanosPerSnapshot(state, false));
+        System.out.printf("%-16s %-8s %6d  %12.0f%n", name, "binary", binaryBytes, nanosPerSnapshot(state, true));
+    }
+
+    private GameStateDTO snapshot(int entities, long baselineTick, int removed) {
+        Random random = new Random(7);
+        List<EntitySnapshotDTO> seen = new ArrayList<>(entities);
+        for (int i = 0; i < entities; i++) {
+            seen.add(new EntitySnapshotDTO(random.nextInt(50_000),
+                    random.nextFloat() * worldMap.getWorldWidth(), random.nextFloat() * worldMap.getWorldHeight()));
+        }
+        int[] gone = new int[removed];
+        for (int i = 0; i < removed; i++) {
+            gone[i] = random.nextInt(50_000);
+        }
+        return new GameStateDTO(System.currentTimeMillis(), 1003, baselineTick, seen, gone);
+    }
+
+    // best round after warm-up
+    private double nanosPerSnapshot(GameStateDTO state, boolean binary) throws Exception {
+        double best = Double.MAX_VALUE;
+        long sink = 0;
+        for (int round = 0; round < WARM_UP_ROUNDS + ROUNDS; round++) {
+            long start = System.nanoTime();
+            long encoded = 0;
+            while (System.nanoTime() - start < ROUND_NANOS) {
+                for (int i = 0; i < 100; i++) {
+                    sink += codec.encode(state, binary).length;
+                }
+                encoded += 100;
+            }
+            if (round >= WARM_UP_ROUNDS) {
+                best = Math.min(best, (double) (System.nanoTime() - start) / encoded);
+            }
+        }
+        assertThat(sink).isPositive();
+        return best;
+    }
+}
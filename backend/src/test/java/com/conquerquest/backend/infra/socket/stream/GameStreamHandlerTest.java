@@ -0,0 +1,87 @@
+package com.conquerquest.backend.infra.socket.stream;
+
+import com.conquerquest.backend.core.components.InputComponent;
+import com.conquerquest.backend.core.engine.InputBuffer;
+import com.conquerquest.backend.core.services.SnapshotService;
+import com.conquerquest.backend.core.state.WorldState;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Inputs on the stream drive the entity bound at the handshake, never one
+ * looked up from a user id. The input buffer is a real one: a mocked class is
+ * instrumented for the whole test JVM, and this one is on the tick path.
+ */
+class GameStreamHandlerTest {
+
+    private final SnapshotService snapshotService = mock(SnapshotService.class);
+    private final InputBuffer inputBuffer = new InputBuffer(64, InputBuffer.OverflowPolicy.DROP_NEWEST, 0,
+            new SimpleMeterRegistry());
+    private final WorldState state = new WorldState();
+    private final GameStreamHandler handler = new GameStreamHandler(
+            mock(GameStreamSessions.class), snapshotService, inputBuffer, new ObjectMapper());
+
+    @Test
+    void moveAndAckGoToTheEntityOfTheSession() throws Exception {
+        state.createEntity();
+        int entity = state.createEntity();
+        WebSocketSession session = session(Map.of(
+                GameStreamHandler.USER_ID, UUID.randomUUID(),
+                GameStreamHandler.ENTITY_ID, entity));
+
+        ByteBuffer move = ByteBuffer.allocate(18).order(ByteOrder.LITTLE_ENDIAN);
+        move.put((byte) 1).putFloat(1).putFloat(0).putFloat(1).putFloat(0).put((byte) 1).flip();
+        handler.handleMessage(session, new BinaryMessage(move));
+        inputBuffer.drain(state);
+        InputComponent input = state.getComponent(entity, InputComponent.class);
+        assertThat(input).isNotNull();
+        assertThat(input.getX()).isEqualTo(1);
+        assertThat(input.isSprinting()).isTrue();
+
+        ByteBuffer ack = ByteBuffer.allocate(9).order(ByteOrder.LITTLE_ENDIAN);
+        ack.put((byte) 2).putLong(120).flip();
+        handler.handleMessage(session, new BinaryMessage(ack));
+        verify(snapshotService).acknowledge(entity, 120);
+
+        handler.handleMessage(session, new TextMessage("{\"type\":\"ACK\",\"tick\":121}"));
+        verify(snapshotService).acknowledge(entity, 121);
+    }
+
+    @Test
+    void sessionWithoutEntityIsIgnored() throws Exception {
+        WebSocketSession session = session(Map.of(GameStreamHandler.USER_ID, UUID.randomUUID()));
+
+        ByteBuffer move = ByteBuffer.allocate(18).order(ByteOrder.LITTLE_ENDIAN);
+        move.put((byte) 1).putFloat(1).putFloat(0).putFloat(1).putFloat(0).put((byte) 0).flip();
+        handler.handleMessage(session, new BinaryMessage(move));
+        handler.handleMessage(session, new TextMessage("{\"type\":\"ACK\",\"tick\":1}"));
+
+        assertThat(inputBuffer.size()).isZero();
+        verify(snapshotService, never()).acknowledge(anyInt(), anyLong());
+    }
+
+    private static WebSocketSession session(Map<String, Object> attributes) {
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getAttributes()).thenReturn(new HashMap<>(attributes));
+        return session;
+    }
+}
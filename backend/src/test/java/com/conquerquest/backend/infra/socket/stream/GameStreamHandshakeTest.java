@@ -0,0 +1,69 @@
+package com.conquerquest.backend.infra.socket.stream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A stream opens only with a token issued at join, once, and is bound to the
+ * user of that token whatever else the URL says.
+ */
+class GameStreamHandshakeTest {
+
+    private final GameStreamTokens tokens = new GameStreamTokens(30);
+    private final GameStreamHandshake handshake = new GameStreamHandshake(tokens);
+
+    @Test
+    void tokenOpensTheStreamOfItsUserOnce() {
+        UUID owner = UUID.randomUUID();
+        String token = tokens.issue(owner, 42);
+
+        Map<String, Object> attributes = new HashMap<>();
+        assertThat(connect("token=" + token + "&userId=" + UUID.randomUUID(), attributes).accepted).isTrue();
+        assertThat(attributes).containsEntry(GameStreamHandler.USER_ID, owner)
+                .containsEntry(GameStreamHandler.ENTITY_ID, 42);
+
+        Attempt replay = connect("token=" + token, new HashMap<>());
+        assertThat(replay.accepted).isFalse();
+        assertThat(replay.status).isEqualTo(HttpStatus.FORBIDDEN.value());
+    }
+
+    @Test
+    void userIdAloneIsRefused() {
+        tokens.issue(UUID.randomUUID(), 42);
+        Map<String, Object> attributes = new HashMap<>();
+
+        assertThat(connect("userId=" + UUID.randomUUID(), attributes).accepted).isFalse();
+        assertThat(connect("token=forged", attributes).accepted).isFalse();
+        assertThat(attributes).isEmpty();
+    }
+
+    @Test
+    void expiredTokenIsRefused() {
+        GameStreamTokens expiring = new GameStreamTokens(0);
+        String token = expiring.issue(UUID.randomUUID(), 42);
+
+        assertThat(expiring.redeem(token)).isNull();
+    }
+
+    private record Attempt(boolean accepted, int status) {
+    }
+
+    private Attempt connect(String query, Map<String, Object> attributes) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/ws-game");
+        request.setQueryString(query);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        boolean accepted = handshake.beforeHandshake(new ServletServerHttpRequest(request),
+                new ServletServerHttpResponse(response), null, attributes);
+        return new Attempt(accepted, response.getStatus());
+    }
+}
@@ -1,6 +1,7 @@
 import { useEffect, useRef } from "react";
 import { useLocation, useNavigate } from "react-router-dom";
 import { socketClient } from "../game/network/SocketClient";
+import { MapChunkLoader } from "../game/network/MapChunkLoader";
 import * as PIXI from 'pixi.js';
 import GameRenderer from "../game/engine/GameRenderer";
 import { Hud } from "../ui/Hud";
@@ -72,17 +73,15 @@ function GameCanvas() {
                     containerRef.current.appendChild(app.canvas);
                 }
 
-                console.log("Fetching map from server...");
-                const mapResponse = await fetch("http://localhost:8080/api/map");
-                if (!mapResponse.ok) throw new Error("Failed to load map");
-
-                const mapData = await mapResponse.json();
+                console.log("Fetching map manifest from server...");
+                // Chunks themselves are fetched around the player once it spawns
+                const mapManifest = await MapChunkLoader.fetchManifest();
 
                 // second safeguard
                 if (!isMounted) return;
 
                 // We just pass the App instance. The player creation happens on 'start()'.
-                gameRendererRef.current = new GameRenderer(app, mapData);
+                gameRendererRef.current = new GameRenderer(app, mapManifest);
 
                 console.log(`Connecting to server as: ${playerName}`);
 
@@ -8,7 +8,7 @@ import { MovementSystem } from '../systems/MovementSystem';
 import { NetworkSyncSystem } from '../systems/NetworkSyncSystem';
 
 class GameRenderer {
-    constructor(app, mapData) {
+    constructor(app, mapManifest) {
         if (!app) throw new Error("GameRenderer requires a PixiJS App instance.");
 
         // Set global PIXI options
@@ -16,7 +16,6 @@ class GameRenderer {
         PIXI.AbstractRenderer.defaultOptions.roundPixels = true;
 
         this.app = app;
-        this.mapData = mapData;
 
         // 1. Setup Scene Hierarchy
         this.scene = new SceneManager(this.app);
@@ -26,7 +25,7 @@ class GameRenderer {
         this.movementSystem = new MovementSystem();
 
         // 3. Initialize Map
-        this.map = new GameMap(this.app, this.scene.backgroundLayer, this.scene.entityLayer, mapData);
+        this.map = new GameMap(this.app, this.scene.backgroundLayer, this.scene.entityLayer, mapManifest);
 
         // Placeholders for late-init objects
         this.player = null;
@@ -40,6 +39,9 @@ class GameRenderer {
     start(joinData) {
         this.myEntityId = joinData.entityId;
 
+        // Fetch the map around the spawn point first
+        this.map.loadAround(joinData.spawnX, joinData.spawnY);
+
         // Create Main Player
         this.player = new Player(
             this.app,
@@ -99,6 +101,7 @@ class GameRenderer {
         // Process Input & Local Physics
         if (this.player) {
             this.movementSystem.update(deltaInSeconds, this.player, this.inputSystem, this.map);
+            this.map.loadAround(this.player.sprite.x, this.player.sprite.y);
         }
 
         // Update Camera
@@ -1,25 +1,32 @@
 import { loadMapAssets } from './MapAssets';
 import { MapPhysics } from './MapPhysics';
 import { MapRenderer } from './MapRenderer';
+import { MapChunkLoader } from '../../network/MapChunkLoader';
+
+// Chunks loaded around the player, in each direction
+const LOAD_RADIUS = 1;
 
 export class Map {
-    constructor(app, backgroundLayer, entityLayer, mapData) {
+    constructor(app, backgroundLayer, entityLayer, manifest) {
         this.app = app;
 
-        // Define world constants
-        this.tileSize = 64;
-
-        if (!mapData || mapData.length === 0) {
-            console.error("[Map] MapData is empty or invalid!");
+        if (!manifest || manifest.chunksX === 0) {
+            console.error("[Map] Map manifest is empty or invalid!");
             return;
         }
 
-        // 1. Initialize Logic/Physics
-        this.physics = new MapPhysics(mapData, this.tileSize);
+        // Define world constants
+        this.tileSize = manifest.tileSize;
+
+        // 1. Initialize Logic/Physics (filled chunk by chunk)
+        this.physics = new MapPhysics(manifest, this.tileSize);
+        this.loader = new MapChunkLoader(manifest);
 
         // 2. Prepare Rendering references
         this.layers = { backgroundLayer, entityLayer };
         this.renderer = null; // Will be init after assets load
+        this.pendingChunks = []; // chunks that arrived before the assets
+        this.centerChunk = null; // "cx,cy" of the last loadAround
 
         // 3. Start Creation Process
         this.create();
@@ -34,14 +41,42 @@ export class Map {
         // Initialize Renderer with loaded assets
         this.renderer = new MapRenderer(this.layers, this.tileSize, assets);
 
-        console.log("[Map] Building map visual state...");
-
-        // Trigger the initial render pass, passing physics for neighbor lookups
-        this.renderer.render(this.physics);
+        for (const [cx, cy] of this.pendingChunks) {
+            this.renderer.renderChunk(this.physics, cx, cy);
+        }
+        this.pendingChunks = [];
 
         console.log("[Map] Map ready.");
     }
 
+    /**
+     * Requests the chunks around a world position. Cheap to call every frame:
+     * it only does work when the position enters another chunk.
+     */
+    loadAround(worldX, worldY) {
+        if (!this.physics) return;
+
+        const chunkPixels = this.physics.chunkSize * this.tileSize;
+        const cx = Math.floor(worldX / chunkPixels);
+        const cy = Math.floor(worldY / chunkPixels);
+
+        const key = `${cx},${cy}`;
+        if (key === this.centerChunk) return;
+        this.centerChunk = key;
+
+        this.loader.loadAround(cx, cy, LOAD_RADIUS, (x, y, tiles) => this.onChunk(x, y, tiles));
+    }
+
+    onChunk(cx, cy, tiles) {
+        this.physics.setChunk(cx, cy, tiles);
+
+        if (this.renderer) {
+            this.renderer.renderChunk(this.physics, cx, cy);
+        } else {
+            this.pendingChunks.push([cx, cy]);
+        }
+    }
+
     // --- Public API (Facade) ---
     // Other systems (Input, Player) interact with Map via these methods,
     // which delegate to the correct sub-module.
@@ -61,4 +96,4 @@ export class Map {
     get worldHeight() {
         return this.physics.heightInTiles * this.tileSize;
     }
-}
\ No newline at end of file
+}
@@ -2,25 +2,42 @@ import { TILE_TYPES } from './MapConstants';
 
 export class MapPhysics {
     /**
-     * @param {Array<Array<number>>} mapData - The raw grid data.
+     * @param {Object} manifest - Map manifest from the server (sizes and chunk layout).
      * @param {number} tileSize - Size of a tile in pixels (e.g., 64).
      */
-    constructor(mapData, tileSize) {
-        this.mapData = mapData;
+    constructor(manifest, tileSize) {
         this.tileSize = tileSize;
-        this.widthInTiles = mapData ? mapData.length : 0;
-        this.heightInTiles = mapData && mapData[0] ? mapData[0].length : 0;
+        this.widthInTiles = manifest.widthTiles;
+        this.heightInTiles = manifest.heightTiles;
+        this.chunkSize = manifest.chunkSize;
+        this.chunksX = manifest.chunksX;
+
+        // Loaded chunks by index (cy * chunksX + cx), one byte per tile, row by row
+        this.chunks = new Array(manifest.chunksX * manifest.chunksY).fill(null);
+    }
+
+    setChunk(cx, cy, tiles) {
+        this.chunks[cy * this.chunksX + cx] = tiles;
+    }
+
+    hasChunk(cx, cy) {
+        return this.chunks[cy * this.chunksX + cx] !== null;
     }
 
     /**
      * Safely retrieves the tile type at specific grid coordinates.
-     * Returns -1 if out of bounds.
+     * Returns -1 if out of bounds or not loaded yet.
      */
     getTileType(x, y) {
         if (x < 0 || x >= this.widthInTiles || y < 0 || y >= this.heightInTiles) {
             return -1;
         }
-        return this.mapData[x][y];
+
+        const size = this.chunkSize;
+        const chunk = this.chunks[Math.floor(y / size) * this.chunksX + Math.floor(x / size)];
+        if (!chunk) return -1;
+
+        return chunk[(y % size) * size + (x % size)];
     }
 
     /**
@@ -53,6 +70,7 @@ export class MapPhysics {
 
     /**
      * Determines if a specific pixel coordinate is inside a solid tile.
+     * World bounds and chunks not loaded yet count as solid.
      */
     isPointSolid(x, y) {
         if (Number.isNaN(x) || Number.isNaN(y)) return true;
@@ -60,12 +78,8 @@ export class MapPhysics {
         const tileX = Math.floor(x / this.tileSize);
         const tileY = Math.floor(y / this.tileSize);
 
-        if (tileX < 0 || tileX >= this.widthInTiles || tileY < 0 || tileY >= this.heightInTiles) {
-            return true; // World bounds are solid
-        }
-
-        const type = this.mapData[tileX][tileY];
-        if (type === undefined) return true;
+        const type = this.getTileType(tileX, tileY);
+        if (type === -1) return true;
 
         // Define what is solid (hardcoded for now, could be a property in MapConstants)
         return type === TILE_TYPES.TREE || type === TILE_TYPES.ROCK;
@@ -78,14 +92,10 @@ export class MapPhysics {
         const tileX = Math.floor(x / this.tileSize);
         const tileY = Math.floor(y / this.tileSize);
 
-        // Treat out of bounds as normal speed (or stop, handled by collision)
-        if (tileX < 0 || tileX >= this.widthInTiles || tileY < 0 || tileY >= this.heightInTiles) {
-            return 1.0;
-        }
-
-        const tileType = this.mapData[tileX][tileY];
+        // Out of bounds or unloaded: normal speed (collision handles the rest)
+        const tileType = this.getTileType(tileX, tileY);
         if (tileType === TILE_TYPES.WATER) return 0.5; // Slow down in water
 
         return 1.0;
     }
-}
\ No newline at end of file
+}
@@ -12,21 +12,26 @@ export class MapRenderer {
         this.entityLayer = layers.entityLayer;
         this.tileSize = tileSize;
         this.assets = assets;
+        this.decoratedTiles = new Set();
     }
 
     /**
-     * Main render loop for the map.
+     * Renders the tiles of one chunk.
      * @param {MapPhysics} physics - Reference to physics for neighbor checking.
      */
-    render(physics) {
-        const { widthInTiles, heightInTiles } = physics;
+    renderChunk(physics, cx, cy) {
+        const size = physics.chunkSize;
+        const startX = cx * size;
+        const startY = cy * size;
+        const endX = Math.min(startX + size, physics.widthInTiles);
+        const endY = Math.min(startY + size, physics.heightInTiles);
 
         // Controle local para evitar sobreposição de decorações
-        // Armazena strings "x,y"
-        const decoratedTiles = new Set();
+        // Armazena strings "x,y"; compartilhado entre chunks (clusters cruzam bordas)
+        const decoratedTiles = this.decoratedTiles;
 
-        for (let x = 0; x < widthInTiles; x++) {
-            for (let y = 0; y < heightInTiles; y++) {
+        for (let x = startX; x < endX; x++) {
+            for (let y = startY; y < endY; y++) {
                 const type = physics.getTileType(x, y);
                 const posX = x * this.tileSize;
                 const posY = y * this.tileSize;
@@ -0,0 +1,76 @@
+const STREAM_URL = 'ws://localhost:8080/ws-game';
+
+// binary input frames (see GameStreamHandler on the server), little endian
+const MOVE = 1;
+const ACK = 2;
+const FLAG_SPRINTING = 1;
+const FLAG_DASHING = 2;
+
+/**
+ * Raw websocket for the game state stream (/ws-game).
+ * Once open, the server sends snapshots here as binary frames, and stats and
+ * inventory as { type, data } JSON text frames, instead of using STOMP.
+ * Movement and acks go up as compact binary frames.
+ * If it closes, the server goes back to the STOMP topics on its own.
+ */
+export class GameStream {
+    constructor(decoder, onGameState, onMessage) {
+        this.decoder = decoder;
+        this.onGameState = onGameState; // (gameState) => void
+        this.onMessage = onMessage;     // (type, data) => void
+        this.socket = null;
+
+        // reused frames, WebSocket.send copies the bytes
+        this.moveFrame = new ArrayBuffer(18);
+        this.ackFrame = new ArrayBuffer(9);
+    }
+
+    // token: the single-use streamToken of the join response
+    open(token) {
+        this.socket = new WebSocket(`${STREAM_URL}?token=${encodeURIComponent(token)}`);
+        this.socket.binaryType = 'arraybuffer';
+
+        this.socket.onmessage = (event) => {
+            if (event.data instanceof ArrayBuffer) {
+                this.onGameState(this.decoder.decode(new Uint8Array(event.data)));
+            } else {
+                const message = JSON.parse(event.data);
+                this.onMessage(message.type, message.data);
+            }
+        };
+
+        this.socket.onclose = (event) => {
+            console.warn('Game stream closed:', event.code, event.reason);
+            this.socket = null;
+        };
+    }
+
+    isOpen() {
+        return this.socket !== null && this.socket.readyState === WebSocket.OPEN;
+    }
+
+    // 18 bytes instead of a JSON STOMP frame; the server takes the entity from the session
+    sendMove(input) {
+        const view = new DataView(this.moveFrame);
+        view.setUint8(0, MOVE);
+        view.setFloat32(1, input.x, true);
+        view.setFloat32(5, input.y, true);
+        view.setFloat32(9, input.facingX, true);
+        view.setFloat32(13, input.facingY, true);
+        view.setUint8(17, (input.isSprinting ? FLAG_SPRINTING : 0) | (input.isDashing ? FLAG_DASHING : 0));
+        this.socket.send(this.moveFrame);
+    }
+
+    sendAck(tick) {
+        const view = new DataView(this.ackFrame);
+        view.setUint8(0, ACK);
+        view.setBigInt64(1, BigInt(tick), true);
+        this.socket.send(this.ackFrame);
+    }
+
+    close() {
+        if (this.socket) {
+            this.socket.close();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+const MAP_URL = 'http://localhost:8080/api/map';
+
+/**
+ * Fetches the map manifest and binary chunks (see WorldMapController).
+ * The browser cache revalidates chunks with their ETag and inflates gzip on
+ * its own, so a reload of an unchanged map costs one 304 per chunk.
+ */
+export class MapChunkLoader {
+    static async fetchManifest() {
+        const response = await fetch(`${MAP_URL}/manifest`);
+        if (!response.ok) throw new Error("Failed to load map manifest");
+        return response.json();
+    }
+
+    constructor(manifest) {
+        this.manifest = manifest;
+        this.requested = new Set(); // "cx,cy" already loaded or in flight
+    }
+
+    /**
+     * Fetches every chunk within 'radius' chunks of (cx, cy) not requested yet.
+     * @param {(cx: number, cy: number, tiles: Uint8Array) => void} onChunk
+     */
+    loadAround(cx, cy, radius, onChunk) {
+        const { chunksX, chunksY } = this.manifest;
+
+        for (let y = cy - radius; y <= cy + radius; y++) {
+            for (let x = cx - radius; x <= cx + radius; x++) {
+                if (x < 0 || y < 0 || x >= chunksX || y >= chunksY) continue;
+
+                const key = `${x},${y}`;
+                if (this.requested.has(key)) continue;
+                this.requested.add(key);
+
+                this.fetchChunk(x, y)
+                    .then((tiles) => onChunk(x, y, tiles))
+                    .catch((error) => {
+                        console.error(`[Map] Failed to load chunk ${key}`, error);
+                        this.requested.delete(key); // retried on the next call
+                    });
+            }
+        }
+    }
+
+    async fetchChunk(cx, cy) {
+        const response = await fetch(`${MAP_URL}/chunk/${cx}/${cy}`);
+        if (!response.ok) throw new Error(`HTTP ${response.status}`);
+        return new Uint8Array(await response.arrayBuffer());
+    }
+}
@@ -0,0 +1,59 @@
+// States kept by tick to rebuild deltas. The server keeps 64 baselines,
+// keeping more here means its baseline is always still available.
+const MAX_STATES = 128;
+
+/**
+ * Rebuilds full game states from the server's delta snapshots.
+ * A delta lists the entities that changed since 'baselineTick' and the ids
+ * that are gone; baselineTick = -1 means a full snapshot.
+ */
+export class SnapshotBuffer {
+    constructor() {
+        this.states = new Map(); // Map<tick, Map<ID, EntitySnapshot>>
+    }
+
+    /**
+     * @param {Object} gameState - The payload from server
+     * @returns {Object|null} full state { serverTime, tick, entities }, or null if the baseline is unknown
+     */
+    apply(gameState) {
+        if (!gameState) return null;
+
+        let entities;
+        if (gameState.baselineTick < 0) {
+            entities = new Map();
+        } else {
+            const baseline = this.states.get(gameState.baselineTick);
+            if (!baseline) {
+                console.warn("Missing snapshot baseline:", gameState.baselineTick);
+                return null;
+            }
+            entities = new Map(baseline);
+        }
+
+        gameState.entities.forEach(snapshot => entities.set(snapshot.id, snapshot));
+        (gameState.removed || []).forEach(id => entities.delete(id));
+
+        this.states.set(gameState.tick, entities);
+        this.prune(gameState.baselineTick);
+
+        return {
+            serverTime: gameState.serverTime,
+            tick: gameState.tick,
+            entities: Array.from(entities.values())
+        };
+    }
+
+    // acks only move forward, so the server never goes back to an older baseline
+    prune(baselineTick) {
+        for (const tick of this.states.keys()) {
+            if (tick < baselineTick || this.states.size > MAX_STATES) {
+                this.states.delete(tick);
+            }
+        }
+    }
+
+    clear() {
+        this.states.clear();
+    }
+}
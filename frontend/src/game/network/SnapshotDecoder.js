@@ -0,0 +1,73 @@
+const SUPPORTED_VERSION = 1;
+const QUANTIZATION_STEPS = 0xFFFF;
+
+/**
+ * Decodes the binary gamestate format (see SnapshotCodec on the server) into
+ * the same shape as the JSON snapshots, so SnapshotBuffer handles both.
+ *
+ * Layout (little endian, varint = unsigned LEB128):
+ * u8 version | varint tick | varint tick - baselineTick (0 = full) | varint serverTime
+ * varint count, then { varint id, u16 x, u16 y } | varint removed count, then varint ids
+ */
+export class SnapshotDecoder {
+    constructor(worldWidth, worldHeight) {
+        this.scaleX = worldWidth / QUANTIZATION_STEPS;
+        this.scaleY = worldHeight / QUANTIZATION_STEPS;
+    }
+
+    /**
+     * @param {Uint8Array} bytes - binary STOMP body
+     */
+    decode(bytes) {
+        const view = new DataView(bytes.buffer, bytes.byteOffset, bytes.byteLength);
+        this.view = view;
+        this.offset = 0;
+
+        const version = view.getUint8(this.offset++);
+        if (version !== SUPPORTED_VERSION) {
+            console.warn("Unsupported snapshot version:", version);
+            return null;
+        }
+
+        const tick = this.readVarint();
+        const baselineDistance = this.readVarint();
+        const serverTime = this.readVarint();
+
+        const count = this.readVarint();
+        const entities = new Array(count);
+        for (let i = 0; i < count; i++) {
+            const id = this.readVarint();
+            const x = view.getUint16(this.offset, true) * this.scaleX;
+            const y = view.getUint16(this.offset + 2, true) * this.scaleY;
+            this.offset += 4;
+            entities[i] = { id, x, y };
+        }
+
+        const removedCount = this.readVarint();
+        const removed = new Array(removedCount);
+        for (let i = 0; i < removedCount; i++) {
+            removed[i] = this.readVarint();
+        }
+
+        return {
+            serverTime,
+            tick,
+            baselineTick: baselineDistance === 0 ? -1 : tick - baselineDistance,
+            entities,
+            removed
+        };
+    }
+
+    // plain arithmetic instead of bit ops: ticks and timestamps exceed 32 bits
+    readVarint() {
+        let result = 0;
+        let multiplier = 1;
+        let byte;
+        do {
+            byte = this.view.getUint8(this.offset++);
+            result += (byte & 0x7F) * multiplier;
+            multiplier *= 128;
+        } while (byte & 0x80);
+        return result;
+    }
+}
@@ -1,22 +1,45 @@
 import { Client } from '@stomp/stompjs';
 import SockJS from 'sockjs-client';
 import { gameEvents } from '../events/GameEventManager';
+import { SnapshotBuffer } from './SnapshotBuffer';
+import { SnapshotDecoder } from './SnapshotDecoder';
+import { GameStream } from './GameStream';
+
+// binary snapshots need a plain websocket, SockJS only carries text
+const BINARY_URL = 'ws://localhost:8080/ws-stomp';
+const SOCKJS_URL = 'http://localhost:8080/ws';
 
 class SocketClient {
     constructor() {
         this.client = null;
         this.connected = false;
         this.entityId = null;
+        this.snapshots = new SnapshotBuffer(); // rebuilds delta snapshots
+        this.decoder = null;     // set when the server agreed on binary snapshots
+        this.binary = false;
+        this.stream = null;      // raw websocket stream, when the browser supports it
 
         this.onGameState = null; // used to notify game state updates
         this.onJoin = null;      // used to notify join response
     }
 
-    connect(playerName, isGuest = true) {
+    // binary snapshots are opt-in: asked for when the browser has native websockets,
+    // and dropped back to SockJS + JSON if that connection can't be made
+    connect(playerName, isGuest = true, preferBinary = typeof WebSocket !== 'undefined') {
+        this.binary = preferBinary;
+
         // Stomp Configuration
         this.client = new Client({
 
-            webSocketFactory: () => new SockJS('http://localhost:8080/ws'),
+            webSocketFactory: () => preferBinary ? new WebSocket(BINARY_URL) : new SockJS(SOCKJS_URL),
+
+            onWebSocketClose: () => {
+                if (preferBinary && !this.connected) {
+                    console.warn('Native WebSocket failed, falling back to SockJS + JSON');
+                    this.client.deactivate();
+                    this.connect(playerName, isGuest, false);
+                }
+            },
 
             onConnect: () => {
                 console.log('🔗 WebSocket Connected!');
@@ -27,6 +50,8 @@ class SocketClient {
                     const response = JSON.parse(message.body);
                     if (response.success) {
                         this.entityId = response.entityId;
+                        // the raw stream always sends binary, STOMP only if we opted in
+                        this.decoder = new SnapshotDecoder(response.worldWidth, response.worldHeight);
                         console.log('Joined Game - ID:', this.entityId);
 
                         // tells gameCanvas about join success
@@ -43,13 +68,20 @@ class SocketClient {
                             const invData = JSON.parse(invMsg.body);
                             gameEvents.emit("PLAYER_INVENTORY_UPDATE", invData);
                         });
-                    }
-                });
 
-                // listen to gameState (Global - Broadcast)
-                this.client.subscribe('/topic/gamestate', (message) => {
-                    if (this.onGameState) {
-                        this.onGameState(JSON.parse(message.body));
+                        // gameState is filtered per player (area of interest)
+                        this.snapshots.clear();
+                        this.client.subscribe(`/topic/gamestate/${myUserId}`, (message) => {
+                            this.handleSnapshot(this.parseSnapshot(message));
+                        });
+
+                        // while the stream is open the server sends through it instead of the topics above
+                        if (this.binary && response.streamToken) {
+                            this.stream = new GameStream(this.decoder,
+                                (gameState) => this.handleSnapshot(gameState),
+                                (type, data) => this.handleStreamMessage(type, data));
+                            this.stream.open(response.streamToken);
+                        }
                     }
                 });
 
@@ -71,19 +103,61 @@ class SocketClient {
             body: JSON.stringify({
                 userId: null, // null for guest users
                 guestName: name,
-                isGuest: isGuest
+                isGuest: isGuest,
+                binarySnapshots: this.binary
             })
         });
     }
 
+    handleSnapshot(snapshot) {
+        const gameState = this.snapshots.apply(snapshot);
+        if (!gameState) return;
+
+        // next snapshots only carry what changed since this one
+        if (this.stream && this.stream.isOpen()) {
+            this.stream.sendAck(gameState.tick);
+        } else {
+            this.sendInput('ACK', { tick: gameState.tick });
+        }
+
+        if (this.onGameState) {
+            this.onGameState(gameState);
+        }
+    }
+
+    handleStreamMessage(type, data) {
+        switch (type) {
+            case 'stats':
+                gameEvents.emit("PLAYER_STATS_UPDATE", data);
+                break;
+            case 'inventory':
+                gameEvents.emit("PLAYER_INVENTORY_UPDATE", data);
+                break;
+            default:
+                console.warn('Unknown stream message:', type);
+        }
+    }
+
+    parseSnapshot(message) {
+        if (message.headers['content-type'] === 'application/octet-stream') {
+            return this.decoder.decode(message.binaryBody);
+        }
+        return JSON.parse(message.body);
+    }
+
     // called by game loop to send player inputs 60 times per second
     sendInput(type, inputData) {
         if (!this.connected || !this.entityId) return;
 
+        if (type === 'MOVE' && this.stream && this.stream.isOpen()) {
+            this.stream.sendMove(inputData);
+            return;
+        }
+
         this.client.publish({
             destination: '/app/input',
+            // the server knows our entity from the session bound at join
             body: JSON.stringify({
-                userId: this.entityId,
                 type,
                 payload: { ...inputData }
             })
@@ -91,6 +165,10 @@ class SocketClient {
     }
 
     disconnect() {
+        if (this.stream) {
+            this.stream.close();
+            this.stream = null;
+        }
         if (this.client) {
             this.client.deactivate();
         }